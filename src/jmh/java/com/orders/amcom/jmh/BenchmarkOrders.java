@@ -0,0 +1,42 @@
+package com.orders.amcom.jmh;
+
+import com.orders.amcom.enums.OrderStatus;
+import com.orders.amcom.model.Money;
+import com.orders.amcom.model.Order;
+import com.orders.amcom.model.Product;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+final class BenchmarkOrders {
+
+    private BenchmarkOrders() {
+    }
+
+    // Preços e quantidades variados para não favorecer caminhos com valores repetidos.
+    static Order order(int products) {
+        Order order = new Order();
+        order.setId("6f1c2a9e-5d7b-4f0e-9a51-2b8c3d4e5f60");
+        order.setExternalId("ORD-1754398712345");
+        order.setStatus(OrderStatus.PENDING);
+        order.setCreatedAt(LocalDateTime.of(2024, 5, 1, 10, 15, 30));
+        order.setUpdatedAt(order.getCreatedAt());
+
+        List<Product> items = new ArrayList<>(products);
+        Money.Sum total = new Money.Sum();
+        for (int i = 0; i < products; i++) {
+            Product product = new Product();
+            product.setId("product-" + i);
+            product.setName("Produto " + i);
+            product.setPrice(Money.ofMinor(199 + (i * 37L) % 10_000));
+            product.setQuantity(1 + i % 7);
+            product.setOrder(order);
+            items.add(product);
+            total.add(product.getPrice(), product.getQuantity());
+        }
+        order.setProducts(items);
+        order.setTotalAmount(total.toMoney());
+        return order;
+    }
+}
@@ -0,0 +1,29 @@
+package com.orders.amcom.jmh;
+
+import com.orders.amcom.service.ExternalIdGenerator;
+import com.orders.amcom.service.SnowflakeExternalIdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Com várias threads mede também a disputa no CAS do gerador: mvn -Pjmh -DskipTests verify -Djmh.args="ExternalId -t 4"
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ExternalIdBenchmark {
+
+    private ExternalIdGenerator generator;
+
+    @Setup
+    public void setUp() {
+        generator = new SnowflakeExternalIdGenerator(1);
+    }
+
+    @Benchmark
+    public String nextId() {
+        return generator.nextId();
+    }
+}
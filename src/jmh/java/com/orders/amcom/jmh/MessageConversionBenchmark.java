@@ -0,0 +1,48 @@
+package com.orders.amcom.jmh;
+
+import com.orders.amcom.converter.OrderMessageConverter;
+import com.orders.amcom.enums.OrderMessageFormat;
+import com.orders.amcom.model.Order;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class MessageConversionBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    private int products;
+
+    @Param({"JSON", "BINARY"})
+    private OrderMessageFormat format;
+
+    private MessageConverter converter;
+    private Order order;
+    private Message message;
+
+    @Setup
+    public void setUp() {
+        converter = new OrderMessageConverter(format, 1024);
+        order = BenchmarkOrders.order(products);
+        message = converter.toMessage(order, new MessageProperties());
+        message.getMessageProperties().setInferredArgumentType(Order.class);
+    }
+
+    @Benchmark
+    public Message toMessage() {
+        return converter.toMessage(order, new MessageProperties());
+    }
+
+    @Benchmark
+    public Object fromMessage() {
+        return converter.fromMessage(message);
+    }
+}
@@ -0,0 +1,38 @@
+package com.orders.amcom.jmh;
+
+import com.orders.amcom.dto.OrderDto;
+import com.orders.amcom.model.Order;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class OrderDtoBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    private int products;
+
+    private Order order;
+    private OrderDto dto;
+
+    @Setup
+    public void setUp() {
+        order = BenchmarkOrders.order(products);
+        dto = OrderDto.fromEntity(order);
+    }
+
+    @Benchmark
+    public OrderDto fromEntity() {
+        return OrderDto.fromEntity(order);
+    }
+
+    @Benchmark
+    public Order fromDTO() {
+        return OrderDto.fromDTO(dto);
+    }
+}
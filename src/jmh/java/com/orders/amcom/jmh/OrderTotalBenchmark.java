@@ -0,0 +1,35 @@
+package com.orders.amcom.jmh;
+
+import com.orders.amcom.model.Money;
+import com.orders.amcom.model.Order;
+import com.orders.amcom.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class OrderTotalBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    private int products;
+
+    private OrderService orderService;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        // calculateOrderTotal não usa nenhuma dependência do serviço.
+        orderService = new OrderService(null, null, null, null, null, null, null);
+        order = BenchmarkOrders.order(products);
+    }
+
+    @Benchmark
+    public Money calculateOrderTotal() {
+        return orderService.calculateOrderTotal(order);
+    }
+}
@@ -0,0 +1,11 @@
+package com.orders.amcom.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+// Tamanho, TTL e estatísticas do cache são definidos em spring.cache.caffeine.spec.
+@EnableCaching
+@Configuration
+public class CacheConfig {
+    public static final String ORDERS_CACHE = "orders";
+}
@@ -0,0 +1,92 @@
+package com.orders.amcom.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Com réplicas ligadas, o DataSource da aplicação passa a ser o roteador (atrás do proxy lazy). O primário continua
+// configurado por spring.datasource.*; as réplicas usam as mesmas credenciais salvo indicação em contrário.
+@Configuration
+@ConditionalOnProperty(name = "orders.datasource.replicas.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+    private final List<HikariDataSource> replicaPools = new ArrayList<>();
+    private ReplicaRoutingDataSource routing;
+
+    @Value("${orders.datasource.replicas.health-check-timeout:2s}")
+    private Duration healthCheckTimeout;
+
+    @Value("${orders.datasource.replicas.max-lag:5s}")
+    private Duration maxLag;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource, DataSourceProperties properties,
+                                                             MeterRegistry meterRegistry,
+                                                             @Value("${orders.datasource.replicas.urls}") List<String> urls,
+                                                             @Value("${orders.datasource.replicas.username:${spring.datasource.username:}}") String username,
+                                                             @Value("${orders.datasource.replicas.password:${spring.datasource.password:}}") String password,
+                                                             @Value("${orders.datasource.replicas.maximum-pool-size:10}") int maximumPoolSize) {
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("orders.datasource.replicas.urls must list at least one replica");
+        }
+        List<DataSource> replicas = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(urls.get(i))
+                    .username(username)
+                    .password(password)
+                    .build();
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setMaximumPoolSize(maximumPoolSize);
+            replica.setReadOnly(true);
+            // Fora de um pool gerenciado pelo Boot: as métricas hikaricp.* das réplicas são registradas aqui.
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicaPools.add(replica);
+            replicas.add(replica);
+        }
+        routing = new ReplicaRoutingDataSource(primaryDataSource, replicas);
+        Gauge.builder("orders.datasource.replicas.healthy", routing, ReplicaRoutingDataSource::healthyReplicas)
+                .register(meterRegistry);
+        return routing;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Scheduled(fixedDelayString = "${orders.datasource.replicas.health-check-interval:5s}")
+    public void checkReplicas() {
+        if (routing != null) {
+            routing.checkReplicas(healthCheckTimeout, maxLag);
+        }
+    }
+
+    @PreDestroy
+    public void closeReplicas() {
+        replicaPools.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,99 @@
+package com.orders.amcom.config;
+
+import com.orders.amcom.service.ExternalIdGenerator;
+import com.orders.amcom.service.LeaseService;
+import com.orders.amcom.service.SnowflakeExternalIdGenerator;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+
+@Slf4j
+@Configuration
+public class IdGeneratorConfig {
+    static final String NODE_LEASE_PREFIX = "external-id-node-";
+
+    private final LeaseService leaseService;
+    private final Duration leaseTtl;
+    private volatile String leaseName;
+    // System.nanoTime() até quando o lease vale, contado do início da última renovação bem-sucedida.
+    private volatile long leaseValidUntil;
+
+    public IdGeneratorConfig(LeaseService leaseService, @Value("${orders.id.node-lease-ttl:10m}") Duration leaseTtl) {
+        this.leaseService = leaseService;
+        this.leaseTtl = leaseTtl;
+    }
+
+    // Com orders.id.node-id explícito, quem configura garante um valor por réplica. Sem ele, a réplica aluga no banco
+    // o menor nodeId livre, e réplicas idênticas (mesma imagem, mesma configuração) nunca recebem o mesmo.
+    @Bean
+    @ConditionalOnMissingBean(ExternalIdGenerator.class)
+    public ExternalIdGenerator externalIdGenerator(@Value("${orders.id.node-id:}") String nodeId) {
+        if (!nodeId.isBlank()) {
+            long configuredNodeId = Long.parseLong(nodeId.trim());
+            log.info("Generating order external ids with configured node id {}", configuredNodeId);
+            return new SnowflakeExternalIdGenerator(configuredNodeId);
+        }
+        SnowflakeExternalIdGenerator generator = new SnowflakeExternalIdGenerator(leaseNodeId());
+        log.info("Generating order external ids with leased node id {}", generator.getNodeId());
+        return () -> {
+            // Sem o lease outra réplica pode estar usando o mesmo nodeId: melhor falhar o pedido do que repetir ids.
+            if (System.nanoTime() - leaseValidUntil >= 0) {
+                throw new IllegalStateException("Lease on external id node " + generator.getNodeId() + " was lost");
+            }
+            return generator.nextId();
+        };
+    }
+
+    private long leaseNodeId() {
+        for (long nodeId = 0; nodeId <= SnowflakeExternalIdGenerator.MAX_NODE_ID; nodeId++) {
+            long start = System.nanoTime();
+            if (leaseService.tryAcquire(NODE_LEASE_PREFIX + nodeId, leaseTtl)) {
+                leaseName = NODE_LEASE_PREFIX + nodeId;
+                leaseValidUntil = start + leaseTtl.toNanos();
+                return nodeId;
+            }
+        }
+        throw new IllegalStateException("No free external id node: all " + (SnowflakeExternalIdGenerator.MAX_NODE_ID + 1)
+                + " node ids are leased; set orders.id.node-id explicitly");
+    }
+
+    @Scheduled(fixedDelayString = "${orders.id.node-lease-renew-interval:1m}",
+            initialDelayString = "${orders.id.node-lease-renew-interval:1m}")
+    public void renewNodeLease() {
+        if (leaseName == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            // Se o lease venceu mas ninguém o pegou, tryAcquire o recupera.
+            if (leaseService.renew(leaseName, leaseTtl) || leaseService.tryAcquire(leaseName, leaseTtl)) {
+                leaseValidUntil = start + leaseTtl.toNanos();
+            } else {
+                leaseValidUntil = start;
+                log.error("Lease {} was taken by another instance; refusing to generate external ids", leaseName);
+            }
+        } catch (RuntimeException e) {
+            // O lease ainda vale até expirar; a próxima renovação tenta de novo.
+            log.warn("Could not renew lease {}", leaseName, e);
+        }
+    }
+
+    @PreDestroy
+    public void releaseNodeLease() {
+        if (leaseName == null) {
+            return;
+        }
+        leaseValidUntil = System.nanoTime();
+        try {
+            leaseService.release(leaseName);
+        } catch (RuntimeException e) {
+            log.warn("Could not release lease {}, it expires on its own", leaseName, e);
+        }
+    }
+}
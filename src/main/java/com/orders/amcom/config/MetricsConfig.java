@@ -0,0 +1,38 @@
+package com.orders.amcom.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+
+import java.util.HashSet;
+import java.util.Set;
+
+// Timers, percentis e contadores de falha vêm de @Timed/@Counted nos serviços e listeners
+// (management.observations.annotations.enabled); aqui ficam só os gauges que dependem dos containers AMQP.
+@Configuration
+@RequiredArgsConstructor
+public class MetricsConfig {
+    private final MeterRegistry meterRegistry;
+    private final RabbitListenerEndpointRegistry listenerEndpointRegistry;
+    private final Set<String> registeredContainers = new HashSet<>();
+
+    // Os containers só existem depois que o registry de endpoints é inicializado, no refresh do contexto.
+    @EventListener(ContextRefreshedEvent.class)
+    public synchronized void registerListenerGauges() {
+        for (String id : listenerEndpointRegistry.getListenerContainerIds()) {
+            MessageListenerContainer container = listenerEndpointRegistry.getListenerContainer(id);
+            if (container instanceof SimpleMessageListenerContainer simpleContainer && registeredContainers.add(id)) {
+                Gauge.builder("orders.listener.consumers", simpleContainer, SimpleMessageListenerContainer::getActiveConsumerCount)
+                        .tag("listener", id)
+                        .description("Active consumers of the listener container")
+                        .register(meterRegistry);
+            }
+        }
+    }
+}
@@ -1,24 +1,64 @@
 package com.orders.amcom.config;
 
+import com.orders.amcom.converter.OrderMessageConverter;
+import com.orders.amcom.enums.OrderMessageFormat;
+import com.orders.amcom.listener.OrderRetryPolicy;
+import com.orders.amcom.listener.OrderRetryRecoverer;
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.RetryInterceptorBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.interceptor.RetryOperationsInterceptor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 @Configuration
 public class RabbitMQConfig {
     public static final String QUEUE_NAME = "order-queue";
     public static final String EXCHANGE_NAME = "order-exchange";
     public static final String ROUTING_KEY = "order.routing.key";
+    public static final String ORDER_LISTENER_CONTAINER_FACTORY = "orderListenerContainerFactory";
+    public static final String BATCH_LISTENER_CONTAINER_FACTORY = "batchListenerContainerFactory";
+    public static final String CACHE_INVALIDATION_EXCHANGE_NAME = "order-cache-invalidation-exchange";
+    public static final String PARTITION_EXCHANGE_NAME = "order-partition-exchange";
+    public static final String PARTITION_MEMBERSHIP_EXCHANGE_NAME = "order-partition-membership-exchange";
+    public static final String PARTITIONS_ENABLED = "${orders.partitions.count:0} > 0";
+    public static final String RETRY_EXCHANGE_NAME = "order-retry-exchange";
+    public static final String RETRY_RETURN_EXCHANGE_NAME = "order-retry-return-exchange";
+    public static final String PARKING_QUEUE_NAME = "order-parking-queue";
+    public static final String RETRY_ENABLED_PROPERTY = "orders.retry.enabled";
+
+    public static String partitionQueueName(int partition) {
+        return QUEUE_NAME + "." + partition;
+    }
+
+    public static String retryQueueName(Duration delay) {
+        return "order-retry." + delay.toMillis() + "ms";
+    }
 
     @Bean
     public Queue orderQueue() {
         return new Queue(QUEUE_NAME, true);
     }
 
+    // Volta de uma fila de espera para a fila de origem: o exchange de headers casa o header com o nome da fila.
+    private static Binding retryReturnBinding(String queueName) {
+        return new Binding(queueName, Binding.DestinationType.QUEUE, RETRY_RETURN_EXCHANGE_NAME, "",
+                Map.of("x-match", "all", OrderRetryRecoverer.RETRY_TARGET_HEADER, queueName));
+    }
+
     @Bean
     public TopicExchange orderExchange() {
         return new TopicExchange(EXCHANGE_NAME);
@@ -30,8 +70,107 @@ public class RabbitMQConfig {
     }
 
     @Bean
-    public MessageConverter messageConverter(){
-        return new Jackson2JsonMessageConverter();
+    public FanoutExchange orderCacheInvalidationExchange() {
+        return new FanoutExchange(CACHE_INVALIDATION_EXCHANGE_NAME);
+    }
+
+    // Fila exclusiva por réplica: cada instância recebe todas as invalidações publicadas pelas demais.
+    @Bean
+    public Queue orderCacheInvalidationQueue() {
+        AnonymousQueue queue = new AnonymousQueue();
+        // Sem x-queue-master-locator: client-local já é o padrão do RabbitMQ e outros brokers AMQP recusam o argumento.
+        queue.setLeaderLocator(null);
+        return queue;
+    }
+
+    @Bean
+    public Binding orderCacheInvalidationBinding(Queue orderCacheInvalidationQueue, FanoutExchange orderCacheInvalidationExchange) {
+        return BindingBuilder.bind(orderCacheInvalidationQueue).to(orderCacheInvalidationExchange);
+    }
+
+    // order-queue.0..N-1 ligadas ao exchange direto pelo número da partição. Single active consumer garante um único
+    // consumidor entregando por vez, mesmo enquanto duas réplicas disputam a partição durante um rebalanceamento.
+    @Bean
+    @ConditionalOnExpression(PARTITIONS_ENABLED)
+    public Declarables orderPartitions(@Value("${orders.partitions.count}") int partitions) {
+        DirectExchange exchange = new DirectExchange(PARTITION_EXCHANGE_NAME);
+        List<Declarable> declarables = new ArrayList<>(2 * partitions + 1);
+        declarables.add(exchange);
+        for (int partition = 0; partition < partitions; partition++) {
+            Queue queue = QueueBuilder.durable(partitionQueueName(partition)).singleActiveConsumer().build();
+            declarables.add(queue);
+            declarables.add(BindingBuilder.bind(queue).to(exchange).with(String.valueOf(partition)));
+        }
+        return new Declarables(declarables);
+    }
+
+    @Bean
+    @ConditionalOnExpression(PARTITIONS_ENABLED)
+    public FanoutExchange orderPartitionMembershipExchange() {
+        return new FanoutExchange(PARTITION_MEMBERSHIP_EXCHANGE_NAME);
+    }
+
+    // Cada réplica anuncia sua presença no fanout e ouve as demais pela própria fila exclusiva.
+    @Bean
+    @ConditionalOnExpression(PARTITIONS_ENABLED)
+    public Queue orderPartitionMembershipQueue() {
+        AnonymousQueue queue = new AnonymousQueue();
+        queue.setLeaderLocator(null);
+        return queue;
+    }
+
+    @Bean
+    @ConditionalOnExpression(PARTITIONS_ENABLED)
+    public Binding orderPartitionMembershipBinding(Queue orderPartitionMembershipQueue,
+                                                   FanoutExchange orderPartitionMembershipExchange) {
+        return BindingBuilder.bind(orderPartitionMembershipQueue).to(orderPartitionMembershipExchange);
+    }
+
+    // Uma fila de espera por atraso distinto (TTL); ao expirar, a mensagem é desviada pelo dead-letter exchange de
+    // volta à fila de origem. O que não deve ou não pode mais ser tentado vai para a fila de estacionamento.
+    @Bean
+    public Queue orderParkingQueue() {
+        return QueueBuilder.durable(PARKING_QUEUE_NAME).build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = RETRY_ENABLED_PROPERTY, havingValue = "true", matchIfMissing = true)
+    public Declarables orderRetryTopology(Queue orderQueue, OrderRetryPolicy retryPolicy,
+                                          @Value("${orders.partitions.count:0}") int partitions) {
+        DirectExchange retryExchange = new DirectExchange(RETRY_EXCHANGE_NAME);
+        HeadersExchange returnExchange = new HeadersExchange(RETRY_RETURN_EXCHANGE_NAME);
+        List<Declarable> declarables = new ArrayList<>(List.of(retryExchange, returnExchange,
+                retryReturnBinding(orderQueue.getName())));
+        // O exchange de volta só existe com retentativas ligadas, então as ligações das partições ficam aqui também.
+        for (int partition = 0; partition < partitions; partition++) {
+            declarables.add(retryReturnBinding(partitionQueueName(partition)));
+        }
+        for (Duration delay : retryPolicy.getDelays()) {
+            Queue retryQueue = QueueBuilder.durable(retryQueueName(delay))
+                    .ttl((int) delay.toMillis())
+                    .deadLetterExchange(RETRY_RETURN_EXCHANGE_NAME)
+                    .build();
+            declarables.add(retryQueue);
+            declarables.add(BindingBuilder.bind(retryQueue).to(retryExchange).with(retryQueue.getName()));
+        }
+        return new Declarables(declarables);
+    }
+
+    // Uma única tentativa local: as seguintes passam pelas filas de espera sem prender o consumidor nem a fila.
+    @Bean
+    @ConditionalOnProperty(name = RETRY_ENABLED_PROPERTY, havingValue = "true", matchIfMissing = true)
+    public RetryOperationsInterceptor orderRetryInterceptor(OrderRetryRecoverer retryRecoverer) {
+        return RetryInterceptorBuilder.stateless()
+                .maxAttempts(1)
+                .recoverer(retryRecoverer)
+                .build();
+    }
+
+    @Bean
+    public MessageConverter messageConverter(@Value("${orders.messaging.format:JSON}") OrderMessageFormat format,
+                                             @Value("${orders.messaging.binary.compression-threshold:1024}") int compressionThreshold,
+                                             @Value("${orders.messaging.max-decoded-bytes:1048576}") int maxDecodedBytes) {
+        return new OrderMessageConverter(format, compressionThreshold, maxDecodedBytes);
     }
 
     @Bean
@@ -41,4 +180,36 @@ public class RabbitMQConfig {
         template.setConnectionFactory(connectionFactory);
         return template;
     }
+
+    @Bean(ORDER_LISTENER_CONTAINER_FACTORY)
+    public SimpleRabbitListenerContainerFactory orderListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            ObjectProvider<RetryOperationsInterceptor> orderRetryInterceptor) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        orderRetryInterceptor.ifAvailable(factory::setAdviceChain);
+        return factory;
+    }
+
+    // Entrega ao listener lotes de até batchSize mensagens (ou o que chegar dentro do receiveTimeout),
+    // confirmadas de uma vez quando o listener retorna.
+    @Bean(BATCH_LISTENER_CONTAINER_FACTORY)
+    public SimpleRabbitListenerContainerFactory batchListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            @Value("${orders.listener.batch.size:100}") int batchSize,
+            @Value("${orders.listener.batch.receive-timeout:500}") long receiveTimeout,
+            ObjectProvider<RetryOperationsInterceptor> orderRetryInterceptor) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        orderRetryInterceptor.ifAvailable(factory::setAdviceChain);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(receiveTimeout);
+        factory.setPrefetchCount(batchSize);
+        factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        return factory;
+    }
 }
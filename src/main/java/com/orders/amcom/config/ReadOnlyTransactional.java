@@ -0,0 +1,18 @@
+package com.orders.amcom.config;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Transação só de leitura: com orders.datasource.replicas.enabled=true é atendida por uma réplica
+// (ver ReplicaRoutingDataSource). O jakarta.transaction.Transactional usado nas escritas não tem readOnly.
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Transactional(readOnly = true)
+public @interface ReadOnlyTransactional {
+}
@@ -0,0 +1,168 @@
+package com.orders.amcom.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Transações read-only vão para as réplicas em round-robin; todo o resto vai para o primário. Precisa ficar atrás de
+// um LazyConnectionDataSourceProxy: o gerenciador de transação pega a conexão antes de marcar a transação como
+// read-only, e o proxy só escolhe o destino no primeiro comando.
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    public static final String PRIMARY = "primary";
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+    // Só o PostgreSQL em recuperação tem atraso; réplica em dia (LSN recebido = aplicado) conta como zero.
+    private static final String REPLICATION_LAG_SQL = "select case when pg_is_in_recovery() "
+            + "and pg_last_wal_receive_lsn() is distinct from pg_last_wal_replay_lsn() "
+            + "then extract(epoch from now() - pg_last_xact_replay_timestamp()) else 0 end";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas.size());
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = new Replica("replica-" + (i + 1), replicas.get(i));
+            this.replicas.add(replica);
+            targets.put(replica.name, replica.dataSource);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    // Leituras que precisam enxergar o que acabou de ser gravado (read-your-writes) passam por aqui.
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = FORCE_PRIMARY.get();
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                FORCE_PRIMARY.remove();
+            } else {
+                FORCE_PRIMARY.set(previous);
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || Boolean.TRUE.equals(FORCE_PRIMARY.get())) {
+            return PRIMARY;
+        }
+        Replica replica = nextHealthyReplica();
+        return replica == null ? PRIMARY : replica.name;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect(username, password);
+    }
+
+    public int healthyReplicas() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    // Uma réplica volta ao rodízio quando responde e está dentro do atraso máximo; cai quando falha ou atrasa.
+    public void checkReplicas(Duration validationTimeout, Duration maxLag) {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                healthy = connection.isValid((int) Math.max(1, validationTimeout.toSeconds()))
+                        && lagOf(connection).compareTo(maxLag) <= 0;
+            } catch (SQLException e) {
+                log.debug("Health check of {} failed", replica.name, e);
+                healthy = false;
+            }
+            replica.update(healthy);
+        }
+    }
+
+    private Connection connect(String username, String password) throws SQLException {
+        Object key = determineCurrentLookupKey();
+        if (PRIMARY.equals(key)) {
+            return open(primary, username, password);
+        }
+        Replica replica = replicas.stream().filter(candidate -> candidate.name.equals(key)).findFirst().orElseThrow();
+        try {
+            return open(replica.dataSource, username, password);
+        } catch (SQLException e) {
+            // Não espera o próximo health check: tira a réplica do rodízio e atende pelo primário.
+            log.warn("Could not connect to {}, falling back to primary", replica.name, e);
+            replica.update(false);
+            return open(primary, username, password);
+        }
+    }
+
+    private Replica nextHealthyReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private static Connection open(DataSource dataSource, String username, String password) throws SQLException {
+        return username == null ? dataSource.getConnection() : dataSource.getConnection(username, password);
+    }
+
+    private static Duration lagOf(Connection connection) throws SQLException {
+        if (!"PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+            return Duration.ZERO;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(REPLICATION_LAG_SQL)) {
+            resultSet.next();
+            return Duration.ofMillis((long) (resultSet.getDouble(1) * 1000));
+        }
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        private void update(boolean healthy) {
+            if (this.healthy != healthy) {
+                if (healthy) {
+                    log.info("Replica {} is healthy again, routing read-only transactions to it", name);
+                } else {
+                    log.warn("Replica {} is unhealthy, routing its reads elsewhere", name);
+                }
+            }
+            this.healthy = healthy;
+        }
+    }
+}
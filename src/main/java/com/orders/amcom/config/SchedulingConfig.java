@@ -0,0 +1,36 @@
+package com.orders.amcom.config;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.task.SimpleAsyncTaskSchedulerBuilder;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+// Dois agendadores: o padrão (spring.task.scheduling.*) fica com os jobs curtos e sensíveis a atraso, como o heartbeat
+// das partições e a renovação das leases; a reconstrução das estatísticas e o arquivamento, que levam minutos, rodam
+// no de manutenção e não atrasam os demais.
+@EnableScheduling
+@Configuration
+public class SchedulingConfig {
+    public static final String MAINTENANCE_SCHEDULER = "orderMaintenanceScheduler";
+
+    // Declarar um TaskScheduler desliga o do Boot, então o padrão é recriado aqui com os mesmos builders.
+    @Bean(name = "taskScheduler")
+    public TaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder threadPoolBuilder,
+                                       SimpleAsyncTaskSchedulerBuilder simpleAsyncBuilder, Environment environment) {
+        return Threading.VIRTUAL.isActive(environment) ? simpleAsyncBuilder.build() : threadPoolBuilder.build();
+    }
+
+    // Uma thread: arquivamento e reconstrução dividem a mesma lease e nunca rodam juntos.
+    @Bean(name = MAINTENANCE_SCHEDULER)
+    public ThreadPoolTaskScheduler orderMaintenanceScheduler() {
+        return new ThreadPoolTaskSchedulerBuilder()
+                .poolSize(1)
+                .threadNamePrefix("order-maintenance-")
+                .build();
+    }
+}
@@ -0,0 +1,30 @@
+package com.orders.amcom.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+
+// spring.threads.virtual.enabled põe em virtual threads o Tomcat, os listeners AMQP (as factories e o container das
+// partições passam pelos configurers do Boot), o executor das respostas assíncronas e o agendador; o OrderQueueService
+// e o flusher do OrderPublisher seguem a mesma chave.
+// Antes do Java 21 o Boot ignora a chave em silêncio, então o aviso fica aqui.
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void reportThreading(ApplicationStartedEvent event) {
+        Environment environment = event.getApplicationContext().getEnvironment();
+        if (Threading.VIRTUAL.isActive(environment)) {
+            log.info("Virtual threads enabled for HTTP requests, AMQP listeners and the order queue");
+        } else {
+            log.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads (21+ required); "
+                    + "running on platform thread pools", System.getProperty("java.specification.version"));
+        }
+    }
+}
@@ -1,42 +1,88 @@
 package com.orders.amcom.controller;
 
+import com.orders.amcom.dto.BulkStatusUpdateRequest;
+import com.orders.amcom.dto.BulkStatusUpdateResult;
+import com.orders.amcom.dto.CursorPage;
 import com.orders.amcom.dto.OrderDto;
+import com.orders.amcom.dto.OrderStatsDto;
+import com.orders.amcom.dto.ParkedMessageDto;
+import com.orders.amcom.enums.ExportFormat;
 import com.orders.amcom.enums.OrderStatus;
 import com.orders.amcom.exception.OrderNotFoundException;
 import com.orders.amcom.model.Order;
+import com.orders.amcom.service.OrderBulkStatusService;
+import com.orders.amcom.service.OrderExportService;
 import com.orders.amcom.service.OrderService;
+import com.orders.amcom.service.OrderStatsService;
+import com.orders.amcom.service.OrderWriteBuffer;
+import com.orders.amcom.service.ParkedOrderService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/orders")
 @RequiredArgsConstructor
 public class OrderController {
+    public static final int MAX_CURSOR_PAGE_SIZE = 1000;
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
+    private final OrderBulkStatusService orderBulkStatusService;
+    private final OrderStatsService orderStatsService;
+    private final ParkedOrderService parkedOrderService;
+    private final OrderWriteBuffer orderWriteBuffer;
 
+    @Value("${orders.export.request-timeout:30m}")
+    private Duration exportRequestTimeout;
+
+    // Nos dois modos o 201 só sai depois do commit do pedido.
     @PostMapping
-    public ResponseEntity<OrderDto> createOrder(@RequestBody OrderDto orderDto) {
+    public CompletableFuture<ResponseEntity<OrderDto>> createOrder(@RequestBody OrderDto orderDto) {
         Order order = orderDto.fromDTO(orderDto);
-        Order savedOrder  = orderService.createOrder(order);
-        return ResponseEntity.status(HttpStatus.CREATED).body(OrderDto.fromEntity(savedOrder));
+        // No POST o externalId é sempre gerado pelo servidor; o valor enviado pelo cliente é ignorado.
+        order.setExternalId(null);
+        return orderWriteBuffer.submit(order).thenApply(saved -> ResponseEntity.status(HttpStatus.CREATED).body(saved));
     }
 
     @PostMapping("/process")
-    public ResponseEntity<String> processOrder(@RequestBody Order order) {
+    public CompletableFuture<ResponseEntity<String>> processOrder(@RequestBody Order order) {
+        CompletableFuture<Void> published;
         try {
-            orderService.processOrder(order);
-            return ResponseEntity.ok("Pedido processado com sucesso.");
+            published = orderService.processOrder(order);
         } catch (Exception e) {
-            return ResponseEntity.status(500).body("Erro ao processar o pedido: " + e.getMessage());
+            return CompletableFuture.completedFuture(processingError(e));
         }
+        // A resposta só sai depois da confirmação do broker, sem prender a thread do servlet.
+        return published
+                .thenApply(ignored -> ResponseEntity.ok("Pedido processado com sucesso."))
+                .exceptionally(error -> processingError(
+                        error instanceof CompletionException && error.getCause() != null ? error.getCause() : error));
+    }
+
+    private ResponseEntity<String> processingError(Throwable e) {
+        return ResponseEntity.status(500).body("Erro ao processar o pedido: " + e.getMessage());
+    }
+
+    @GetMapping("/{externalId}")
+    public ResponseEntity<OrderDto> getOrder(@PathVariable String externalId) {
+        return ResponseEntity.ok(orderService.getOrderByExternalId(externalId));
     }
 
     @PutMapping("/{externalId}/status")
@@ -48,6 +94,11 @@ public class OrderController {
         return ResponseEntity.ok(OrderDto.fromEntity(savedOrder));
     }
 
+    @PutMapping("/status")
+    public ResponseEntity<BulkStatusUpdateResult> updateOrderStatuses(@RequestBody BulkStatusUpdateRequest request) {
+        return ResponseEntity.ok(orderBulkStatusService.updateStatuses(request));
+    }
+
     @GetMapping
     public ResponseEntity<Page<OrderDto>> getAllOrders(@RequestParam(value = "status", required = false) OrderStatus status,
         @RequestParam(value = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
@@ -60,4 +111,53 @@ public class OrderController {
         Page<OrderDto> orderDtos = orders.map(OrderDto::fromEntity);
         return ResponseEntity.ok(orderDtos);
     }
+
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPage<OrderDto>> getOrdersByCursor(@RequestParam(value = "status", required = false) OrderStatus status,
+        @RequestParam(value = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+        @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+        @RequestParam(value = "cursor") String cursor,
+        @RequestParam(value = "size", defaultValue = "20") int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        CursorPage<Order> orders = orderService.getOrdersByCursor(status, startDate, endDate, cursor, pageSize);
+        return ResponseEntity.ok(orders.map(OrderDto::fromEntity));
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<OrderStatsDto> getStats(@RequestParam(value = "status", required = false) OrderStatus status,
+        @RequestParam(value = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+        @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(orderStatsService.getStats(status, startDate, endDate));
+    }
+
+    // A reconstrução roda em segundo plano, depois da marca d'água; o resultado aparece em GET /stats.
+    @PostMapping("/stats/rebuild")
+    public ResponseEntity<Void> rebuildStats() {
+        orderStatsService.rebuild();
+        return ResponseEntity.accepted().build();
+    }
+
+    @GetMapping("/parked")
+    public ResponseEntity<List<ParkedMessageDto>> getParkedMessages(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(parkedOrderService.peek(limit));
+    }
+
+    @PostMapping("/parked/replay")
+    public ResponseEntity<Map<String, Integer>> replayParkedMessages(@RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(Map.of("replayed", parkedOrderService.replay(limit)));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam(value = "status", required = false) OrderStatus status,
+        @RequestParam(value = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+        @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+        @RequestParam(value = "format", defaultValue = "NDJSON") ExportFormat format, HttpServletRequest request) {
+        // Só o export ganha o timeout longo; as demais respostas assíncronas seguem spring.mvc.async.request-timeout.
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(exportRequestTimeout.toMillis());
+        StreamingResponseBody body = outputStream -> orderExportService.export(status, startDate, endDate, format, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders." + format.getExtension() + "\"")
+                .body(body);
+    }
 }
@@ -0,0 +1,337 @@
+package com.orders.amcom.converter;
+
+import com.orders.amcom.enums.OrderStatus;
+import com.orders.amcom.model.Money;
+import com.orders.amcom.model.Order;
+import com.orders.amcom.model.Product;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Formato v1: [versão][flags][corpo], corpo opcionalmente comprimido com Deflate (flag COMPRESSED).
+// Campos em ordem fixa, inteiros como varint e nulos sinalizados no próprio campo; o ordinal de OrderStatus
+// faz parte do formato, então novos status só podem ser acrescentados ao final do enum.
+// Na leitura o corpo decodificado é limitado a maxDecodedBytes e todo comprimento declarado é conferido contra os bytes
+// restantes antes de alocar: uma mensagem malformada vira MessageConversionException e segue para o recoverer.
+public class OrderBinaryMessageConverter implements MessageConverter {
+    public static final String CONTENT_TYPE = "application/x-order-binary";
+    public static final byte FORMAT_VERSION = 1;
+    static final int COMPRESSED = 1;
+    public static final int DEFAULT_MAX_DECODED_BYTES = 1024 * 1024;
+    // Menor produto possível: id, nome, preço e quantidade nulos, um byte cada.
+    private static final int MIN_PRODUCT_BYTES = 4;
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final int compressionThreshold;
+    private final int maxDecodedBytes;
+
+    public OrderBinaryMessageConverter(int compressionThreshold) {
+        this(compressionThreshold, DEFAULT_MAX_DECODED_BYTES);
+    }
+
+    public OrderBinaryMessageConverter(int compressionThreshold, int maxDecodedBytes) {
+        this.compressionThreshold = compressionThreshold;
+        this.maxDecodedBytes = maxDecodedBytes;
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) {
+        if (!(object instanceof Order order)) {
+            throw new MessageConversionException("Binary format only supports Order payloads, got " + object.getClass().getName());
+        }
+
+        byte[] body = encode(order);
+        int flags = 0;
+        if (body.length > compressionThreshold) {
+            byte[] compressed = deflate(body);
+            if (compressed.length < body.length) {
+                body = compressed;
+                flags |= COMPRESSED;
+            }
+        }
+
+        byte[] payload = new byte[body.length + 2];
+        payload[0] = FORMAT_VERSION;
+        payload[1] = (byte) flags;
+        System.arraycopy(body, 0, payload, 2, body.length);
+
+        messageProperties.setContentType(CONTENT_TYPE);
+        messageProperties.setContentLength(payload.length);
+        return new Message(payload, messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        byte[] payload = message.getBody();
+        if (payload.length < 2) {
+            throw new MessageConversionException("Truncated order payload");
+        }
+        if (payload[0] != FORMAT_VERSION) {
+            throw new MessageConversionException("Unsupported order binary format version: " + payload[0]);
+        }
+        boolean compressed = (payload[1] & COMPRESSED) != 0;
+        if (!compressed && payload.length - 2 > maxDecodedBytes) {
+            throw new MessageConversionException("Order payload of " + (payload.length - 2) + " bytes exceeds the limit of " + maxDecodedBytes);
+        }
+
+        try {
+            // Descomprime de uma vez: ler varints byte a byte direto do InflaterInputStream é várias vezes mais lento.
+            byte[] body = compressed ? inflate(payload) : payload;
+            int offset = body == payload ? 2 : 0;
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(body, offset, body.length - offset))) {
+                return readOrder(in);
+            }
+        } catch (MessageConversionException e) {
+            throw e;
+        } catch (IOException | DataFormatException | RuntimeException e) {
+            throw new MessageConversionException("Could not decode order payload", e);
+        }
+    }
+
+    private byte[] encode(Order order) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeOrder(out, order);
+        } catch (IOException e) {
+            throw new MessageConversionException("Could not encode order " + order.getExternalId(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private void writeOrder(DataOutputStream out, Order order) throws IOException {
+        writeString(out, order.getId());
+        writeString(out, order.getExternalId());
+        writeString(out, order.getMessageId());
+        out.writeByte(order.getStatus() == null ? 0 : order.getStatus().ordinal() + 1);
+        writeNullableLong(out, order.getVersion());
+        writeDecimal(out, order.getTotalAmount() == null ? null : order.getTotalAmount().toBigDecimal());
+        writeDateTime(out, order.getCreatedAt());
+        writeDateTime(out, order.getUpdatedAt());
+
+        List<Product> products = order.getProducts();
+        if (products == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        writeVarLong(out, products.size() + 1L);
+        for (Product product : products) {
+            writeString(out, product.getId());
+            writeString(out, product.getName());
+            writeDecimal(out, product.getPrice() == null ? null : product.getPrice().toBigDecimal());
+            writeNullableLong(out, product.getQuantity() == null ? null : product.getQuantity().longValue());
+        }
+    }
+
+    private Order readOrder(DataInputStream in) throws IOException {
+        Order order = new Order();
+        order.setId(readString(in));
+        order.setExternalId(readString(in));
+        order.setMessageId(readString(in));
+        int status = in.readUnsignedByte();
+        order.setStatus(status == 0 ? null : STATUSES[status - 1]);
+        order.setVersion(readNullableLong(in));
+        order.setTotalAmount(Money.of(readDecimal(in)));
+        order.setCreatedAt(readDateTime(in));
+        order.setUpdatedAt(readDateTime(in));
+
+        long productCount = readVarLong(in);
+        if (productCount - 1 > in.available() / MIN_PRODUCT_BYTES) {
+            throw new MessageConversionException("Declared " + (productCount - 1) + " products exceed the remaining payload");
+        }
+        if (productCount > 0) {
+            List<Product> products = new ArrayList<>((int) Math.min(productCount - 1, 1024));
+            for (long i = 1; i < productCount; i++) {
+                Product product = new Product();
+                product.setId(readString(in));
+                product.setName(readString(in));
+                product.setPrice(Money.of(readDecimal(in)));
+                Long quantity = readNullableLong(in);
+                product.setQuantity(quantity == null ? null : Math.toIntExact(quantity));
+                products.add(product);
+            }
+            order.setProducts(products);
+        }
+        return order;
+    }
+
+    // Comprimento + 1, com 0 reservado para null.
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        long length = readVarLong(in);
+        if (length == 0) {
+            return null;
+        }
+        return new String(readBytes(in, length - 1), StandardCharsets.UTF_8);
+    }
+
+    // Escala + 1 (0 = null) seguida do valor não escalado; cabe em um varint para qualquer valor monetário usual.
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        writeVarLong(out, zigZag(value.scale()) + 1L);
+        BigInteger unscaled = value.unscaledValue();
+        if (unscaled.bitLength() < 64) {
+            out.writeByte(0);
+            writeVarLong(out, zigZag(unscaled.longValue()));
+        } else {
+            byte[] bytes = unscaled.toByteArray();
+            out.writeByte(1);
+            writeVarLong(out, bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        long scale = readVarLong(in);
+        if (scale == 0) {
+            return null;
+        }
+        int decodedScale = Math.toIntExact(unZigZag(scale - 1));
+        if (in.readUnsignedByte() == 0) {
+            return BigDecimal.valueOf(unZigZag(readVarLong(in)), decodedScale);
+        }
+        return new BigDecimal(new BigInteger(readBytes(in, readVarLong(in))), decodedScale);
+    }
+
+    // O corpo está todo em memória, então available() é exatamente o que resta para ler.
+    private static byte[] readBytes(DataInputStream in, long length) throws IOException {
+        int remaining = in.available();
+        if (length < 0 || length > remaining) {
+            throw new MessageConversionException("Declared length " + length + " exceeds the " + remaining + " remaining bytes");
+        }
+        byte[] bytes = new byte[(int) length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        if (value == null) {
+            out.writeByte(0);
+            return;
+        }
+        out.writeByte(1);
+        writeVarLong(out, zigZag(value.toEpochSecond(ZoneOffset.UTC)));
+        writeVarLong(out, value.getNano());
+    }
+
+    private static LocalDateTime readDateTime(DataInputStream in) throws IOException {
+        if (in.readUnsignedByte() == 0) {
+            return null;
+        }
+        long epochSecond = unZigZag(readVarLong(in));
+        int nano = Math.toIntExact(readVarLong(in));
+        return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+    }
+
+    private static void writeNullableLong(DataOutputStream out, Long value) throws IOException {
+        if (value == null) {
+            out.writeByte(0);
+            return;
+        }
+        out.writeByte(1);
+        writeVarLong(out, zigZag(value));
+    }
+
+    private static Long readNullableLong(DataInputStream in) throws IOException {
+        return in.readUnsignedByte() == 0 ? null : unZigZag(readVarLong(in));
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static byte[] deflate(byte[] body) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(body);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 2);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private byte[] inflate(byte[] payload) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(payload, 2, payload.length - 2);
+            ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min((payload.length - 2L) * 4, maxDecodedBytes));
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated compressed order payload");
+                }
+                if (out.size() + inflated > maxDecodedBytes) {
+                    throw new MessageConversionException("Compressed order payload inflates beyond the limit of " + maxDecodedBytes + " bytes");
+                }
+                out.write(buffer, 0, inflated);
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+}
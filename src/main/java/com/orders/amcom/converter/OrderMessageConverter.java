@@ -0,0 +1,34 @@
+package com.orders.amcom.converter;
+
+import com.orders.amcom.enums.OrderMessageFormat;
+import com.orders.amcom.model.Order;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+// Na leitura escolhe o conversor pelo content type da mensagem, então JSON e binário convivem na mesma fila
+// durante o rollout. Na escrita só pedidos seguem o formato configurado; o resto (ex.: invalidações de cache) vai em JSON.
+public class OrderMessageConverter extends ContentTypeDelegatingMessageConverter {
+    private final OrderMessageFormat outboundFormat;
+    private final OrderBinaryMessageConverter binaryConverter;
+
+    public OrderMessageConverter(OrderMessageFormat outboundFormat, int compressionThreshold) {
+        this(outboundFormat, compressionThreshold, OrderBinaryMessageConverter.DEFAULT_MAX_DECODED_BYTES);
+    }
+
+    public OrderMessageConverter(OrderMessageFormat outboundFormat, int compressionThreshold, int maxDecodedBytes) {
+        super(new Jackson2JsonMessageConverter());
+        this.outboundFormat = outboundFormat;
+        this.binaryConverter = new OrderBinaryMessageConverter(compressionThreshold, maxDecodedBytes);
+        addDelegate(OrderBinaryMessageConverter.CONTENT_TYPE, binaryConverter);
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) {
+        if (outboundFormat == OrderMessageFormat.BINARY && object instanceof Order) {
+            return binaryConverter.toMessage(object, messageProperties);
+        }
+        return super.toMessage(object, messageProperties);
+    }
+}
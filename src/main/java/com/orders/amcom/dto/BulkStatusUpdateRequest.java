@@ -0,0 +1,16 @@
+package com.orders.amcom.dto;
+
+import com.orders.amcom.enums.OrderStatus;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Informe os externalIds ou um intervalo de datas; no modo filtro só pedidos PENDING são alcançados.
+@Data
+public class BulkStatusUpdateRequest {
+    private List<String> externalIds;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private OrderStatus status;
+}
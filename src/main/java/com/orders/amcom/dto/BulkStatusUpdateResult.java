@@ -0,0 +1,32 @@
+package com.orders.amcom.dto;
+
+import com.orders.amcom.enums.BulkUpdateOutcome;
+import com.orders.amcom.enums.OrderStatus;
+import lombok.Data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+public class BulkStatusUpdateResult {
+    private OrderStatus status;
+    private long updated;
+    private long notFound;
+    private long invalidTransition;
+    private Map<String, BulkUpdateOutcome> outcomes = new LinkedHashMap<>();
+
+    public BulkStatusUpdateResult(OrderStatus status) {
+        this.status = status;
+    }
+
+    public void addAll(Map<String, BulkUpdateOutcome> chunkOutcomes) {
+        chunkOutcomes.forEach((externalId, outcome) -> {
+            outcomes.put(externalId, outcome);
+            switch (outcome) {
+                case UPDATED -> updated++;
+                case NOT_FOUND -> notFound++;
+                case INVALID_TRANSITION -> invalidTransition++;
+            }
+        });
+    }
+}
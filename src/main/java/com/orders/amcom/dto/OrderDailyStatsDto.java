@@ -0,0 +1,17 @@
+package com.orders.amcom.dto;
+
+import com.orders.amcom.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+public class OrderDailyStatsDto {
+    private LocalDate date;
+    private OrderStatus status;
+    private long orderCount;
+    private BigDecimal totalAmount;
+}
@@ -1,10 +1,10 @@
 package com.orders.amcom.dto;
 
 import com.orders.amcom.enums.OrderStatus;
+import com.orders.amcom.model.Money;
 import com.orders.amcom.model.Order;
 import lombok.Data;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -14,8 +14,9 @@ public class OrderDto {
     private String id;
     private String externalId;
     private OrderStatus status;
+    private Long version;
     private List<ProductDto> products;
-    private BigDecimal totalAmount;
+    private Money totalAmount;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -24,6 +25,7 @@ public class OrderDto {
         dto.setId(order.getId());
         dto.setExternalId(order.getExternalId());
         dto.setStatus(order.getStatus());
+        dto.setVersion(order.getVersion());
         dto.setTotalAmount(order.getTotalAmount());
         dto.setCreatedAt(order.getCreatedAt());
         dto.setUpdatedAt(order.getUpdatedAt());
@@ -0,0 +1,52 @@
+package com.orders.amcom.dto;
+
+import com.orders.amcom.enums.OrderStatus;
+import com.orders.amcom.model.Money;
+import com.orders.amcom.model.Order;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class OrderExportDto {
+    public static final String CSV_HEADER = "id,externalId,status,totalAmount,createdAt,updatedAt";
+
+    private String id;
+    private String externalId;
+    private OrderStatus status;
+    private Money totalAmount;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public static OrderExportDto fromEntity(Order order) {
+        OrderExportDto dto = new OrderExportDto();
+        dto.setId(order.getId());
+        dto.setExternalId(order.getExternalId());
+        dto.setStatus(order.getStatus());
+        dto.setTotalAmount(order.getTotalAmount());
+        dto.setCreatedAt(order.getCreatedAt());
+        dto.setUpdatedAt(order.getUpdatedAt());
+        return dto;
+    }
+
+    public String toCsvLine() {
+        return String.join(",",
+                csv(id),
+                csv(externalId),
+                csv(status),
+                csv(totalAmount == null ? null : totalAmount.toString()),
+                csv(createdAt),
+                csv(updatedAt));
+    }
+
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+}
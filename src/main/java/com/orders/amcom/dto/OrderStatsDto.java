@@ -0,0 +1,15 @@
+package com.orders.amcom.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class OrderStatsDto {
+    private List<OrderDailyStatsDto> days;
+    private long orderCount;
+    private BigDecimal totalAmount;
+}
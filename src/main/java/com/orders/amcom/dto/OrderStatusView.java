@@ -0,0 +1,10 @@
+package com.orders.amcom.dto;
+
+import com.orders.amcom.enums.OrderStatus;
+import com.orders.amcom.model.Money;
+
+import java.time.LocalDateTime;
+
+public record OrderStatusView(String externalId, OrderStatus status, LocalDateTime updatedAt,
+                              LocalDateTime createdAt, Money totalAmount) {
+}
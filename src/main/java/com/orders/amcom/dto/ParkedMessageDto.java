@@ -0,0 +1,5 @@
+package com.orders.amcom.dto;
+
+public record ParkedMessageDto(String messageId, String originalQueue, int attempts, String exceptionType,
+                               String exceptionMessage, String parkedAt, String contentType, String body) {
+}
@@ -1,16 +1,16 @@
 package com.orders.amcom.dto;
 
+import com.orders.amcom.model.Money;
 import com.orders.amcom.model.Product;
 import lombok.Data;
 
-import java.math.BigDecimal;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Data
 public class ProductDto {
     private String name;
-    private BigDecimal price;
+    private Money price;
     private Integer quantity;
 
     public static ProductDto fromEntity(Product product) {
@@ -0,0 +1,16 @@
+package com.orders.amcom.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSalesDto {
+    private String name;
+    private Long quantity;
+    private BigDecimal revenue;
+}
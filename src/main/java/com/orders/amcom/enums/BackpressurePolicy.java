@@ -0,0 +1,7 @@
+package com.orders.amcom.enums;
+
+public enum BackpressurePolicy {
+    BLOCK,
+    REJECT,
+    CALLER_RUNS
+}
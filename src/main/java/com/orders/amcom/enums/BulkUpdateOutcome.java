@@ -0,0 +1,7 @@
+package com.orders.amcom.enums;
+
+public enum BulkUpdateOutcome {
+    UPDATED,
+    NOT_FOUND,
+    INVALID_TRANSITION
+}
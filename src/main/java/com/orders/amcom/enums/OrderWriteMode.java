@@ -0,0 +1,6 @@
+package com.orders.amcom.enums;
+
+public enum OrderWriteMode {
+    SYNC,
+    GROUP_COMMIT
+}
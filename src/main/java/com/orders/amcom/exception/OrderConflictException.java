@@ -0,0 +1,11 @@
+package com.orders.amcom.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class OrderConflictException extends OrderException {
+    public OrderConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,188 @@
+package com.orders.amcom.listener;
+
+import com.orders.amcom.listener.AdaptiveConcurrencyPolicy.Decision;
+import com.orders.amcom.listener.AdaptiveConcurrencyPolicy.Reason;
+import com.orders.amcom.listener.AdaptiveConcurrencyPolicy.Sample;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import static com.orders.amcom.config.RabbitMQConfig.QUEUE_NAME;
+
+// Aplica as decisões do AdaptiveConcurrencyPolicy ao container do listener de pedidos (mensagem a mensagem ou em lote).
+// A cada intervalo lê a profundidade da order-queue no broker, o tempo ocupado dos consumidores (timers do @Timed)
+// e a espera por conexão do Hikari, e fixa min = max de consumidores para que o escalonamento próprio do
+// container não brigue com o controlador. O consumo particionado tem container próprio e fica de fora.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "orders.listener.adaptive.enabled", havingValue = "true")
+public class AdaptiveConcurrencyController {
+    private final RabbitListenerEndpointRegistry listenerEndpointRegistry;
+    private final AmqpAdmin amqpAdmin;
+    private final MeterRegistry meterRegistry;
+    private final AdaptiveConcurrencyPolicy policy;
+    private final int minConsumers;
+    private final int maxConsumers;
+    // Só o agendador chama adjust (fixedDelay, sem sobreposição); os voláteis servem aos gauges.
+    private volatile int consumers;
+    private volatile int prefetch;
+    private long lastSampleNanos;
+    private double lastBusyNanos;
+    private double lastProcessed;
+    private double lastAcquireNanos;
+    private long lastAcquireCount;
+
+    public AdaptiveConcurrencyController(RabbitListenerEndpointRegistry listenerEndpointRegistry, AmqpAdmin amqpAdmin,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${orders.listener.adaptive.min-consumers:2}") int minConsumers,
+                                         @Value("${orders.listener.adaptive.max-consumers:20}") int maxConsumers,
+                                         @Value("${orders.listener.adaptive.min-prefetch:10}") int minPrefetch,
+                                         @Value("${orders.listener.adaptive.max-prefetch:500}") int maxPrefetch,
+                                         @Value("${orders.listener.adaptive.initial-prefetch:250}") int initialPrefetch,
+                                         @Value("${orders.listener.adaptive.target-drain-time:30s}") Duration targetDrainTime,
+                                         @Value("${orders.listener.adaptive.max-pool-wait:50ms}") Duration maxPoolWait,
+                                         @Value("${orders.listener.adaptive.high-utilization:0.75}") double highUtilization,
+                                         @Value("${orders.listener.adaptive.low-utilization:0.25}") double lowUtilization) {
+        this.listenerEndpointRegistry = listenerEndpointRegistry;
+        this.amqpAdmin = amqpAdmin;
+        this.meterRegistry = meterRegistry;
+        this.policy = new AdaptiveConcurrencyPolicy(minConsumers, maxConsumers, minPrefetch, maxPrefetch,
+                targetDrainTime, maxPoolWait, highUtilization, lowUtilization);
+        this.minConsumers = minConsumers;
+        this.maxConsumers = maxConsumers;
+        this.consumers = minConsumers;
+        this.prefetch = Math.max(minPrefetch, Math.min(maxPrefetch, initialPrefetch));
+
+        Gauge.builder("orders.listener.adaptive.consumers", this, controller -> controller.consumers)
+                .description("Consumer count chosen by the adaptive concurrency controller")
+                .register(meterRegistry);
+        Gauge.builder("orders.listener.adaptive.prefetch", this, controller -> controller.prefetch)
+                .description("Prefetch chosen by the adaptive concurrency controller")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${orders.listener.adaptive.interval:10s}",
+            initialDelayString = "${orders.listener.adaptive.interval:10s}")
+    public void adjust() {
+        SimpleMessageListenerContainer container = container();
+        if (container == null || !container.isRunning()) {
+            return;
+        }
+        long depth;
+        try {
+            QueueInformation queue = amqpAdmin.getQueueInfo(QUEUE_NAME);
+            if (queue == null) {
+                return;
+            }
+            depth = queue.getMessageCount();
+        } catch (AmqpException e) {
+            log.warn("Skipping adaptive concurrency adjustment: cannot read depth of {}", QUEUE_NAME, e);
+            return;
+        }
+
+        long now = System.nanoTime();
+        Collection<Timer> listenerTimers = listenerTimers(container);
+        double busyNanos = listenerTimers.stream().mapToDouble(timer -> timer.totalTime(TimeUnit.NANOSECONDS)).sum();
+        double processed = processed(container, listenerTimers);
+        Collection<Timer> acquireTimers = meterRegistry.find("hikaricp.connections.acquire").timers();
+        double acquireNanos = acquireTimers.stream().mapToDouble(timer -> timer.totalTime(TimeUnit.NANOSECONDS)).sum();
+        long acquireCount = acquireTimers.stream().mapToLong(Timer::count).sum();
+        int pending = (int) meterRegistry.find("hikaricp.connections.pending").gauges().stream()
+                .mapToDouble(Gauge::value).sum();
+
+        // A primeira passada só fixa o ponto de partida das diferenças e traz o container para dentro dos limites,
+        // partindo dos consumidores que ele já tem (o container não expõe a concorrência configurada).
+        if (lastSampleNanos == 0) {
+            remember(now, busyNanos, processed, acquireNanos, acquireCount);
+            consumers = container.getActiveConsumerCount();
+            apply(container, new Decision(Math.max(minConsumers, Math.min(maxConsumers, consumers)), prefetch, Reason.HOLD));
+            return;
+        }
+
+        double elapsedNanos = now - lastSampleNanos;
+        int active = Math.max(1, container.getActiveConsumerCount());
+        long acquires = acquireCount - lastAcquireCount;
+        Sample sample = new Sample(depth, consumers, prefetch,
+                listenerTimers.isEmpty() ? Double.NaN : Math.min(1.0, (busyNanos - lastBusyNanos) / (elapsedNanos * active)),
+                (processed - lastProcessed) / (elapsedNanos / 1e9),
+                pending,
+                Duration.ofNanos(acquires > 0 ? (long) ((acquireNanos - lastAcquireNanos) / acquires) : 0));
+        remember(now, busyNanos, processed, acquireNanos, acquireCount);
+
+        Decision decision = policy.decide(sample);
+        meterRegistry.counter("orders.listener.adaptive.decisions", "reason", decision.reason().name()).increment();
+        if (decision.reason() != Reason.HOLD) {
+            log.info("Adjusting order listener: consumers {} -> {}, prefetch {} -> {} ({}; depth={}, utilization={}, "
+                            + "throughput={}/s, pool pending={}, pool wait={})",
+                    sample.consumers(), decision.consumers(), sample.prefetch(), decision.prefetch(), decision.reason(),
+                    depth, String.format("%.2f", sample.utilization()), String.format("%.1f", sample.throughput()),
+                    pending, sample.poolAcquireWait());
+            apply(container, decision);
+        }
+    }
+
+    // O prefetch novo vale para os consumidores criados a partir daqui; os que já existem mantêm o anterior.
+    private void apply(SimpleMessageListenerContainer container, Decision decision) {
+        container.setPrefetchCount(decision.prefetch());
+        if (decision.consumers() > consumers) {
+            container.setMaxConcurrentConsumers(decision.consumers());
+            container.setConcurrentConsumers(decision.consumers());
+        } else {
+            container.setConcurrentConsumers(decision.consumers());
+            container.setMaxConcurrentConsumers(decision.consumers());
+        }
+        consumers = decision.consumers();
+        prefetch = decision.prefetch();
+    }
+
+    private void remember(long now, double busyNanos, double processed, double acquireNanos, long acquireCount) {
+        lastSampleNanos = now;
+        lastBusyNanos = busyNanos;
+        lastProcessed = processed;
+        lastAcquireNanos = acquireNanos;
+        lastAcquireCount = acquireCount;
+    }
+
+    private SimpleMessageListenerContainer container() {
+        for (String id : new String[]{OrderListener.LISTENER_ID, OrderBatchListener.LISTENER_ID}) {
+            MessageListenerContainer container = listenerEndpointRegistry.getListenerContainer(id);
+            if (container instanceof SimpleMessageListenerContainer simpleContainer) {
+                return simpleContainer;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isBatch(SimpleMessageListenerContainer container) {
+        return OrderBatchListener.LISTENER_ID.equals(container.getListenerId());
+    }
+
+    private Collection<Timer> listenerTimers(SimpleMessageListenerContainer container) {
+        return meterRegistry.find(isBatch(container) ? "orders.listener.batch" : "orders.listener.process").timers();
+    }
+
+    // No modo em lote o timer conta lotes; as mensagens vêm do resumo de tamanho do lote.
+    private double processed(SimpleMessageListenerContainer container, Collection<Timer> listenerTimers) {
+        if (isBatch(container)) {
+            return meterRegistry.find(OrderBatchListener.BATCH_SIZE_METRIC).summaries().stream()
+                    .mapToDouble(DistributionSummary::totalAmount).sum();
+        }
+        return listenerTimers.stream().mapToDouble(Timer::count).sum();
+    }
+}
@@ -0,0 +1,95 @@
+package com.orders.amcom.listener;
+
+import java.time.Duration;
+
+// Decide consumidores e prefetch do listener a partir de uma amostra do intervalo, sem tocar no container:
+// cresce enquanto a fila não drena no prazo e os consumidores estão ocupados, e recua com força quando threads
+// começam a esperar conexão do pool (aumentar consumidores aí só alonga a fila do pool).
+public class AdaptiveConcurrencyPolicy {
+    private final int minConsumers;
+    private final int maxConsumers;
+    private final int minPrefetch;
+    private final int maxPrefetch;
+    private final Duration targetDrainTime;
+    private final Duration maxPoolWait;
+    private final double highUtilization;
+    private final double lowUtilization;
+
+    public AdaptiveConcurrencyPolicy(int minConsumers, int maxConsumers, int minPrefetch, int maxPrefetch,
+                                     Duration targetDrainTime, Duration maxPoolWait,
+                                     double highUtilization, double lowUtilization) {
+        if (minConsumers < 1 || maxConsumers < minConsumers) {
+            throw new IllegalArgumentException("Consumer bounds must satisfy 1 <= min <= max");
+        }
+        if (minPrefetch < 1 || maxPrefetch < minPrefetch) {
+            throw new IllegalArgumentException("Prefetch bounds must satisfy 1 <= min <= max");
+        }
+        if (lowUtilization < 0 || highUtilization > 1 || lowUtilization >= highUtilization) {
+            throw new IllegalArgumentException("Utilization thresholds must satisfy 0 <= low < high <= 1");
+        }
+        this.minConsumers = minConsumers;
+        this.maxConsumers = maxConsumers;
+        this.minPrefetch = minPrefetch;
+        this.maxPrefetch = maxPrefetch;
+        this.targetDrainTime = targetDrainTime;
+        this.maxPoolWait = maxPoolWait;
+        this.highUtilization = highUtilization;
+        this.lowUtilization = lowUtilization;
+    }
+
+    // utilization é a fração do intervalo que os consumidores passaram processando (NaN quando não há medição:
+    // aí a decisão segue só pela fila). throughput é em mensagens por segundo.
+    public record Sample(long queueDepth, int consumers, int prefetch, double utilization, double throughput,
+                         int poolPending, Duration poolAcquireWait) {
+    }
+
+    public record Decision(int consumers, int prefetch, Reason reason) {
+    }
+
+    public enum Reason {
+        HOLD, POOL_SATURATED, BACKLOG, PREFETCH_STARVED, IDLE
+    }
+
+    public Decision decide(Sample sample) {
+        int consumers = clamp(sample.consumers(), minConsumers, maxConsumers);
+        int prefetch = clamp(sample.prefetch(), minPrefetch, maxPrefetch);
+
+        if (sample.poolPending() > 0 || sample.poolAcquireWait().compareTo(maxPoolWait) > 0) {
+            return decision(sample, consumers - Math.max(1, consumers / 4), Math.max(minPrefetch, prefetch / 2),
+                    Reason.POOL_SATURATED);
+        }
+        if (backlogged(sample)) {
+            // Consumidores ocupados: falta gente. Ociosos com fila cheia: estão esperando o broker entregar.
+            if (!(sample.utilization() < highUtilization)) {
+                return decision(sample, consumers + Math.max(1, consumers / 4), prefetch, Reason.BACKLOG);
+            }
+            return decision(sample, consumers, prefetch * 2, Reason.PREFETCH_STARVED);
+        }
+        if (sample.queueDepth() < consumers && !(sample.utilization() >= lowUtilization)) {
+            return decision(sample, consumers - 1, prefetch, Reason.IDLE);
+        }
+        return decision(sample, consumers, prefetch, Reason.HOLD);
+    }
+
+    private boolean backlogged(Sample sample) {
+        if (sample.queueDepth() == 0) {
+            return false;
+        }
+        double drainSeconds = sample.queueDepth() / Math.max(sample.throughput(), 1e-9);
+        return drainSeconds > targetDrainTime.toMillis() / 1000.0;
+    }
+
+    private Decision decision(Sample sample, int consumers, int prefetch, Reason reason) {
+        int boundedConsumers = clamp(consumers, minConsumers, maxConsumers);
+        int boundedPrefetch = clamp(prefetch, minPrefetch, maxPrefetch);
+        // Já no limite, a mudança não acontece: registra como HOLD para não poluir as métricas de ajuste.
+        if (boundedConsumers == sample.consumers() && boundedPrefetch == sample.prefetch()) {
+            return new Decision(boundedConsumers, boundedPrefetch, Reason.HOLD);
+        }
+        return new Decision(boundedConsumers, boundedPrefetch, reason);
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,88 @@
+package com.orders.amcom.listener;
+
+import com.orders.amcom.model.Order;
+import com.orders.amcom.service.IdempotencyService;
+import com.orders.amcom.service.OrderBatchService;
+import io.micrometer.core.annotation.Counted;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.orders.amcom.config.RabbitMQConfig.BATCH_LISTENER_CONTAINER_FACTORY;
+import static com.orders.amcom.config.RabbitMQConfig.QUEUE_NAME;
+
+@RequiredArgsConstructor
+@Component
+@ConditionalOnProperty(name = "orders.listener.batch.enabled", havingValue = "true")
+public class OrderBatchListener {
+    public static final String LISTENER_ID = "orderBatchListener";
+    public static final String BATCH_SIZE_METRIC = "orders.listener.batch.size";
+    public static final String REJECTED_METRIC = "orders.listener.rejected";
+
+    private final OrderBatchService orderBatchService;
+    private final IdempotencyService idempotencyService;
+    private final MessageConverter messageConverter;
+    private final MeterRegistry meterRegistry;
+    private final OrderRetryRecoverer retryRecoverer;
+
+    @RabbitListener(id = LISTENER_ID, queues = QUEUE_NAME, containerFactory = BATCH_LISTENER_CONTAINER_FACTORY,
+            concurrency = "${orders.listener.batch.concurrency:5-10}")
+    @Timed(value = "orders.listener.batch", description = "Consumption of a batch of order messages")
+    @Counted(value = "orders.failures", recordFailuresOnly = true)
+    public void processMessages(List<Message> messages) {
+        meterRegistry.summary(BATCH_SIZE_METRIC).record(messages.size());
+        List<Order> orders = new ArrayList<>(messages.size());
+        Map<Order, Message> sources = new IdentityHashMap<>(messages.size());
+        Map<Message, RuntimeException> rejected = new IdentityHashMap<>();
+        for (Message message : messages) {
+            try {
+                Order order = toOrder(message);
+                orders.add(order);
+                sources.put(order, message);
+            } catch (MessageConversionException | ClassCastException e) {
+                rejected.put(message, e);
+            }
+        }
+        // Falha transitória sobe daqui: o lote inteiro vai para retentativa (ou volta à fila) e o que já foi gravado
+        // é reconhecido como duplicado na próxima entrega. Por isso as rejeições só são enviadas depois: senão a
+        // mensagem estacionada também seguiria com o lote para a retentativa.
+        OrderBatchService.Result result = orderBatchService.createOrders(
+                idempotencyService.filterDuplicates(orders));
+        idempotencyService.markProcessed(result.saved());
+        for (OrderBatchService.Rejected rejection : result.rejected()) {
+            Order order = rejection.order();
+            if (rejection.cause() instanceof DataIntegrityViolationException
+                    && idempotencyService.isConfirmedDuplicate(order.getMessageId())) {
+                continue;
+            }
+            rejected.put(sources.get(order), rejection.cause());
+        }
+        rejected.forEach(this::reject);
+    }
+
+    // O recoverer estaciona o que não se resolve repetindo e agenda nova tentativa para o resto.
+    private void reject(Message message, RuntimeException cause) {
+        meterRegistry.counter(REJECTED_METRIC, "exception", cause.getClass().getSimpleName()).increment();
+        retryRecoverer.recover(message, cause);
+    }
+
+    private Order toOrder(Message message) {
+        // Converte mensagem a mensagem para que um payload inválido não descarte o lote inteiro.
+        message.getMessageProperties().setInferredArgumentType(Order.class);
+        Order order = (Order) messageConverter.fromMessage(message);
+        order.setMessageId(message.getMessageProperties().getMessageId());
+        return order;
+    }
+}
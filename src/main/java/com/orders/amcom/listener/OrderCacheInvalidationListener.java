@@ -0,0 +1,21 @@
+package com.orders.amcom.listener;
+
+import com.orders.amcom.service.OrderCacheService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+@Component
+public class OrderCacheInvalidationListener {
+    public static final String LISTENER_ID = "orderCacheInvalidationListener";
+
+    private final OrderCacheService orderCacheService;
+
+    @RabbitListener(id = LISTENER_ID, queues = "#{orderCacheInvalidationQueue.name}")
+    public void processMessage(List<String> externalIds) {
+        orderCacheService.evictLocally(externalIds);
+    }
+}
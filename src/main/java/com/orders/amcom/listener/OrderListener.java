@@ -1,21 +1,47 @@
 package com.orders.amcom.listener;
 
 import com.orders.amcom.model.Order;
+import com.orders.amcom.service.IdempotencyService;
 import com.orders.amcom.service.OrderService;
+import io.micrometer.core.annotation.Counted;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
+import static com.orders.amcom.config.RabbitMQConfig.ORDER_LISTENER_CONTAINER_FACTORY;
 import static com.orders.amcom.config.RabbitMQConfig.QUEUE_NAME;
 
 @RequiredArgsConstructor
 @Component
+@ConditionalOnProperty(name = "orders.listener.batch.enabled", havingValue = "false", matchIfMissing = true)
 public class OrderListener {
+    public static final String LISTENER_ID = "orderListener";
 
     private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
 
-    @RabbitListener(queues = QUEUE_NAME, concurrency = "5-10")
-    public void processMessage(Order order){
-        orderService.createOrder(order);
+    @RabbitListener(id = LISTENER_ID, queues = QUEUE_NAME, containerFactory = ORDER_LISTENER_CONTAINER_FACTORY,
+            concurrency = "${orders.listener.concurrency:5-10}")
+    @Timed(value = "orders.listener.process", description = "Consumption of a single order message")
+    @Counted(value = "orders.failures", recordFailuresOnly = true)
+    public void processMessage(Order order, @Header(name = AmqpHeaders.MESSAGE_ID, required = false) String messageId){
+        if (idempotencyService.isDuplicate(messageId)) {
+            return;
+        }
+        order.setMessageId(messageId);
+        try {
+            orderService.createOrder(order);
+        } catch (DataIntegrityViolationException e) {
+            if (idempotencyService.isConfirmedDuplicate(messageId)) {
+                return;
+            }
+            throw e;
+        }
+        idempotencyService.markProcessed(messageId);
     }
 }
@@ -0,0 +1,194 @@
+package com.orders.amcom.listener;
+
+import com.orders.amcom.config.RabbitMQConfig;
+import com.orders.amcom.model.Order;
+import com.orders.amcom.service.OrderPartitioner;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.config.DirectRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.DirectMessageListenerContainer;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.DirectRabbitListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.retry.interceptor.RetryOperationsInterceptor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.orders.amcom.config.RabbitMQConfig.PARTITIONS_ENABLED;
+import static com.orders.amcom.config.RabbitMQConfig.PARTITION_MEMBERSHIP_EXCHANGE_NAME;
+
+// Distribui as partições entre as réplicas vivas: cada uma publica heartbeats no fanout de membros, todas calculam
+// a mesma divisão (OrderPartitioner.assign) e cada réplica consome só as suas filas, uma de cada vez por partição.
+@Slf4j
+@Component
+@ConditionalOnExpression(PARTITIONS_ENABLED)
+public class OrderPartitionCoordinator {
+    public static final String MEMBERSHIP_LISTENER_ID = "orderPartitionMembershipListener";
+    public static final String PARTITION_LISTENER_ID = "orderPartitionListener";
+    static final String LEAVING_HEADER = "x-partition-member-leaving";
+
+    private final String memberId = UUID.randomUUID().toString();
+    private final Map<String, Long> members = new ConcurrentHashMap<>();
+    private final RabbitTemplate rabbitTemplate;
+    private final MessageConverter messageConverter;
+    private final OrderListener orderListener;
+    private final int partitions;
+    private final Set<Integer> staticAssignment;
+    private final Duration memberTimeout;
+    private final DirectMessageListenerContainer container;
+    // Lock em vez de synchronized: o rebalanceamento abre e fecha consumidores no broker e não deve prender a carrier
+    // thread quando o listener de membros roda em virtual threads.
+    private final ReentrantLock rebalanceLock = new ReentrantLock();
+    private volatile Set<Integer> assigned = Set.of();
+
+    public OrderPartitionCoordinator(ConnectionFactory connectionFactory, DirectRabbitListenerContainerFactoryConfigurer configurer,
+                                     RabbitTemplate rabbitTemplate,
+                                     MessageConverter messageConverter, OrderPartitioner partitioner,
+                                     ObjectProvider<OrderListener> orderListener,
+                                     @Value("${orders.partitions.assigned:}") List<Integer> staticAssignment,
+                                     @Value("${orders.partitions.member-timeout:10s}") Duration memberTimeout,
+                                     @Value("${orders.partitions.prefetch:100}") int prefetch,
+                                     ObjectProvider<RetryOperationsInterceptor> orderRetryInterceptor) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.messageConverter = messageConverter;
+        // Ordem por chave exige consumo mensagem a mensagem; o listener em lote não se aplica às partições.
+        this.orderListener = orderListener.getIfAvailable(() -> {
+            throw new IllegalStateException("Partitioned consumption requires orders.listener.batch.enabled=false");
+        });
+        this.partitions = partitioner.getPartitions();
+        this.staticAssignment = Set.copyOf(staticAssignment);
+        this.memberTimeout = memberTimeout;
+        for (int partition : this.staticAssignment) {
+            if (partition < 0 || partition >= partitions) {
+                throw new IllegalArgumentException("Assigned partition " + partition + " is outside 0.." + (partitions - 1));
+            }
+        }
+
+        // O container sai de uma factory configurada pelo Boot para herdar o executor dos listeners (virtual threads
+        // com spring.threads.virtual.enabled) e os spring.rabbitmq.listener.direct.*; o resto é ajustado abaixo.
+        DirectRabbitListenerContainerFactory factory = new DirectRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        this.container = factory.createListenerContainer();
+        this.container.setListenerId(PARTITION_LISTENER_ID);
+        this.container.setConsumersPerQueue(1);
+        this.container.setPrefetchCount(prefetch);
+        orderRetryInterceptor.ifAvailable(this.container::setAdviceChain);
+        this.container.setMessageListener(this::onOrder);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        members.put(memberId, System.currentTimeMillis());
+        rebalance();
+        container.start();
+        heartbeat();
+    }
+
+    @Scheduled(fixedDelayString = "${orders.partitions.heartbeat-interval:2s}",
+            initialDelayString = "${orders.partitions.heartbeat-interval:2s}")
+    public void heartbeat() {
+        members.put(memberId, System.currentTimeMillis());
+        try {
+            rabbitTemplate.convertAndSend(PARTITION_MEMBERSHIP_EXCHANGE_NAME, "", memberId);
+        } catch (AmqpException e) {
+            log.warn("Failed to publish partition heartbeat for member {}", memberId, e);
+        }
+        rebalance();
+    }
+
+    @RabbitListener(id = MEMBERSHIP_LISTENER_ID, queues = "#{orderPartitionMembershipQueue.name}")
+    public void onMembership(String member, @Header(name = LEAVING_HEADER, required = false) Boolean leaving) {
+        if (Boolean.TRUE.equals(leaving)) {
+            if (members.remove(member) != null) {
+                rebalance();
+            }
+        } else if (members.put(member, System.currentTimeMillis()) == null) {
+            rebalance();
+        }
+    }
+
+    public Set<Integer> getAssignedPartitions() {
+        return assigned;
+    }
+
+    public Set<String> getMembers() {
+        return Set.copyOf(members.keySet());
+    }
+
+    void rebalance() {
+        rebalanceLock.lock();
+        try {
+            long cutoff = System.currentTimeMillis() - memberTimeout.toMillis();
+            members.entrySet().removeIf(member -> !member.getKey().equals(memberId) && member.getValue() < cutoff);
+
+            Set<Integer> target = staticAssignment.isEmpty()
+                    ? OrderPartitioner.assign(partitions, members.keySet(), memberId)
+                    : new TreeSet<>(staticAssignment);
+            if (target.equals(assigned)) {
+                return;
+            }
+
+            // Solta primeiro: as mensagens não confirmadas voltam para a fila e seguem, na ordem, para o novo dono.
+            String[] released = queueNames(assigned, target);
+            if (released.length > 0) {
+                container.removeQueueNames(released);
+            }
+            String[] acquired = queueNames(target, assigned);
+            if (acquired.length > 0) {
+                container.addQueueNames(acquired);
+            }
+            assigned = Set.copyOf(target);
+            log.info("Member {} now consumes partitions {} ({} live members)", memberId, target, members.size());
+        } finally {
+            rebalanceLock.unlock();
+        }
+    }
+
+    private void onOrder(Message message) {
+        message.getMessageProperties().setInferredArgumentType(Order.class);
+        Order order = (Order) messageConverter.fromMessage(message);
+        orderListener.processMessage(order, message.getMessageProperties().getMessageId());
+    }
+
+    // Avisa a saída para que as outras réplicas assumam as partições sem esperar o member-timeout.
+    @PreDestroy
+    public void shutdown() {
+        container.stop();
+        try {
+            rabbitTemplate.convertAndSend(PARTITION_MEMBERSHIP_EXCHANGE_NAME, "", memberId, message -> {
+                message.getMessageProperties().setHeader(LEAVING_HEADER, true);
+                return message;
+            });
+        } catch (AmqpException e) {
+            log.warn("Failed to announce departure of partition member {}", memberId, e);
+        }
+        container.destroy();
+    }
+
+    private static String[] queueNames(Set<Integer> partitions, Set<Integer> excluded) {
+        return partitions.stream()
+                .filter(partition -> !excluded.contains(partition))
+                .sorted()
+                .map(RabbitMQConfig::partitionQueueName)
+                .toArray(String[]::new);
+    }
+}
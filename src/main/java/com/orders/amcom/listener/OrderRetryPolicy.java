@@ -0,0 +1,69 @@
+package com.orders.amcom.listener;
+
+import com.orders.amcom.exception.OrderException;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.classify.BinaryExceptionClassifier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Backoff exponencial em faixas fixas: cada atraso distinto vira uma fila de espera com TTL próprio.
+@Component
+public class OrderRetryPolicy {
+    // Falhas que se repetiriam em qualquer nova tentativa: payload inválido, regra de negócio, violação de constraint.
+    private static final BinaryExceptionClassifier NON_RETRYABLE = new BinaryExceptionClassifier(Map.<Class<? extends Throwable>, Boolean>of(
+            IllegalArgumentException.class, true,
+            ClassCastException.class, true,
+            MessageConversionException.class, true,
+            org.springframework.messaging.converter.MessageConversionException.class, true,
+            OrderException.class, true,
+            DataIntegrityViolationException.class, true), false, true);
+
+    private final int maxAttempts;
+    private final List<Duration> delays;
+
+    public OrderRetryPolicy(@Value("${orders.retry.max-attempts:5}") int maxAttempts,
+                            @Value("${orders.retry.initial-delay:1s}") Duration initialDelay,
+                            @Value("${orders.retry.multiplier:4}") double multiplier,
+                            @Value("${orders.retry.max-delay:5m}") Duration maxDelay) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("orders.retry.max-attempts must be at least 1");
+        }
+        if (initialDelay.isNegative() || initialDelay.isZero() || multiplier < 1) {
+            throw new IllegalArgumentException("orders.retry.initial-delay must be positive and multiplier at least 1");
+        }
+        this.maxAttempts = maxAttempts;
+        this.delays = new ArrayList<>(maxAttempts - 1);
+        double delayMillis = initialDelay.toMillis();
+        for (int attempt = 1; attempt < maxAttempts; attempt++) {
+            delays.add(Duration.ofMillis((long) Math.min(delayMillis, maxDelay.toMillis())));
+            delayMillis *= multiplier;
+        }
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public List<Duration> getDelays() {
+        return delays.stream().distinct().toList();
+    }
+
+    // Atraso antes da tentativa seguinte, dado quantas já falharam.
+    public Duration delayAfter(int failedAttempts) {
+        return delays.get(Math.min(failedAttempts, delays.size()) - 1);
+    }
+
+    public boolean shouldRetry(Throwable failure, int failedAttempts) {
+        return failedAttempts < maxAttempts && isRetryable(failure);
+    }
+
+    public static boolean isRetryable(Throwable failure) {
+        return !NON_RETRYABLE.classify(failure);
+    }
+}
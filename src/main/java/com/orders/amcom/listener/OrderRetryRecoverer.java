@@ -0,0 +1,126 @@
+package com.orders.amcom.listener;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.retry.MessageBatchRecoverer;
+import org.springframework.amqp.rabbit.support.ListenerExecutionFailedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.orders.amcom.config.RabbitMQConfig.PARKING_QUEUE_NAME;
+import static com.orders.amcom.config.RabbitMQConfig.QUEUE_NAME;
+import static com.orders.amcom.config.RabbitMQConfig.RETRY_EXCHANGE_NAME;
+import static com.orders.amcom.config.RabbitMQConfig.retryQueueName;
+
+// Chamado quando o listener falha: em vez de rejeitar e receber a mesma mensagem de volta na hora, agenda a próxima
+// tentativa numa fila de espera ou estaciona a mensagem. Só confirma a original depois que o broker aceitou a cópia.
+// Com orders.retry.enabled=false as filas de espera não existem: o listener em lote ainda estaciona aqui as mensagens
+// que não se resolvem repetindo.
+@Slf4j
+@Component
+public class OrderRetryRecoverer implements MessageBatchRecoverer {
+    // Sem o prefixo x-: o exchange de headers do RabbitMQ ignora esses headers ao casar os bindings.
+    public static final String RETRY_TARGET_HEADER = "order-retry-target";
+    public static final String RETRY_ATTEMPTS_HEADER = "order-retry-attempts";
+    public static final String EXCEPTION_TYPE_HEADER = "order-exception-type";
+    public static final String EXCEPTION_MESSAGE_HEADER = "order-exception-message";
+    public static final String PARKED_AT_HEADER = "order-parked-at";
+    private static final int MAX_EXCEPTION_MESSAGE_LENGTH = 1000;
+
+    private final RabbitTemplate rabbitTemplate;
+    private final OrderRetryPolicy retryPolicy;
+    private final MeterRegistry meterRegistry;
+    private final Duration confirmTimeout;
+    private final boolean retryEnabled;
+
+    public OrderRetryRecoverer(RabbitTemplate rabbitTemplate, OrderRetryPolicy retryPolicy, MeterRegistry meterRegistry,
+                               @Value("${orders.retry.confirm-timeout:10s}") Duration confirmTimeout,
+                               @Value("${orders.retry.enabled:true}") boolean retryEnabled) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.retryPolicy = retryPolicy;
+        this.meterRegistry = meterRegistry;
+        this.confirmTimeout = confirmTimeout;
+        this.retryEnabled = retryEnabled;
+    }
+
+    @Override
+    public void recover(Message message, Throwable cause) {
+        Throwable failure = cause instanceof ListenerExecutionFailedException && cause.getCause() != null
+                ? cause.getCause() : cause;
+        MessageProperties properties = message.getMessageProperties();
+        int failedAttempts = attempts(properties) + 1;
+        String target = properties.getHeader(RETRY_TARGET_HEADER);
+        if (target == null) {
+            target = properties.getConsumerQueue() != null ? properties.getConsumerQueue() : QUEUE_NAME;
+        }
+
+        properties.setHeader(RETRY_TARGET_HEADER, target);
+        properties.setHeader(RETRY_ATTEMPTS_HEADER, failedAttempts);
+        properties.setHeader(EXCEPTION_TYPE_HEADER, failure.getClass().getName());
+        properties.setHeader(EXCEPTION_MESSAGE_HEADER, abbreviate(failure.getMessage()));
+
+        if (retryEnabled && retryPolicy.shouldRetry(failure, failedAttempts)) {
+            Duration delay = retryPolicy.delayAfter(failedAttempts);
+            log.warn("Order message {} failed (attempt {}), retrying in {}: {}",
+                    properties.getMessageId(), failedAttempts, delay, failure.toString());
+            String retryQueue = retryQueueName(delay);
+            send(RETRY_EXCHANGE_NAME, retryQueue, message);
+            meterRegistry.counter("orders.retry.scheduled", "delay", retryQueue).increment();
+        } else {
+            log.error("Parking order message {} after {} attempt(s)", properties.getMessageId(), failedAttempts, failure);
+            properties.setHeader(PARKED_AT_HEADER, Instant.now().toString());
+            send("", PARKING_QUEUE_NAME, message);
+            meterRegistry.counter("orders.retry.parked", "exception", failure.getClass().getSimpleName()).increment();
+        }
+    }
+
+    @Override
+    public void recover(List<Message> messages, Throwable cause) {
+        messages.forEach(message -> recover(message, cause));
+    }
+
+    // Se a cópia não for confirmada a exceção sobe, o container devolve a original à fila e nada se perde.
+    private void send(String exchange, String routingKey, Message message) {
+        if (!rabbitTemplate.getConnectionFactory().isPublisherConfirms()) {
+            rabbitTemplate.send(exchange, routingKey, message);
+            return;
+        }
+        CorrelationData correlationData = new CorrelationData();
+        rabbitTemplate.send(exchange, routingKey, message, correlationData);
+        try {
+            CorrelationData.Confirm confirm = correlationData.getFuture().get(confirmTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            if (!confirm.isAck()) {
+                throw new AmqpException("Broker rejected message for " + routingKey + ": " + confirm.getReason());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmqpException("Interrupted while waiting for confirmation of " + routingKey, e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new AmqpException("No confirmation for message sent to " + routingKey, e);
+        }
+    }
+
+    private static int attempts(MessageProperties properties) {
+        Object attempts = properties.getHeader(RETRY_ATTEMPTS_HEADER);
+        return attempts instanceof Number number ? number.intValue() : 0;
+    }
+
+    private static String abbreviate(String message) {
+        if (message == null || message.length() <= MAX_EXCEPTION_MESSAGE_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_EXCEPTION_MESSAGE_LENGTH);
+    }
+}
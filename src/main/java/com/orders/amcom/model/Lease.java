@@ -0,0 +1,27 @@
+package com.orders.amcom.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Posse temporária de um recurso compartilhado entre réplicas (um nodeId de externalId, um job agendado).
+// Vale até expiresAt; quem não renovar a tempo perde a posse para a próxima réplica que pedir.
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "order_leases")
+public class Lease {
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private String owner;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,146 @@
+package com.orders.amcom.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Valor monetário guardado em centavos num long. Só quando o valor não cabe em centavos (estouro do long ou fração de
+// centavo, ex.: preço 1.005) ele passa a ser carregado em BigDecimal. O arredondamento HALF_UP para 2 casas, como o da
+// coluna numeric(…, 2), acontece uma vez: no total de Sum e na gravação (rounded()), nunca em cada preço.
+public final class Money implements Comparable<Money> {
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0, null);
+
+    private final long minorUnits;
+    // Só preenchido quando o valor não cabe em minorUnits; frações de centavo ficam sem zeros à direita.
+    private final BigDecimal overflow;
+
+    private Money(long minorUnits, BigDecimal overflow) {
+        this.minorUnits = minorUnits;
+        this.overflow = overflow;
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits, null);
+    }
+
+    @JsonCreator
+    public static Money of(BigDecimal amount) {
+        if (amount == null) {
+            return null;
+        }
+        if (amount.scale() > SCALE && amount.stripTrailingZeros().scale() > SCALE) {
+            return new Money(0, amount.stripTrailingZeros());
+        }
+        BigDecimal scaled = amount.setScale(SCALE, RoundingMode.UNNECESSARY);
+        if (scaled.unscaledValue().bitLength() < Long.SIZE) {
+            return ofMinor(scaled.unscaledValue().longValue());
+        }
+        return new Money(0, scaled);
+    }
+
+    public static Money of(String amount) {
+        return of(new BigDecimal(amount));
+    }
+
+    public Money plus(Money other) {
+        if (overflow == null && other.overflow == null) {
+            long sum = minorUnits + other.minorUnits;
+            // Estouro só acontece quando os dois operandos têm o mesmo sinal e o resultado troca de sinal.
+            if (((minorUnits ^ sum) & (other.minorUnits ^ sum)) >= 0) {
+                return ofMinor(sum);
+            }
+        }
+        return of(toBigDecimal().add(other.toBigDecimal()));
+    }
+
+    public Money times(long quantity) {
+        if (overflow == null) {
+            long high = Math.multiplyHigh(minorUnits, quantity);
+            long low = minorUnits * quantity;
+            if ((high == 0 && low >= 0) || (high == -1 && low < 0)) {
+                return ofMinor(low);
+            }
+        }
+        return of(toBigDecimal().multiply(BigDecimal.valueOf(quantity)));
+    }
+
+    public Money rounded() {
+        return overflow == null || overflow.scale() <= SCALE ? this : of(overflow.setScale(SCALE, RoundingMode.HALF_UP));
+    }
+
+    public boolean isCompact() {
+        return overflow == null;
+    }
+
+    public long getMinorUnits() {
+        if (overflow != null) {
+            throw new ArithmeticException("Amount " + overflow.toPlainString() + " does not fit in minor units");
+        }
+        return minorUnits;
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return overflow != null ? overflow : BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        if (overflow == null && other.overflow == null) {
+            return Long.compare(minorUnits, other.minorUnits);
+        }
+        return toBigDecimal().compareTo(other.toBigDecimal());
+    }
+
+    // Valores que cabem em long estão sempre na forma compacta, então a forma já faz parte da igualdade.
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Money other)) {
+            return false;
+        }
+        return overflow == null ? other.overflow == null && minorUnits == other.minorUnits : overflow.equals(other.overflow);
+    }
+
+    @Override
+    public int hashCode() {
+        return overflow == null ? Long.hashCode(minorUnits) : overflow.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    // Acumulador mutável para somar itens de um pedido sem alocar um Money por produto.
+    public static final class Sum {
+        private long minorUnits;
+        private BigDecimal overflow;
+
+        public Sum add(Money price, long quantity) {
+            if (overflow == null && price.overflow == null) {
+                long high = Math.multiplyHigh(price.minorUnits, quantity);
+                long line = price.minorUnits * quantity;
+                if ((high == 0 && line >= 0) || (high == -1 && line < 0)) {
+                    long sum = minorUnits + line;
+                    if (((minorUnits ^ sum) & (line ^ sum)) >= 0) {
+                        minorUnits = sum;
+                        return this;
+                    }
+                }
+            }
+            BigDecimal current = overflow != null ? overflow : BigDecimal.valueOf(minorUnits, SCALE);
+            overflow = current.add(price.toBigDecimal().multiply(BigDecimal.valueOf(quantity)));
+            return this;
+        }
+
+        public Money toMoney() {
+            return overflow != null ? of(overflow).rounded() : ofMinor(minorUnits);
+        }
+    }
+}
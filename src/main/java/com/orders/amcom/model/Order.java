@@ -4,13 +4,15 @@ import com.orders.amcom.enums.OrderStatus;
 import jakarta.persistence.*;
 import lombok.Data;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_status_created_at_id", columnList = "status, created_at, id"),
+        @Index(name = "idx_orders_created_at_id", columnList = "created_at, id")
+})
 public class Order {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -19,6 +21,10 @@ public class Order {
     @Column(unique = true, nullable = false)
     private String externalId;
 
+    // Id da mensagem AMQP que originou o pedido; a constraint única barra reentregas.
+    @Column(unique = true)
+    private String messageId;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private OrderStatus status;
@@ -27,7 +33,12 @@ public class Order {
     private List<Product> products;
 
     @Column(nullable = false, precision = 10, scale = 2)
-    private BigDecimal totalAmount = BigDecimal.ZERO;
+    private Money totalAmount = Money.ZERO;
+
+    // Incrementada a cada transição de status; as atualizações condicionais a usam para detectar concorrência.
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0 not null")
+    private Long version;
 
     @Column(nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
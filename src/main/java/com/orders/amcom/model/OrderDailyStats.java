@@ -0,0 +1,38 @@
+package com.orders.amcom.model;
+
+import com.orders.amcom.enums.OrderStatus;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Uma linha por dia de criação e status, mantida incrementalmente por OrderStatsService.
+@Data
+@NoArgsConstructor
+@Entity
+@IdClass(OrderDailyStatsId.class)
+@Table(name = "order_daily_stats")
+public class OrderDailyStats {
+    @Id
+    @Column(name = "order_date")
+    private LocalDate orderDate;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    @Column(nullable = false)
+    private long orderCount;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    public OrderDailyStats(LocalDate orderDate, OrderStatus status, long orderCount, BigDecimal totalAmount) {
+        this.orderDate = orderDate;
+        this.status = status;
+        this.orderCount = orderCount;
+        this.totalAmount = totalAmount;
+    }
+}
@@ -0,0 +1,17 @@
+package com.orders.amcom.model;
+
+import com.orders.amcom.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderDailyStatsId implements Serializable {
+    private LocalDate orderDate;
+    private OrderStatus status;
+}
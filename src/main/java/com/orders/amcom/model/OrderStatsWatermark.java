@@ -0,0 +1,33 @@
+package com.orders.amcom.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// Marca d'água da reconstrução de order_daily_stats (uma linha só). Deltas registrados antes dela já estão no
+// snapshot e são descartados; os registrados depois ficam retidos e só são gravados quando rebuilt vira true.
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "order_stats_watermark")
+public class OrderStatsWatermark {
+    public static final int ID = 1;
+
+    @Id
+    private int id = ID;
+
+    @Column(nullable = false)
+    private Instant watermark;
+
+    @Column(nullable = false)
+    private boolean rebuilt;
+
+    public OrderStatsWatermark(Instant watermark) {
+        this.watermark = watermark;
+    }
+}
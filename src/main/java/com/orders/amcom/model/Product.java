@@ -3,11 +3,9 @@ package com.orders.amcom.model;
 import jakarta.persistence.*;
 import lombok.Data;
 
-import java.math.BigDecimal;
-
 @Data
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = @Index(name = "idx_products_order_id", columnList = "order_id"))
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -21,7 +19,7 @@ public class Product {
     private String name;
 
     @Column(nullable = false)
-    private BigDecimal price;
+    private Money price;
 
     @Column(nullable = false)
     private Integer quantity;
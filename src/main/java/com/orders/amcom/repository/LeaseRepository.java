@@ -0,0 +1,38 @@
+package com.orders.amcom.repository;
+
+import com.orders.amcom.model.Lease;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+// Cada operação é um único comando condicional: duas réplicas disputando o mesmo lease nunca ficam ambas com ele.
+public interface LeaseRepository extends JpaRepository<Lease, String> {
+
+    // Falha com violação de chave primária se o lease já existir.
+    @Transactional
+    @Modifying
+    @Query(value = "insert into order_leases (name, owner, expires_at) values (:name, :owner, :expiresAt)", nativeQuery = true)
+    int insert(@Param("name") String name, @Param("owner") String owner, @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Assume um lease vencido ou que já é do próprio dono.
+    @Transactional
+    @Modifying
+    @Query("update Lease l set l.owner = :owner, l.expiresAt = :expiresAt "
+            + "where l.name = :name and (l.owner = :owner or l.expiresAt < :now)")
+    int takeOver(@Param("name") String name, @Param("owner") String owner,
+                 @Param("expiresAt") LocalDateTime expiresAt, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("update Lease l set l.expiresAt = :expiresAt where l.name = :name and l.owner = :owner")
+    int renew(@Param("name") String name, @Param("owner") String owner, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Lease l where l.name = :name and l.owner = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner);
+}
@@ -0,0 +1,144 @@
+package com.orders.amcom.repository;
+
+import com.orders.amcom.enums.OrderStatus;
+import com.orders.amcom.model.OrderDailyStats;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Tabelas de arquivo de pedidos e produtos. No PostgreSQL são particionadas por mês de criação do pedido (RANGE em
+// created_at), cada mês numa partição criada antes de receber linhas; nos demais bancos são tabelas comuns.
+@Repository
+public class OrderArchiveRepository {
+    public static final String ORDERS_ARCHIVE_TABLE = "orders_archive";
+    public static final String PRODUCTS_ARCHIVE_TABLE = "products_archive";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public boolean isPartitioned() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+
+    public boolean exists() {
+        Number tables = (Number) entityManager.createNativeQuery(
+                        "select count(*) from information_schema.tables where lower(table_name) = :table")
+                .setParameter("table", ORDERS_ARCHIVE_TABLE)
+                .getSingleResult();
+        return tables.intValue() > 0;
+    }
+
+    @Transactional
+    public void createTables() {
+        String partitionOrders = isPartitioned() ? " partition by range (created_at)" : "";
+        String partitionProducts = isPartitioned() ? " partition by range (order_created_at)" : "";
+        // A chave de partição precisa estar na chave primária; externalId e messageId já eram únicos na tabela quente.
+        execute("create table if not exists " + ORDERS_ARCHIVE_TABLE + " ("
+                + "id varchar(255) not null, external_id varchar(255) not null, message_id varchar(255), "
+                + "status varchar(255) not null, total_amount numeric(10,2) not null, version bigint not null, "
+                + "created_at timestamp(6) not null, updated_at timestamp(6) not null, archived_at timestamp(6) not null, "
+                + "primary key (id, created_at))" + partitionOrders);
+        execute("create table if not exists " + PRODUCTS_ARCHIVE_TABLE + " ("
+                + "id varchar(255) not null, order_id varchar(255) not null, name varchar(255) not null, "
+                + "price numeric(38,2) not null, quantity integer not null, order_created_at timestamp(6) not null, "
+                + "primary key (id, order_created_at))" + partitionProducts);
+        execute("create index if not exists idx_orders_archive_external_id on " + ORDERS_ARCHIVE_TABLE + " (external_id)");
+        execute("create index if not exists idx_products_archive_order_id on " + PRODUCTS_ARCHIVE_TABLE + " (order_id)");
+    }
+
+    @Transactional
+    public void createPartitions(YearMonth month) {
+        if (!isPartitioned()) {
+            return;
+        }
+        String suffix = month.format(PARTITION_SUFFIX);
+        String range = " for values from ('" + month.atDay(1).atStartOfDay() + "') to ('"
+                + month.plusMonths(1).atDay(1).atStartOfDay() + "')";
+        execute("create table if not exists " + ORDERS_ARCHIVE_TABLE + "_" + suffix
+                + " partition of " + ORDERS_ARCHIVE_TABLE + range);
+        execute("create table if not exists " + PRODUCTS_ARCHIVE_TABLE + "_" + suffix
+                + " partition of " + PRODUCTS_ARCHIVE_TABLE + range);
+    }
+
+    // Move até limit pedidos COMPLETED criados antes de cutoff, com seus produtos, numa única transação.
+    // Devolve os externalIds movidos.
+    @Transactional
+    public List<String> archiveCompletedBefore(LocalDateTime cutoff, int limit, LocalDateTime archivedAt) {
+        List<Object[]> candidates = entityManager.createQuery(
+                        "select o.id, o.externalId, o.createdAt from Order o where o.status = :status and o.createdAt < :cutoff "
+                                + "order by o.createdAt, o.id", Object[].class)
+                .setParameter("status", OrderStatus.COMPLETED)
+                .setParameter("cutoff", cutoff)
+                .setMaxResults(limit)
+                .getResultList();
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        List<String> ids = candidates.stream().map(row -> (String) row[0]).toList();
+        Set<YearMonth> months = new TreeSet<>();
+        candidates.forEach(row -> months.add(YearMonth.from((LocalDateTime) row[2])));
+        months.forEach(this::createPartitions);
+
+        entityManager.createNativeQuery("insert into " + ORDERS_ARCHIVE_TABLE
+                        + " (id, external_id, message_id, status, total_amount, version, created_at, updated_at, archived_at) "
+                        + "select id, external_id, message_id, status, total_amount, version, created_at, updated_at, :archivedAt "
+                        + "from orders where id in (:ids)")
+                .setParameter("archivedAt", archivedAt)
+                .setParameter("ids", ids)
+                .executeUpdate();
+        entityManager.createNativeQuery("insert into " + PRODUCTS_ARCHIVE_TABLE
+                        + " (id, order_id, name, price, quantity, order_created_at) "
+                        + "select p.id, p.order_id, p.name, p.price, p.quantity, o.created_at "
+                        + "from products p join orders o on o.id = p.order_id where p.order_id in (:ids)")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        entityManager.createNativeQuery("delete from products where order_id in (:ids)")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        entityManager.createNativeQuery("delete from orders where id in (:ids)")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        return candidates.stream().map(row -> (String) row[1]).toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<OrderDailyStats> aggregate() {
+        List<Object[]> rows = entityManager.createNativeQuery("select cast(created_at as date), status, count(*), "
+                        + "sum(total_amount) from " + ORDERS_ARCHIVE_TABLE + " group by cast(created_at as date), status")
+                .getResultList();
+        return rows.stream()
+                .map(row -> new OrderDailyStats(toLocalDate(row[0]), OrderStatus.valueOf((String) row[1]),
+                        ((Number) row[2]).longValue(), (BigDecimal) row[3]))
+                .toList();
+    }
+
+    private void execute(String sql) {
+        entityManager.createNativeQuery(sql).executeUpdate();
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof Date date) {
+            return date.toLocalDate();
+        }
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toLocalDate();
+        }
+        return (LocalDate) value;
+    }
+}
@@ -0,0 +1,31 @@
+package com.orders.amcom.repository;
+
+import com.orders.amcom.enums.OrderStatus;
+import com.orders.amcom.model.OrderDailyStats;
+import com.orders.amcom.model.OrderDailyStatsId;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface OrderDailyStatsRepository extends JpaRepository<OrderDailyStats, OrderDailyStatsId> {
+
+    // Incremento relativo: réplicas diferentes somam seus deltas sem se sobrescrever.
+    @Transactional
+    @Modifying
+    @Query("update OrderDailyStats s set s.orderCount = s.orderCount + :count, s.totalAmount = s.totalAmount + :amount "
+            + "where s.orderDate = :orderDate and s.status = :status")
+    int increment(@Param("orderDate") LocalDate orderDate,
+                  @Param("status") OrderStatus status,
+                  @Param("count") long count,
+                  @Param("amount") BigDecimal amount);
+
+    @Query("select new com.orders.amcom.model.OrderDailyStats(cast(o.createdAt as LocalDate), o.status, count(o), sum(o.totalAmount)) "
+            + "from Order o group by cast(o.createdAt as LocalDate), o.status")
+    List<OrderDailyStats> aggregateFromOrders();
+}
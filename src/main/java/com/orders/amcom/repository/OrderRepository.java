@@ -1,13 +1,43 @@
 package com.orders.amcom.repository;
 
+import com.orders.amcom.dto.OrderStatusView;
+import com.orders.amcom.enums.OrderStatus;
 import com.orders.amcom.model.Order;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface OrderRepository extends JpaRepository<Order, String>, JpaSpecificationExecutor<Order> {
-    List<Order> findByStatus(String status);
+public interface OrderRepository extends JpaRepository<Order, String>, JpaSpecificationExecutor<Order>, OrderRepositoryCustom {
     Optional<Order> findOrderByIdAndExternalId(String id, String externalId);
+
+    @EntityGraph(attributePaths = "products")
+    Optional<Order> findByExternalId(String externalId);
+
+    boolean existsByMessageId(String messageId);
+
+    @Query("select o.messageId from Order o where o.messageId in :messageIds")
+    List<String> findExistingMessageIds(@Param("messageIds") Collection<String> messageIds);
+
+    @Query("select distinct o from Order o left join fetch o.products where o in :orders")
+    List<Order> fetchProducts(@Param("orders") Collection<Order> orders);
+
+    // A regra PENDING -> status fica no WHERE; quem não estiver PENDING simplesmente não é tocado.
+    @Modifying
+    @Query("update Order o set o.status = :status, o.updatedAt = :updatedAt, o.version = o.version + 1 "
+            + "where o.externalId in :externalIds and o.status = com.orders.amcom.enums.OrderStatus.PENDING")
+    int updatePendingStatuses(@Param("externalIds") Collection<String> externalIds,
+                              @Param("status") OrderStatus status,
+                              @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Query("select new com.orders.amcom.dto.OrderStatusView(o.externalId, o.status, o.updatedAt, o.createdAt, o.totalAmount) "
+            + "from Order o where o.externalId in :externalIds")
+    List<OrderStatusView> findStatusViews(@Param("externalIds") Collection<String> externalIds);
 }
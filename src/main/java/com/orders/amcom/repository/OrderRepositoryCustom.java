@@ -0,0 +1,19 @@
+package com.orders.amcom.repository;
+
+import com.orders.amcom.enums.OrderStatus;
+import com.orders.amcom.model.Order;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public interface OrderRepositoryCustom {
+    void streamAll(Specification<Order> specification, int fetchSize, Consumer<Order> action);
+
+    List<String> findExternalIds(Specification<Order> specification, int limit);
+
+    Optional<Order> updatePendingStatusReturning(String id, String externalId, OrderStatus status, Long version,
+                                                 LocalDateTime updatedAt);
+}
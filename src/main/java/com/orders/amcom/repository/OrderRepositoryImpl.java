@@ -0,0 +1,136 @@
+package com.orders.amcom.repository;
+
+import com.orders.amcom.enums.OrderStatus;
+import com.orders.amcom.model.Money;
+import com.orders.amcom.model.Order;
+import com.orders.amcom.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+    private static final String UPDATED_ORDER_COLUMNS = "o.id, o.external_id, o.message_id, o.status, o.total_amount, "
+            + "o.version, o.created_at, o.updated_at, p.id, p.name, p.price, p.quantity";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Percorre o resultado com um cursor forward-only, buscando fetchSize linhas por ida ao banco.
+    // Cada pedido é desanexado após o uso para o contexto de persistência não crescer com o volume.
+    @Override
+    public void streamAll(Specification<Order> specification, int fetchSize, Consumer<Order> action) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Order> query = criteriaBuilder.createQuery(Order.class);
+        Root<Order> root = query.from(Order.class);
+        query.where(specification.toPredicate(root, query, criteriaBuilder));
+        query.orderBy(criteriaBuilder.asc(root.get("createdAt")), criteriaBuilder.asc(root.get("id")));
+
+        try (Stream<Order> orders = entityManager.createQuery(query)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            orders.forEach(order -> {
+                action.accept(order);
+                entityManager.detach(order);
+            });
+        }
+    }
+
+    // Projeta só o externalId: seleciona os alvos de uma atualização em massa sem materializar entidades.
+    @Override
+    public List<String> findExternalIds(Specification<Order> specification, int limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<String> query = criteriaBuilder.createQuery(String.class);
+        Root<Order> root = query.from(Order.class);
+        query.select(root.get("externalId"));
+        query.where(specification.toPredicate(root, query, criteriaBuilder));
+        query.orderBy(criteriaBuilder.asc(root.get("createdAt")), criteriaBuilder.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // Checagem, escrita e leitura num statement só: a linha devolvida é a que este UPDATE gravou, já com os produtos.
+    // No PostgreSQL é um UPDATE ... RETURNING numa CTE; no H2 dos testes, a tabela delta FINAL TABLE.
+    @Override
+    public Optional<Order> updatePendingStatusReturning(String id, String externalId, OrderStatus status, Long version,
+                                                        LocalDateTime updatedAt) {
+        String update = "update orders set status = :status, updated_at = :updatedAt, version = version + 1 "
+                + "where id = :id and external_id = :externalId and status = 'PENDING'"
+                + (version == null ? "" : " and version = :version");
+        String sql = isPostgreSQL()
+                ? "with o as (" + update + " returning *) select " + UPDATED_ORDER_COLUMNS
+                        + " from o left join products p on p.order_id = o.id"
+                : "select " + UPDATED_ORDER_COLUMNS + " from final table (" + update + ") o "
+                        + "left join products p on p.order_id = o.id";
+        Query query = entityManager.createNativeQuery(sql)
+                .setParameter("status", status.name())
+                .setParameter("updatedAt", updatedAt)
+                .setParameter("id", id)
+                .setParameter("externalId", externalId);
+        if (version != null) {
+            query.setParameter("version", version);
+        }
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+        return rows.isEmpty() ? Optional.empty() : Optional.of(toOrder(rows));
+    }
+
+    private boolean isPostgreSQL() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+
+    // Uma linha por produto (ou uma só, com produto nulo, para pedido sem produtos).
+    private static Order toOrder(List<Object[]> rows) {
+        Object[] first = rows.get(0);
+        Order order = new Order();
+        order.setId((String) first[0]);
+        order.setExternalId((String) first[1]);
+        order.setMessageId((String) first[2]);
+        order.setStatus(OrderStatus.valueOf((String) first[3]));
+        order.setTotalAmount(Money.of((BigDecimal) first[4]));
+        order.setVersion(((Number) first[5]).longValue());
+        order.setCreatedAt(toLocalDateTime(first[6]));
+        order.setUpdatedAt(toLocalDateTime(first[7]));
+        List<Product> products = new ArrayList<>();
+        for (Object[] row : rows) {
+            if (row[8] == null) {
+                continue;
+            }
+            Product product = new Product();
+            product.setId((String) row[8]);
+            product.setName((String) row[9]);
+            product.setPrice(Money.of((BigDecimal) row[10]));
+            product.setQuantity(((Number) row[11]).intValue());
+            product.setOrder(order);
+            products.add(product);
+        }
+        order.setProducts(products);
+        return order;
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+}
@@ -0,0 +1,52 @@
+package com.orders.amcom.repository;
+
+import com.orders.amcom.enums.OrderStatus;
+import com.orders.amcom.model.Order;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class OrderSpecifications {
+    // Mesma ordem das colunas dos índices declarados em Order.
+    public static final Sort KEYSET_SORT = Sort.by(Sort.Order.asc("createdAt"), Sort.Order.asc("id"));
+
+    private OrderSpecifications() {
+    }
+
+    public static Specification<Order> withFilters(OrderStatus status, LocalDate startDate, LocalDate endDate) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (status != null) {
+                predicates.add(criteriaBuilder.equal(root.get("status"), status));
+            }
+
+            if (startDate != null) {
+                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("createdAt"), startDate.atStartOfDay()));
+            }
+
+            if (endDate != null) {
+                predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("createdAt"), endDate.atTime(LocalTime.MAX)));
+            }
+
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    // (createdAt, id) > (:createdAt, :id); o createdAt >= redundante delimita o início do range scan no índice.
+    public static Specification<Order> after(LocalDateTime createdAt, String id) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.and(
+                criteriaBuilder.greaterThanOrEqualTo(root.get("createdAt"), createdAt),
+                criteriaBuilder.or(
+                        criteriaBuilder.greaterThan(root.get("createdAt"), createdAt),
+                        criteriaBuilder.and(
+                                criteriaBuilder.equal(root.get("createdAt"), createdAt),
+                                criteriaBuilder.greaterThan(root.get("id"), id))));
+    }
+}
@@ -0,0 +1,26 @@
+package com.orders.amcom.repository;
+
+import com.orders.amcom.model.OrderStatsWatermark;
+import jakarta.persistence.LockModeType;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface OrderStatsWatermarkRepository extends JpaRepository<OrderStatsWatermark, Integer> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select w from OrderStatsWatermark w where w.id = :id")
+    Optional<OrderStatsWatermark> lockById(@Param("id") int id);
+
+    // Só remove a marca se ainda for a da reconstrução que desistiu; outra pode já tê-la substituído.
+    @Transactional
+    @Modifying
+    @Query("delete from OrderStatsWatermark w where w.watermark = :watermark and w.rebuilt = false")
+    int cancel(@Param("watermark") Instant watermark);
+}
@@ -1,7 +1,33 @@
 package com.orders.amcom.repository;
 
+import com.orders.amcom.dto.ProductSalesDto;
+import com.orders.amcom.enums.OrderStatus;
 import com.orders.amcom.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.stream.Stream;
 
 public interface ProductRepository extends JpaRepository<Product, String> {
+    String SALES_BY_ORDER_STATUS = "select new com.orders.amcom.dto.ProductSalesDto(p.name, sum(p.quantity), sum(p.price * p.quantity)) "
+            + "from Product p where p.order.status = :status group by p.name order by p.name";
+
+    Window<Product> findByOrderStatus(OrderStatus status, ScrollPosition position, Sort sort, Limit limit);
+
+    @Query(SALES_BY_ORDER_STATUS)
+    Slice<ProductSalesDto> findSalesByOrderStatus(@Param("status") OrderStatus status, Pageable pageable);
+
+    @Query(SALES_BY_ORDER_STATUS)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<ProductSalesDto> streamSalesByOrderStatus(@Param("status") OrderStatus status);
 }
@@ -0,0 +1,5 @@
+package com.orders.amcom.service;
+
+public interface ExternalIdGenerator {
+    String nextId();
+}
@@ -0,0 +1,94 @@
+package com.orders.amcom.service;
+
+import com.orders.amcom.model.Order;
+import com.orders.amcom.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// O filtro de Bloom responde "nunca visto" sem consultar o banco; só as chaves que ele acusa como
+// possivelmente vistas são conferidas na coluna única orders.message_id.
+@Slf4j
+@Service
+public class IdempotencyService {
+    private final OrderRepository orderRepository;
+    private final BloomFilter processedMessages;
+    private final Counter duplicatesDropped;
+    private final Counter falsePositiveChecks;
+
+    public IdempotencyService(OrderRepository orderRepository, MeterRegistry meterRegistry,
+                              @Value("${orders.idempotency.expected-insertions:1000000}") long expectedInsertions,
+                              @Value("${orders.idempotency.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.orderRepository = orderRepository;
+        this.processedMessages = new BloomFilter(expectedInsertions, falsePositiveRate);
+        this.duplicatesDropped = meterRegistry.counter("orders.idempotency.duplicates.dropped");
+        this.falsePositiveChecks = meterRegistry.counter("orders.idempotency.false.positive.checks");
+    }
+
+    public boolean isDuplicate(String messageId) {
+        if (messageId == null || !processedMessages.mightContain(messageId)) {
+            return false;
+        }
+        if (orderRepository.existsByMessageId(messageId)) {
+            duplicatesDropped.increment();
+            log.info("Dropping duplicate message {}", messageId);
+            return true;
+        }
+        falsePositiveChecks.increment();
+        return false;
+    }
+
+    // Remove do lote as mensagens já processadas (uma única consulta para todos os suspeitos) e as repetidas no próprio lote.
+    public List<Order> filterDuplicates(List<Order> orders) {
+        List<String> suspects = new ArrayList<>();
+        for (Order order : orders) {
+            if (order.getMessageId() != null && processedMessages.mightContain(order.getMessageId())) {
+                suspects.add(order.getMessageId());
+            }
+        }
+        Set<String> existing = suspects.isEmpty() ? Set.of() : new HashSet<>(orderRepository.findExistingMessageIds(suspects));
+        falsePositiveChecks.increment(suspects.size() - existing.size());
+
+        Set<String> seenInBatch = new HashSet<>();
+        List<Order> unique = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            String messageId = order.getMessageId();
+            if (messageId != null && (existing.contains(messageId) || !seenInBatch.add(messageId))) {
+                duplicatesDropped.increment();
+                log.info("Dropping duplicate message {}", messageId);
+                continue;
+            }
+            unique.add(order);
+        }
+        return unique;
+    }
+
+    // Chamado quando a gravação esbarra na constraint única: duas entregas concorrentes ou filtro reiniciado.
+    public boolean isConfirmedDuplicate(String messageId) {
+        if (messageId != null && orderRepository.existsByMessageId(messageId)) {
+            processedMessages.put(messageId);
+            duplicatesDropped.increment();
+            log.info("Dropping duplicate message {}", messageId);
+            return true;
+        }
+        return false;
+    }
+
+    public void markProcessed(String messageId) {
+        if (messageId != null) {
+            processedMessages.put(messageId);
+        }
+    }
+
+    public void markProcessed(Collection<Order> orders) {
+        orders.forEach(order -> markProcessed(order.getMessageId()));
+    }
+}
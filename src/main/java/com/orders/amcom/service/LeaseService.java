@@ -0,0 +1,76 @@
+package com.orders.amcom.service;
+
+import com.orders.amcom.repository.LeaseRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Leases no banco para coordenar réplicas sem outra infraestrutura. O vencimento usa o relógio de cada réplica:
+// o ttl precisa ser bem maior que a diferença de relógio entre elas e que o intervalo de renovação.
+@Service
+public class LeaseService {
+    private final LeaseRepository leaseRepository;
+    private final String owner = UUID.randomUUID().toString();
+    // Leases pegos com tryAcquireExclusive e ainda não liberados por esta instância.
+    private final Set<String> heldExclusively = ConcurrentHashMap.newKeySet();
+
+    public LeaseService(LeaseRepository leaseRepository) {
+        this.leaseRepository = leaseRepository;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    // Fora de transação: no PostgreSQL a violação de chave do insert invalidaria a transação do chamador.
+    public boolean tryAcquire(String name, Duration ttl) {
+        LocalDateTime now = LocalDateTime.now();
+        if (leaseRepository.takeOver(name, owner, now.plus(ttl), now) > 0) {
+            return true;
+        }
+        // Lease vigente de outro dono: evita o insert, cuja violação de chave o Hibernate registra como erro.
+        if (leaseRepository.existsById(name)) {
+            return false;
+        }
+        try {
+            return leaseRepository.insert(name, owner, now.plus(ttl)) > 0;
+        } catch (DataIntegrityViolationException e) {
+            // Outra réplica tem o lease (ou o criou ao mesmo tempo).
+            return false;
+        }
+    }
+
+    // Como tryAcquire, mas também recusa quando esta mesma instância já tem o lease: para jobs que não podem rodar
+    // duas vezes ao mesmo tempo nem dentro da réplica.
+    public boolean tryAcquireExclusive(String name, Duration ttl) {
+        if (!heldExclusively.add(name)) {
+            return false;
+        }
+        boolean acquired = false;
+        try {
+            acquired = tryAcquire(name, ttl);
+            return acquired;
+        } finally {
+            if (!acquired) {
+                heldExclusively.remove(name);
+            }
+        }
+    }
+
+    public boolean renew(String name, Duration ttl) {
+        return leaseRepository.renew(name, owner, LocalDateTime.now().plus(ttl)) > 0;
+    }
+
+    public void release(String name) {
+        try {
+            leaseRepository.release(name, owner);
+        } finally {
+            heldExclusively.remove(name);
+        }
+    }
+}
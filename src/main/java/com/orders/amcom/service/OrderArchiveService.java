@@ -0,0 +1,126 @@
+package com.orders.amcom.service;
+
+import com.orders.amcom.config.SchedulingConfig;
+import com.orders.amcom.model.OrderDailyStats;
+import com.orders.amcom.repository.OrderArchiveRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+// Tira da tabela orders os pedidos COMPLETED mais antigos que a retenção, em lotes de chunkSize com uma transação
+// cada, para manter pequenos a tabela quente e seus índices. Os pedidos vão para orders_archive/products_archive,
+// particionadas por mês no PostgreSQL; as partições dos próximos meses são criadas antes de serem necessárias.
+// Só uma réplica arquiva por vez, e nunca junto com a reconstrução das estatísticas: as duas usam a mesma lease, porque
+// um lote movido entre as duas agregações do snapshot seria contado duas vezes ou nenhuma.
+@Slf4j
+@Service
+public class OrderArchiveService {
+    private final OrderArchiveRepository archiveRepository;
+    private final OrderCacheService orderCacheService;
+    private final LeaseService leaseService;
+    private final boolean enabled;
+    private final Duration retention;
+    private final int chunkSize;
+    private final int partitionsAhead;
+    private final Duration leaseTtl;
+    private final Counter archived;
+    private final Timer runTimer;
+
+    public OrderArchiveService(OrderArchiveRepository archiveRepository, OrderCacheService orderCacheService,
+                               LeaseService leaseService, MeterRegistry meterRegistry,
+                               @Value("${orders.archive.enabled:false}") boolean enabled,
+                               @Value("${orders.archive.retention:180d}") Duration retention,
+                               @Value("${orders.archive.chunk-size:1000}") int chunkSize,
+                               @Value("${orders.archive.partitions-ahead:3}") int partitionsAhead,
+                               @Value("${orders.archive.lease-ttl:10m}") Duration leaseTtl) {
+        if (chunkSize < 1 || partitionsAhead < 0) {
+            throw new IllegalArgumentException("orders.archive.chunk-size must be positive and orders.archive.partitions-ahead not negative");
+        }
+        this.archiveRepository = archiveRepository;
+        this.orderCacheService = orderCacheService;
+        this.leaseService = leaseService;
+        this.enabled = enabled;
+        this.retention = retention;
+        this.chunkSize = chunkSize;
+        this.partitionsAhead = partitionsAhead;
+        this.leaseTtl = leaseTtl;
+        this.archived = meterRegistry.counter("orders.archive.archived");
+        this.runTimer = meterRegistry.timer("orders.archive.run");
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        archiveRepository.createTables();
+        createPartitions();
+    }
+
+    // Do mês que está saindo da retenção até partitionsAhead meses depois.
+    @Scheduled(cron = "${orders.archive.partition-cron:0 0 2 * * *}")
+    public void createPartitions() {
+        if (!enabled || !archiveRepository.isPartitioned()) {
+            return;
+        }
+        YearMonth first = YearMonth.from(cutoff());
+        for (int i = 0; i <= partitionsAhead; i++) {
+            archiveRepository.createPartitions(first.plusMonths(i));
+        }
+    }
+
+    @Scheduled(cron = "${orders.archive.cron:0 30 3 * * *}", scheduler = SchedulingConfig.MAINTENANCE_SCHEDULER)
+    public int archive() {
+        if (!enabled) {
+            return 0;
+        }
+        if (!leaseService.tryAcquireExclusive(OrderStatsService.REBUILD_LEASE, leaseTtl)) {
+            log.info("Order archiving or stats rebuild is already running, skipping");
+            return 0;
+        }
+        try {
+            return runTimer.record(this::archiveChunks);
+        } finally {
+            leaseService.release(OrderStatsService.REBUILD_LEASE);
+        }
+    }
+
+    // A lease é renovada a cada lote; se outra instância a tomou, o lote já feito fica e o resto espera a próxima rodada.
+    private int archiveChunks() {
+        LocalDateTime cutoff = cutoff();
+        LocalDateTime archivedAt = LocalDateTime.now();
+        int total = 0;
+        List<String> chunk;
+        do {
+            chunk = archiveRepository.archiveCompletedBefore(cutoff, chunkSize, archivedAt);
+            orderCacheService.evict(chunk);
+            archived.increment(chunk.size());
+            total += chunk.size();
+            if (chunk.size() == chunkSize && !leaseService.renew(OrderStatsService.REBUILD_LEASE, leaseTtl)) {
+                log.warn("Lost the archive lease after {} orders, stopping", total);
+                return total;
+            }
+        } while (chunk.size() == chunkSize);
+        log.info("Archived {} completed orders created before {}", total, cutoff);
+        return total;
+    }
+
+    // Linhas do resumo diário dos pedidos arquivados; vazio enquanto o arquivo não existe.
+    public List<OrderDailyStats> aggregateArchived() {
+        return archiveRepository.exists() ? archiveRepository.aggregate() : List.of();
+    }
+
+    private LocalDateTime cutoff() {
+        return LocalDateTime.now().minus(retention);
+    }
+}
@@ -0,0 +1,77 @@
+package com.orders.amcom.service;
+
+import com.orders.amcom.listener.OrderRetryPolicy;
+import com.orders.amcom.model.Order;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderBatchService {
+    private final OrderService orderService;
+
+    // Só pedidos que falhariam de novo em qualquer tentativa (validação, constraint) voltam como rejeitados. Falhas
+    // transitórias (banco fora, timeout do pool) sobem para que o lote não seja confirmado e volte a ser entregue.
+    public Result createOrders(List<Order> orders) {
+        List<Rejected> rejected = new ArrayList<>();
+        List<Order> validOrders = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            try {
+                orderService.validateOrder(order);
+                validOrders.add(order);
+            } catch (IllegalArgumentException e) {
+                rejected.add(new Rejected(order, e));
+            }
+        }
+
+        if (validOrders.isEmpty()) {
+            return new Result(List.of(), rejected);
+        }
+
+        try {
+            return new Result(orderService.createOrders(validOrders), rejected);
+        } catch (RuntimeException e) {
+            if (OrderRetryPolicy.isRetryable(e)) {
+                throw e;
+            }
+            log.warn("Batch insert of {} orders failed, retrying one by one", validOrders.size(), e);
+            List<Order> saved = saveIndividually(validOrders, (order, failure) -> {
+                if (OrderRetryPolicy.isRetryable(failure)) {
+                    throw failure;
+                }
+                rejected.add(new Rejected(order, failure));
+            });
+            return new Result(saved, rejected);
+        }
+    }
+
+    // Um pedido ruim derruba a transação inteira do lote; regrava um a um, cada pedido na própria transação, para
+    // isolar o culpado. onFailure recebe cada pedido que falhou e pode relançar para interromper o restante.
+    public List<Order> saveIndividually(List<Order> orders, BiConsumer<Order, RuntimeException> onFailure) {
+        List<Order> savedOrders = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            // Os ids gerados na transação desfeita não existem no banco; o externalId já foi atribuído e se mantém.
+            order.setId(null);
+            order.setVersion(null);
+            order.getProducts().forEach(product -> product.setId(null));
+            try {
+                savedOrders.addAll(orderService.savePreparedOrders(List.of(order)));
+            } catch (RuntimeException e) {
+                onFailure.accept(order, e);
+            }
+        }
+        return savedOrders;
+    }
+
+    public record Result(List<Order> saved, List<Rejected> rejected) {
+    }
+
+    public record Rejected(Order order, RuntimeException cause) {
+    }
+}
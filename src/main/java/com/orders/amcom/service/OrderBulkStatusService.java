@@ -0,0 +1,62 @@
+package com.orders.amcom.service;
+
+import com.orders.amcom.dto.BulkStatusUpdateRequest;
+import com.orders.amcom.dto.BulkStatusUpdateResult;
+import com.orders.amcom.enums.OrderStatus;
+import com.orders.amcom.exception.OrderException;
+import com.orders.amcom.model.Order;
+import com.orders.amcom.repository.OrderRepository;
+import com.orders.amcom.repository.OrderSpecifications;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+// Divide a atualização em lotes de chunkSize, cada um em sua própria transação,
+// para não segurar locks de dezenas de milhares de linhas nem estourar o limite de parâmetros do IN.
+@Service
+public class OrderBulkStatusService {
+    public static final String EXTERNAL_IDS_OR_FILTER_REQUIRED = "Either externalIds or a date filter must be provided.";
+    private final OrderService orderService;
+    private final OrderRepository orderRepository;
+    private final int chunkSize;
+
+    public OrderBulkStatusService(OrderService orderService, OrderRepository orderRepository,
+                                  @Value("${orders.bulk-update.chunk-size:1000}") int chunkSize) {
+        this.orderService = orderService;
+        this.orderRepository = orderRepository;
+        this.chunkSize = chunkSize;
+    }
+
+    public BulkStatusUpdateResult updateStatuses(BulkStatusUpdateRequest request) {
+        orderService.validateStatusTransition(request.getStatus());
+        BulkStatusUpdateResult result = new BulkStatusUpdateResult(request.getStatus());
+
+        if (request.getExternalIds() != null && !request.getExternalIds().isEmpty()) {
+            List<String> externalIds = new ArrayList<>(new LinkedHashSet<>(request.getExternalIds()));
+            for (int from = 0; from < externalIds.size(); from += chunkSize) {
+                List<String> chunk = externalIds.subList(from, Math.min(from + chunkSize, externalIds.size()));
+                result.addAll(orderService.updateOrderStatuses(chunk, request.getStatus()));
+            }
+            return result;
+        }
+
+        if (request.getStartDate() == null && request.getEndDate() == null) {
+            throw new OrderException(EXTERNAL_IDS_OR_FILTER_REQUIRED);
+        }
+
+        // Cada lote atualizado deixa de ser PENDING, então a próxima busca já traz os seguintes.
+        Specification<Order> pending = OrderSpecifications.withFilters(OrderStatus.PENDING, request.getStartDate(), request.getEndDate());
+        List<String> chunk;
+        do {
+            chunk = orderRepository.findExternalIds(pending, chunkSize);
+            if (!chunk.isEmpty()) {
+                result.addAll(orderService.updateOrderStatuses(chunk, request.getStatus()));
+            }
+        } while (chunk.size() == chunkSize);
+        return result;
+    }
+}
@@ -0,0 +1,65 @@
+package com.orders.amcom.service;
+
+import com.orders.amcom.config.RabbitMQConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static com.orders.amcom.config.CacheConfig.ORDERS_CACHE;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderCacheService {
+    private final CacheManager cacheManager;
+    private final RabbitTemplate rabbitTemplate;
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    // Dentro de uma transação, só invalida após o commit para que nenhuma leitura concorrente recoloque o valor antigo.
+    public void evict(Collection<String> externalIds) {
+        if (externalIds.isEmpty()) {
+            return;
+        }
+        List<String> ids = new ArrayList<>(externalIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictAndBroadcast(ids);
+                }
+            });
+        } else {
+            evictAndBroadcast(ids);
+        }
+    }
+
+    // Toda alteração de pedido passa por aqui, inclusive as de outras instâncias (via broadcast), então é aqui que o
+    // pedido fica marcado para ser lido do primário.
+    public void evictLocally(Collection<String> externalIds) {
+        readYourWritesTracker.recordWrites(externalIds);
+        Cache cache = cacheManager.getCache(ORDERS_CACHE);
+        if (cache != null) {
+            externalIds.forEach(cache::evict);
+        }
+    }
+
+    private void evictAndBroadcast(List<String> externalIds) {
+        evictLocally(externalIds);
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.CACHE_INVALIDATION_EXCHANGE_NAME, "", externalIds);
+        } catch (AmqpException e) {
+            // As demais réplicas ficam limitadas ao TTL do cache.
+            log.warn("Could not broadcast cache invalidation for {} orders", externalIds.size(), e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.orders.amcom.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.orders.amcom.config.ReadOnlyTransactional;
+import com.orders.amcom.dto.OrderExportDto;
+import com.orders.amcom.enums.ExportFormat;
+import com.orders.amcom.enums.OrderStatus;
+import com.orders.amcom.model.Order;
+import com.orders.amcom.repository.OrderRepository;
+import com.orders.amcom.repository.OrderSpecifications;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+@Service
+@RequiredArgsConstructor
+public class OrderExportService {
+    private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${orders.export.fetch-size:500}")
+    private int fetchSize;
+
+    @ReadOnlyTransactional
+    public void export(OrderStatus status, LocalDate startDate, LocalDate endDate, ExportFormat format,
+                       OutputStream outputStream) throws IOException {
+        Specification<Order> specification = OrderSpecifications.withFilters(status, startDate, endDate);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+
+        switch (format) {
+            case CSV -> exportCsv(specification, writer);
+            case NDJSON -> exportNdjson(specification, writer);
+        }
+        writer.flush();
+    }
+
+    private void exportCsv(Specification<Order> specification, Writer writer) throws IOException {
+        writer.write(OrderExportDto.CSV_HEADER);
+        writer.write('\n');
+        orderRepository.streamAll(specification, fetchSize, order -> {
+            try {
+                writer.write(OrderExportDto.fromEntity(order).toCsvLine());
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void exportNdjson(Specification<Order> specification, Writer writer) throws IOException {
+        // Sem flush por linha e sem fechar o stream da resposta; o BufferedWriter controla as escritas.
+        try (SequenceWriter lines = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(writer)) {
+            orderRepository.streamAll(specification, fetchSize, order -> {
+                try {
+                    lines.write(OrderExportDto.fromEntity(order));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        writer.write('\n');
+    }
+}
@@ -0,0 +1,83 @@
+package com.orders.amcom.service;
+
+import com.orders.amcom.config.RabbitMQConfig;
+import com.orders.amcom.model.Order;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Com orders.partitions.count > 0 cada pedido vai para order-queue.N, N = hash(externalId) mod partições, e a ordem por
+// pedido se mantém porque cada partição tem um único consumidor ativo. O externalId é atribuído antes da publicação
+// (OrderService.processOrder); o messageId não serve de chave, porque cada publicação nova ganha um diferente.
+// A contagem precisa ser estável: mudá-la remapeia as chaves.
+@Component
+public class OrderPartitioner {
+    private final int partitions;
+    private final AtomicInteger roundRobin = new AtomicInteger();
+
+    public OrderPartitioner(@Value("${orders.partitions.count:0}") int partitions) {
+        if (partitions < 0) {
+            throw new IllegalArgumentException("orders.partitions.count must not be negative");
+        }
+        this.partitions = partitions;
+    }
+
+    public boolean isEnabled() {
+        return partitions > 0;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public String exchange() {
+        return isEnabled() ? RabbitMQConfig.PARTITION_EXCHANGE_NAME : RabbitMQConfig.EXCHANGE_NAME;
+    }
+
+    public String routingKey(Order order) {
+        return isEnabled() ? String.valueOf(partitionOf(order)) : RabbitMQConfig.ROUTING_KEY;
+    }
+
+    public int partitionOf(Order order) {
+        String key = order.getExternalId();
+        // Sem chave não há ordem a preservar; espalha entre as partições.
+        return key == null ? Math.floorMod(roundRobin.getAndIncrement(), partitions) : partition(key, partitions);
+    }
+
+    public static int partition(String key, int partitions) {
+        return Math.floorMod(key.hashCode(), partitions);
+    }
+
+    // Rendezvous hashing: cada partição fica com o membro de maior peso. Todos os membros chegam à mesma divisão
+    // a partir do mesmo conjunto, e a entrada ou saída de um membro só move as partições que eram (ou passam a ser) dele.
+    public static Set<Integer> assign(int partitions, Collection<String> members, String member) {
+        Set<Integer> assigned = new TreeSet<>();
+        for (int partition = 0; partition < partitions; partition++) {
+            String owner = null;
+            long ownerWeight = 0;
+            for (String candidate : members) {
+                long weight = weight(candidate, partition);
+                if (owner == null || weight > ownerWeight || (weight == ownerWeight && candidate.compareTo(owner) < 0)) {
+                    owner = candidate;
+                    ownerWeight = weight;
+                }
+            }
+            if (member.equals(owner)) {
+                assigned.add(partition);
+            }
+        }
+        return assigned;
+    }
+
+    private static long weight(String member, int partition) {
+        // Finalizador do SplitMix64: espalha bem mesmo com ids e partições sequenciais.
+        long z = member.hashCode() * 0x9E3779B97F4A7C15L + partition;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
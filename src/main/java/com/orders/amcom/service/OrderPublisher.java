@@ -0,0 +1,227 @@
+package com.orders.amcom.service;
+
+import com.orders.amcom.enums.PublisherMode;
+import com.orders.amcom.model.Order;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// No modo BATCHED os pedidos entram num buffer limitado; uma thread publica o que houver acumulado
+// (até batchSize) num mesmo canal e cada pedido é concluído quando o broker confirma (publisher confirms).
+@Slf4j
+@Service
+public class OrderPublisher {
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private final RabbitTemplate rabbitTemplate;
+    private final OrderPartitioner partitioner;
+    private final PublisherMode mode;
+    private final int batchSize;
+    private final Duration confirmTimeout;
+    private final BlockingQueue<PendingPublish> buffer;
+    private final AtomicInteger outstandingConfirms = new AtomicInteger();
+    private final DistributionSummary batchSizes;
+    private Thread flusher;
+
+    @Value("${orders.publisher.virtual-threads:${spring.threads.virtual.enabled:false}}")
+    private boolean virtualThreads;
+    private volatile boolean running = true;
+
+    public OrderPublisher(RabbitTemplate rabbitTemplate, OrderPartitioner partitioner, MeterRegistry meterRegistry,
+                          @Value("${orders.publisher.mode:SYNC}") PublisherMode mode,
+                          @Value("${orders.publisher.batch-size:100}") int batchSize,
+                          @Value("${orders.publisher.buffer-capacity:10000}") int bufferCapacity,
+                          @Value("${orders.publisher.confirm-timeout:10s}") Duration confirmTimeout) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.partitioner = partitioner;
+        this.mode = mode;
+        this.batchSize = batchSize;
+        this.confirmTimeout = confirmTimeout;
+        this.buffer = new LinkedBlockingQueue<>(bufferCapacity);
+
+        Gauge.builder("orders.publisher.buffer", buffer, BlockingQueue::size).register(meterRegistry);
+        Gauge.builder("orders.publisher.outstanding.confirms", outstandingConfirms, AtomicInteger::get).register(meterRegistry);
+        this.batchSizes = meterRegistry.summary("orders.publisher.batch.size");
+    }
+
+    @PostConstruct
+    public void start() {
+        if (mode == PublisherMode.BATCHED) {
+            flusher = flusherThread();
+            flusher.start();
+        }
+    }
+
+    // Mesma regra do OrderQueueService: virtual thread quando a chave está ligada e o Java suporta.
+    private Thread flusherThread() {
+        if (virtualThreads) {
+            try {
+                return new VirtualThreadTaskExecutor("order-publisher-").getVirtualThreadFactory().newThread(this::flushLoop);
+            } catch (UnsupportedOperationException e) {
+                log.warn("Virtual threads require Java 21+, using a platform thread for the order publisher");
+            }
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("order-publisher-");
+        threadFactory.setDaemon(true);
+        return threadFactory.newThread(this::flushLoop);
+    }
+
+    public CompletableFuture<Void> publish(Order order) {
+        assignMessageId(order);
+        if (mode == PublisherMode.SYNC) {
+            rabbitTemplate.convertAndSend(partitioner.exchange(), partitioner.routingKey(order), order, withMessageId(order));
+            return CompletableFuture.completedFuture(null);
+        }
+        PendingPublish pending = new PendingPublish(order, new CompletableFuture<>());
+        try {
+            // Buffer cheio bloqueia o chamador (backpressure até o broker confirmar o que já foi enviado), mas em
+            // fatias, para perceber o shutdown.
+            while (!buffer.offer(pending, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                if (!running) {
+                    return shuttingDown();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+        // Entrou depois do shutdown: se ninguém o pegou ainda, o flusher pode já ter saído e o pedido ficaria órfão.
+        if (!running && buffer.remove(pending)) {
+            return shuttingDown();
+        }
+        return pending.result();
+    }
+
+    private static CompletableFuture<Void> shuttingDown() {
+        return CompletableFuture.failedFuture(new RejectedExecutionException("Order publisher is shutting down"));
+    }
+
+    public int getOutstandingConfirms() {
+        return outstandingConfirms.get();
+    }
+
+    private void flushLoop() {
+        List<PendingPublish> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                PendingPublish first = buffer.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Unexpected error while publishing a batch of {} orders", batch.size(), e);
+                batch.forEach(pending -> pending.result().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingPublish> batch) {
+        batchSizes.record(batch.size());
+        try {
+            rabbitTemplate.invoke(operations -> {
+                for (PendingPublish pending : batch) {
+                    CorrelationData correlationData = new CorrelationData();
+                    track(correlationData, pending);
+                    operations.convertAndSend(partitioner.exchange(), partitioner.routingKey(pending.order()),
+                            pending.order(), withMessageId(pending.order()), correlationData);
+                }
+                return null;
+            });
+        } catch (AmqpException e) {
+            log.warn("Failed to publish a batch of {} orders", batch.size(), e);
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+        }
+    }
+
+    // O messageId fica no próprio pedido: republicar o mesmo pedido repete o id e o listener descarta a cópia.
+    private static void assignMessageId(Order order) {
+        if (order.getMessageId() == null) {
+            order.setMessageId(UUID.randomUUID().toString());
+        }
+    }
+
+    private static MessagePostProcessor withMessageId(Order order) {
+        String messageId = order.getMessageId();
+        return message -> {
+            message.getMessageProperties().setMessageId(messageId);
+            return message;
+        };
+    }
+
+    private void track(CorrelationData correlationData, PendingPublish pending) {
+        outstandingConfirms.incrementAndGet();
+        correlationData.getFuture()
+                .orTimeout(confirmTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((confirm, error) -> {
+                    outstandingConfirms.decrementAndGet();
+                    if (error != null) {
+                        pending.result().completeExceptionally(error);
+                    } else if (confirm.isAck()) {
+                        pending.result().complete(null);
+                    } else {
+                        pending.result().completeExceptionally(
+                                new AmqpException("Broker did not confirm order: " + confirm.getReason()));
+                    }
+                });
+    }
+
+    // Publica o que restou no buffer e espera as confirmações pendentes antes de fechar a conexão.
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (mode != PublisherMode.BATCHED) {
+            return;
+        }
+        if (flusher != null) {
+            flusher.join(confirmTimeout.toMillis());
+        }
+        // O que o flusher não chegou a publicar falha em vez de ficar esperando para sempre.
+        List<PendingPublish> leftover = new ArrayList<>();
+        buffer.drainTo(leftover);
+        if (!leftover.isEmpty()) {
+            log.warn("{} buffered order publishes were not sent before shutdown", leftover.size());
+            RejectedExecutionException error = new RejectedExecutionException("Order publisher shut down before publishing");
+            leftover.forEach(pending -> pending.result().completeExceptionally(error));
+        }
+        long deadline = System.nanoTime() + confirmTimeout.toNanos();
+        while (outstandingConfirms.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        if (outstandingConfirms.get() > 0) {
+            log.warn("{} order publishes were still unconfirmed at shutdown", outstandingConfirms.get());
+        }
+    }
+
+    private record PendingPublish(Order order, CompletableFuture<Void> result) {
+    }
+}
@@ -1,36 +1,144 @@
 package com.orders.amcom.service;
 
+import com.orders.amcom.enums.BackpressurePolicy;
 import com.orders.amcom.model.Order;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @Component
 public class OrderQueueService {
-    private final BlockingQueue<Order> orderQueue = new LinkedBlockingQueue<>();
+    private static final String THREAD_NAME_PREFIX = "order-queue-";
+    private static final long OFFER_INTERVAL_MS = 100;
+
     private final OrderService orderService;
+    private final ThreadPoolExecutor executor;
+    private final Duration shutdownTimeout;
+    private final Timer waitTimer;
+    private final Timer processingTimer;
+    private final Counter failures;
+    private final Counter rejections;
 
-    public OrderQueueService(OrderService orderService) {
+    public OrderQueueService(OrderService orderService, MeterRegistry meterRegistry,
+                             @Value("${orders.queue.capacity:10000}") int capacity,
+                             @Value("${orders.queue.workers:4}") int workers,
+                             @Value("${orders.queue.backpressure:BLOCK}") BackpressurePolicy backpressure,
+                             @Value("${orders.queue.virtual-threads:${spring.threads.virtual.enabled:false}}") boolean virtualThreads,
+                             @Value("${orders.queue.shutdown-timeout:30s}") Duration shutdownTimeout) {
         this.orderService = orderService;
-        startWorker();
+        this.shutdownTimeout = shutdownTimeout;
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity), threadFactory(virtualThreads), rejectionHandler(backpressure));
+
+        Gauge.builder("orders.queue.depth", executor, pool -> pool.getQueue().size()).register(meterRegistry);
+        Gauge.builder("orders.queue.active.workers", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+        this.waitTimer = meterRegistry.timer("orders.queue.wait");
+        this.processingTimer = meterRegistry.timer("orders.queue.processing");
+        this.failures = meterRegistry.counter("orders.queue.failures");
+        this.rejections = meterRegistry.counter("orders.queue.rejections");
     }
 
     public void addToQueue(Order order) {
-        orderQueue.add(order); // Adiciona o pedido à fila
+        long enqueuedAt = System.nanoTime();
+        executor.execute(() -> process(order, enqueuedAt));
     }
 
-    private void startWorker() {
-        new Thread(() -> {
-            while (true) {
-                try {
-                    Order order = orderQueue.take(); // Remove o pedido da fila para processamento
-                    orderService.processOrder(order);
-                } catch (Exception e) {
-                    e.printStackTrace(); // Log de erros
+    private void process(Order order, long enqueuedAt) {
+        long startedAt = System.nanoTime();
+        waitTimer.record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+        try {
+            // O worker não espera a confirmação do broker; o tempo de processamento fecha quando ela chega.
+            orderService.processOrder(order).whenComplete((result, error) -> {
+                if (error != null) {
+                    recordFailure(order, error);
                 }
+                processingTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            });
+        } catch (Exception e) {
+            recordFailure(order, e);
+            processingTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void recordFailure(Order order, Throwable error) {
+        failures.increment();
+        log.error("Failed to process queued order {}", order.getExternalId(), error);
+    }
+
+    // Para de aceitar pedidos e espera os workers esvaziarem a fila antes de o contexto fechar.
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            int dropped = executor.shutdownNow().size();
+            log.warn("Order queue did not drain within {}; {} queued orders were dropped", shutdownTimeout, dropped);
+        }
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    private ThreadFactory threadFactory(boolean virtualThreads) {
+        if (virtualThreads) {
+            try {
+                return new VirtualThreadTaskExecutor(THREAD_NAME_PREFIX).getVirtualThreadFactory();
+            } catch (UnsupportedOperationException e) {
+                log.warn("Virtual threads require Java 21+, using platform threads for the order queue");
             }
-        }).start();
+        }
+        return new CustomizableThreadFactory(THREAD_NAME_PREFIX);
     }
-}
 
+    private RejectedExecutionHandler rejectionHandler(BackpressurePolicy backpressure) {
+        return switch (backpressure) {
+            case BLOCK -> (task, pool) -> {
+                try {
+                    // Espera vaga em fatias para perceber o shutdown: um put() bloqueado não acordaria com ele.
+                    while (!pool.getQueue().offer(task, OFFER_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                        if (pool.isShutdown()) {
+                            rejections.increment();
+                            throw new RejectedExecutionException("Order queue is shutting down");
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    rejections.increment();
+                    throw new RejectedExecutionException("Interrupted while waiting for order queue capacity", e);
+                }
+                // Entrou na fila depois do shutdown: os workers podem já ter saído, então o pedido ficaria órfão.
+                if (pool.isShutdown() && pool.remove(task)) {
+                    rejections.increment();
+                    throw new RejectedExecutionException("Order queue is shutting down");
+                }
+            };
+            case REJECT -> (task, pool) -> {
+                rejections.increment();
+                throw new RejectedExecutionException("Order queue is full");
+            };
+            case CALLER_RUNS -> (task, pool) -> {
+                if (pool.isShutdown()) {
+                    rejections.increment();
+                    throw new RejectedExecutionException("Order queue is shutting down");
+                }
+                task.run();
+            };
+        };
+    }
+}
@@ -1,26 +1,44 @@
 package com.orders.amcom.service;
 
-import com.orders.amcom.config.RabbitMQConfig;
+import com.orders.amcom.config.CacheConfig;
+import com.orders.amcom.config.ReadOnlyTransactional;
+import com.orders.amcom.config.ReplicaRoutingDataSource;
+import com.orders.amcom.dto.CursorPage;
+import com.orders.amcom.dto.OrderCursor;
 import com.orders.amcom.dto.OrderDto;
+import com.orders.amcom.dto.OrderStatusView;
+import com.orders.amcom.enums.BulkUpdateOutcome;
 import com.orders.amcom.enums.OrderStatus;
+import com.orders.amcom.exception.OrderConflictException;
 import com.orders.amcom.exception.OrderException;
+import com.orders.amcom.exception.OrderNotFoundException;
+import com.orders.amcom.model.Money;
 import com.orders.amcom.model.Order;
 import com.orders.amcom.model.Product;
 import com.orders.amcom.repository.OrderRepository;
+import com.orders.amcom.repository.OrderSpecifications;
 import com.orders.amcom.repository.ProductRepository;
-import jakarta.persistence.criteria.Predicate;
+import io.micrometer.core.annotation.Counted;
+import io.micrometer.core.annotation.Timed;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.LocalTime;
-import java.util.ArrayList;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 
 @Service
@@ -30,83 +48,202 @@ public class OrderService {
     public static final String THE_ORDER_MUST_CONTAIN_AT_LEAST_ONE_PRODUCT = "The order must contain at least one product.";
     public static final String ONLY_PENDING_ORDERS_CAN_BE_MARKED_AS_COMPLETED = "Only PENDING orders can be marked as COMPLETED.";
     public static final String ORDER_NOT_FOUND = "Order not found: %s";
+    public static final String ORDER_MODIFIED_CONCURRENTLY = "Order %s was modified concurrently; expected version %s.";
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
-    private final RabbitTemplate rabbitTemplate;
-
-    public BigDecimal calculateOrderTotal(Order order) {
-        return order.getProducts().stream()
-                .map(product -> product.getPrice().multiply(BigDecimal.valueOf(product.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private final OrderPublisher orderPublisher;
+    private final OrderCacheService orderCacheService;
+    private final ExternalIdGenerator externalIdGenerator;
+    private final OrderStatsService orderStatsService;
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    public Money calculateOrderTotal(Order order) {
+        Money.Sum total = new Money.Sum();
+        for (Product product : order.getProducts()) {
+            total.add(product.getPrice(), product.getQuantity());
+        }
+        return total.toMoney();
     }
 
     private String generateExternalId() {
-        return "ORD-" + System.currentTimeMillis();
+        return externalIdGenerator.nextId();
     }
 
-    public Order createOrder(Order order) {
+    public void validateOrder(Order order) {
         if (order.getProducts() == null || order.getProducts().isEmpty()) {
             throw new IllegalArgumentException(THE_ORDER_MUST_CONTAIN_AT_LEAST_ONE_PRODUCT);
         }
+    }
+
+    @Timed(value = "orders.create", description = "Single order validation and insert")
+    @Counted(value = "orders.failures", recordFailuresOnly = true)
+    public Order createOrder(Order order) {
+        prepareOrder(order);
+
+        Order savedOrder = orderRepository.save(order);
+        orderStatsService.recordCreated(savedOrder);
+
+        return savedOrder;
+    }
+
+    @Timed(value = "orders.create.batch", description = "Batch order insert")
+    @Counted(value = "orders.failures", recordFailuresOnly = true)
+    @Transactional
+    public List<Order> createOrders(List<Order> orders) {
+        orders.forEach(this::prepareOrder);
+        return savePreparedOrders(orders);
+    }
+
+    // Grava numa única transação pedidos que já passaram por prepareOrder (externalId e total definidos).
+    @Timed(value = "orders.create.prepared", description = "Insert of already prepared orders")
+    @Counted(value = "orders.failures", recordFailuresOnly = true)
+    @Transactional
+    public List<Order> savePreparedOrders(List<Order> orders) {
+        List<Order> savedOrders = orderRepository.saveAll(orders);
+        orderStatsService.recordCreated(savedOrders);
+        return savedOrders;
+    }
+
+    public void prepareOrder(Order order) {
+        validateOrder(order);
 
-        BigDecimal totalAmount = calculateOrderTotal(order);
+        Money totalAmount = calculateOrderTotal(order);
         order.setTotalAmount(totalAmount);
 
         List<Product> products = order.getProducts();
         products.forEach(product -> product.setOrder(order));
 
         order.setStatus(OrderStatus.PENDING);
-        order.setExternalId(generateExternalId());
-
-        Order savedOrder = orderRepository.save(order);
-
-        return savedOrder;
+        // Pedidos vindos da fila já trazem o externalId atribuído antes da publicação, que também é a chave de partição.
+        if (order.getExternalId() == null) {
+            order.setExternalId(generateExternalId());
+        }
     }
 
+    @Timed(value = "orders.status.update", description = "Conditional status update of a single order")
+    @Counted(value = "orders.failures", recordFailuresOnly = true)
     @Transactional
     public Order updateOrderStatus(String externalId, OrderDto dto) {
-        Order order = orderRepository.findOrderByIdAndExternalId(dto.getId(), externalId)
-                .orElseThrow(() -> new OrderException(String.format(ORDER_NOT_FOUND, dto.getId())));
+        validateStatusTransition(dto.getStatus());
+
+        // A versão é opcional: se o cliente informar, a atualização só vale sobre aquela versão.
+        Order order = orderRepository.updatePendingStatusReturning(dto.getId(), externalId, dto.getStatus(), dto.getVersion(),
+                        LocalDateTime.now())
+                .orElseThrow(() -> statusUpdateFailure(externalId, dto));
 
-        if (!order.getStatus().equals(OrderStatus.PENDING) && dto.getStatus().equals(OrderStatus.COMPLETED)) {
-            throw new OrderException(ONLY_PENDING_ORDERS_CAN_BE_MARKED_AS_COMPLETED);
+        orderCacheService.evict(List.of(externalId));
+        orderStatsService.recordTransition(order.getCreatedAt().toLocalDate(), OrderStatus.PENDING, order.getStatus(), order.getTotalAmount());
+        return order;
+    }
+
+    // Só roda quando o UPDATE não encontrou a linha, para dizer ao cliente o motivo.
+    private OrderException statusUpdateFailure(String externalId, OrderDto dto) {
+        Order order = orderRepository.findOrderByIdAndExternalId(dto.getId(), externalId).orElse(null);
+        if (order == null) {
+            return new OrderException(String.format(ORDER_NOT_FOUND, dto.getId()));
         }
+        if (!order.getStatus().equals(OrderStatus.PENDING)) {
+            return new OrderConflictException(ONLY_PENDING_ORDERS_CAN_BE_MARKED_AS_COMPLETED);
+        }
+        return new OrderConflictException(String.format(ORDER_MODIFIED_CONCURRENTLY, externalId, dto.getVersion()));
+    }
 
-        if (dto.getStatus().equals(OrderStatus.PENDING)) {
+    public void validateStatusTransition(OrderStatus status) {
+        if (status == null || status.equals(OrderStatus.PENDING)) {
             throw new OrderException(IT_IS_NOT_POSSIBLE_TO_CHANGE_TO_PENDING);
         }
+    }
+
+    // Um UPDATE para o lote inteiro; o resultado por pedido sai de uma projeção, sem carregar entidades.
+    @Transactional
+    public Map<String, BulkUpdateOutcome> updateOrderStatuses(Collection<String> externalIds, OrderStatus status) {
+        validateStatusTransition(status);
+
+        // Marca o lote: quem sair do UPDATE com este updatedAt foi alterado por esta chamada.
+        LocalDateTime updatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        orderRepository.updatePendingStatuses(externalIds, status, updatedAt);
+
+        Map<String, OrderStatusView> views = orderRepository.findStatusViews(externalIds).stream()
+                .collect(Collectors.toMap(OrderStatusView::externalId, Function.identity()));
+
+        Map<String, BulkUpdateOutcome> outcomes = new LinkedHashMap<>();
+        for (String externalId : externalIds) {
+            OrderStatusView view = views.get(externalId);
+            if (view == null) {
+                outcomes.put(externalId, BulkUpdateOutcome.NOT_FOUND);
+            } else if (view.status() == status && updatedAt.equals(view.updatedAt())) {
+                outcomes.put(externalId, BulkUpdateOutcome.UPDATED);
+                orderStatsService.recordTransition(view.createdAt().toLocalDate(), OrderStatus.PENDING, status, view.totalAmount());
+            } else {
+                outcomes.put(externalId, BulkUpdateOutcome.INVALID_TRANSITION);
+            }
+        }
 
-        order.setStatus(dto.getStatus());
-        orderRepository.save(order);
-        return order;
+        List<String> updated = outcomes.entrySet().stream()
+                .filter(entry -> entry.getValue() == BulkUpdateOutcome.UPDATED)
+                .map(Map.Entry::getKey)
+                .toList();
+        if (!updated.isEmpty()) {
+            orderCacheService.evict(updated);
+        }
+        return outcomes;
     }
 
+    // Logo depois de uma alteração a réplica pode estar atrasada; o valor lido também vai para o cache.
+    @Cacheable(cacheNames = CacheConfig.ORDERS_CACHE, key = "#externalId")
+    @ReadOnlyTransactional
+    public OrderDto getOrderByExternalId(String externalId) {
+        Supplier<OrderDto> read = () -> orderRepository.findByExternalId(externalId)
+                .map(OrderDto::fromEntity)
+                .orElseThrow(() -> new OrderNotFoundException(String.format(ORDER_NOT_FOUND, externalId)));
+        return readYourWritesTracker.recentlyWritten(externalId) ? ReplicaRoutingDataSource.onPrimary(read) : read.get();
+    }
+
+    @Timed(value = "orders.query", description = "Offset-paginated order query")
+    @Counted(value = "orders.failures", recordFailuresOnly = true)
+    @ReadOnlyTransactional
     public Page<Order> getAllOrders(OrderStatus status, LocalDate startDate, LocalDate endDate, Pageable pageable) {
-        return orderRepository.findAll((root, query, criteriaBuilder) -> {
-            List<Predicate> predicates = new ArrayList<>();
+        Page<Order> orders = orderRepository.findAll(OrderSpecifications.withFilters(status, startDate, endDate), pageable);
+        if (orders != null) {
+            fetchProducts(orders.getContent());
+        }
+        return orders;
+    }
 
-            if (status != null) {
-                predicates.add(criteriaBuilder.equal(root.get("status"), status));
-            }
+    @ReadOnlyTransactional
+    public CursorPage<Order> getOrdersByCursor(OrderStatus status, LocalDate startDate, LocalDate endDate, String cursor, int size) {
+        Specification<Order> specification = OrderSpecifications.withFilters(status, startDate, endDate);
+        OrderCursor after = OrderCursor.decode(cursor);
+        if (after != null) {
+            specification = specification.and(OrderSpecifications.after(after.getCreatedAt(), after.getId()));
+        }
 
-            if (startDate != null) {
-                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("createdAt"), startDate.atStartOfDay()));
-            }
+        // Busca um registro a mais só para saber se existe próxima página, sem query de count.
+        List<Order> orders = orderRepository.findBy(specification,
+                query -> query.sortBy(OrderSpecifications.KEYSET_SORT).limit(size + 1).all());
 
-            if (endDate != null) {
-                predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("createdAt"), endDate.atTime(LocalTime.MAX)));
-            }
+        boolean hasNext = orders.size() > size;
+        List<Order> content = hasNext ? orders.subList(0, size) : orders;
+        fetchProducts(content);
+        String nextCursor = hasNext ? OrderCursor.of(content.get(content.size() - 1)).encode() : null;
+        return new CursorPage<>(content, size, hasNext, nextCursor);
+    }
 
-            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
-        }, pageable);
+    // Inicializa os produtos da página inteira em uma única query, evitando um SELECT por pedido.
+    private void fetchProducts(List<Order> orders) {
+        if (!orders.isEmpty()) {
+            orderRepository.fetchProducts(orders);
+        }
     }
 
-    public void processOrder(Order order) {
-        rabbitTemplate.convertAndSend(
-                RabbitMQConfig.EXCHANGE_NAME,
-                RabbitMQConfig.ROUTING_KEY,
-                order
-        );
+    @Timed(value = "orders.publish", description = "Order publish until broker confirmation")
+    @Counted(value = "orders.failures", recordFailuresOnly = true)
+    public CompletableFuture<Void> processOrder(Order order) {
+        // O externalId sai antes da publicação: é a chave de partição, e as mensagens do mesmo pedido caem na mesma fila.
+        if (order.getExternalId() == null) {
+            order.setExternalId(generateExternalId());
+        }
+        return orderPublisher.publish(order);
     }
 
 }
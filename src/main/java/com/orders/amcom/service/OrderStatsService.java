@@ -0,0 +1,522 @@
+package com.orders.amcom.service;
+
+import com.orders.amcom.config.SchedulingConfig;
+import com.orders.amcom.dto.OrderDailyStatsDto;
+import com.orders.amcom.dto.OrderStatsDto;
+import com.orders.amcom.enums.OrderStatus;
+import com.orders.amcom.model.Money;
+import com.orders.amcom.model.Order;
+import com.orders.amcom.model.OrderDailyStats;
+import com.orders.amcom.model.OrderDailyStatsId;
+import com.orders.amcom.model.OrderStatsWatermark;
+import com.orders.amcom.repository.OrderDailyStatsRepository;
+import com.orders.amcom.repository.OrderStatsWatermarkRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Contadores por dia de criação e status. As escritas só somam em LongAdders (sem lock no caminho do pedido);
+// um job periódico grava os deltas na tabela order_daily_stats e recarrega os totais consolidados de todas as réplicas.
+// Além dos dias, cada status tem um total corrente, e a consulta sem período não percorre os dias.
+@Slf4j
+@Service
+public class OrderStatsService {
+    static final String REBUILD_LEASE = "order-stats-rebuild";
+    private static final long NO_WATERMARK = Long.MAX_VALUE;
+
+    private final OrderDailyStatsRepository statsRepository;
+    private final OrderStatsWatermarkRepository watermarkRepository;
+    private final OrderArchiveService orderArchiveService;
+    private final LeaseService leaseService;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskScheduler maintenanceScheduler;
+    private final Duration watermarkDelay;
+    private final Duration rebuildTimeout;
+    // Preenchidos no construtor para todos os status e só lidos depois.
+    private final Map<OrderStatus, NavigableMap<LocalDate, Accumulator>> accumulators = new EnumMap<>(OrderStatus.class);
+    private final Map<OrderStatus, Total> totals = new EnumMap<>(OrderStatus.class);
+    // Lock em vez de synchronized: flush e rebuild fazem I/O no banco, e um monitor segurado durante o JDBC
+    // prende a carrier thread quando o agendador roda em virtual threads.
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // Reconstrução acompanhada por esta réplica: a partir de rotateAt (epoch ms) os deltas ficam retidos.
+    private volatile long rotateAt = NO_WATERMARK;
+    private Instant trackedWatermark;
+    private Instant seenWatermark;
+    // Snapshot agendado por esta réplica e ainda não executado; cancelado no desligamento para liberar a lease.
+    private PendingRebuild pendingRebuild;
+
+    public OrderStatsService(OrderDailyStatsRepository statsRepository, OrderStatsWatermarkRepository watermarkRepository,
+                             OrderArchiveService orderArchiveService, LeaseService leaseService,
+                             TransactionTemplate transactionTemplate,
+                             @Qualifier(SchedulingConfig.MAINTENANCE_SCHEDULER) TaskScheduler maintenanceScheduler,
+                             @Value("${orders.stats.watermark-delay:15s}") Duration watermarkDelay,
+                             @Value("${orders.stats.rebuild-timeout:30m}") Duration rebuildTimeout) {
+        this.statsRepository = statsRepository;
+        this.watermarkRepository = watermarkRepository;
+        this.orderArchiveService = orderArchiveService;
+        this.leaseService = leaseService;
+        this.transactionTemplate = transactionTemplate;
+        this.maintenanceScheduler = maintenanceScheduler;
+        this.watermarkDelay = watermarkDelay;
+        this.rebuildTimeout = rebuildTimeout;
+        for (OrderStatus status : OrderStatus.values()) {
+            accumulators.put(status, new ConcurrentSkipListMap<>());
+            totals.put(status, new Total());
+        }
+    }
+
+    @PostConstruct
+    public void load() {
+        writeLock.lock();
+        try {
+            syncWatermark();
+            refresh();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void recordCreated(Order order) {
+        record(held -> add(day(order), OrderStatus.PENDING, 1, cents(order.getTotalAmount()), held));
+    }
+
+    public void recordCreated(List<Order> orders) {
+        record(held -> orders.forEach(order -> add(day(order), OrderStatus.PENDING, 1, cents(order.getTotalAmount()), held)));
+    }
+
+    public void recordTransition(LocalDate day, OrderStatus from, OrderStatus to, Money amount) {
+        long cents = cents(amount);
+        record(held -> {
+            add(day, from, -1, -cents, held);
+            add(day, to, 1, cents, held);
+        });
+    }
+
+    public OrderStatsDto getStats(OrderStatus status, LocalDate startDate, LocalDate endDate) {
+        List<OrderStatus> statuses = status == null ? List.of(OrderStatus.values()) : List.of(status);
+        if (startDate == null && endDate == null) {
+            // Sem período só os totais por status: custo constante, sem a lista de dias.
+            long orderCount = statuses.stream().mapToLong(each -> totals.get(each).count()).sum();
+            long cents = statuses.stream().mapToLong(each -> totals.get(each).cents()).sum();
+            return new OrderStatsDto(List.of(), orderCount, BigDecimal.valueOf(cents, Money.SCALE));
+        }
+        List<OrderDailyStatsDto> days = statuses.stream()
+                .flatMap(each -> between(accumulators.get(each), startDate, endDate).entrySet().stream()
+                        .map(entry -> entry.getValue().toDto(entry.getKey(), each)))
+                .filter(dto -> dto.getOrderCount() != 0)
+                .sorted(Comparator.comparing(OrderDailyStatsDto::getDate).thenComparing(OrderDailyStatsDto::getStatus))
+                .toList();
+
+        long orderCount = days.stream().mapToLong(OrderDailyStatsDto::getOrderCount).sum();
+        BigDecimal totalAmount = days.stream().map(OrderDailyStatsDto::getTotalAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+        return new OrderStatsDto(days, orderCount, totalAmount);
+    }
+
+    private static NavigableMap<LocalDate, Accumulator> between(NavigableMap<LocalDate, Accumulator> days,
+                                                                LocalDate startDate, LocalDate endDate) {
+        if (startDate == null) {
+            return days.headMap(endDate, true);
+        }
+        if (endDate == null) {
+            return days.tailMap(startDate, true);
+        }
+        return startDate.isAfter(endDate) ? new ConcurrentSkipListMap<>() : days.subMap(startDate, true, endDate, true);
+    }
+
+    @Scheduled(fixedDelayString = "${orders.stats.flush-interval:5s}", initialDelayString = "${orders.stats.flush-interval:5s}")
+    public void flush() {
+        writeLock.lock();
+        try {
+            // Durante uma reconstrução nada é gravado: os deltas anteriores à marca já estão no snapshot e um
+            // incremento commitado depois dele contaria duas vezes.
+            if (syncWatermark()) {
+                return;
+            }
+            forEachAccumulator((key, accumulator) -> {
+                Total total = totals.get(key.getStatus());
+                // Retidos de uma reconstrução já encerrada (inclusive os que chegaram durante a troca).
+                accumulator.pendingCount.add(accumulator.heldCount.sumThenReset());
+                accumulator.pendingCents.add(accumulator.heldCents.sumThenReset());
+                long count = accumulator.pendingCount.sumThenReset();
+                long cents = accumulator.pendingCents.sumThenReset();
+                if (count == 0 && cents == 0) {
+                    return;
+                }
+                // Até o próximo refresh o delta já conta como persistido, para a leitura não oscilar.
+                accumulator.persistedCount += count;
+                accumulator.persistedCents += cents;
+                total.persist(count, cents);
+                try {
+                    write(key, count, BigDecimal.valueOf(cents, Money.SCALE));
+                } catch (DataAccessException e) {
+                    log.warn("Could not flush order stats for {} {}, keeping delta for next run", key.getOrderDate(), key.getStatus(), e);
+                    accumulator.persistedCount -= count;
+                    accumulator.persistedCents -= cents;
+                    accumulator.pendingCount.add(count);
+                    accumulator.pendingCents.add(cents);
+                    total.persist(-count, -cents);
+                }
+            });
+            refresh();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Reconciliação: recalcula tudo a partir da tabela orders e do arquivo e substitui o resumo. Roda numa réplica só
+    // (lease). O snapshot é tirado na marca d'água anunciada watermark-delay antes: cada réplica descarta os deltas
+    // registrados antes dela (o snapshot já os contém) e retém os posteriores até a troca, gravando-os em seguida.
+    // Não bloqueia quem chama: o snapshot é agendado para a marca no agendador de manutenção, e o future completa com
+    // true quando a troca foi aplicada ou false quando a reconstrução foi pulada ou substituída.
+    public CompletableFuture<Boolean> rebuild() {
+        if (!leaseService.tryAcquireExclusive(REBUILD_LEASE, rebuildTimeout)) {
+            log.info("Order stats rebuild or archiving is already running, skipping");
+            return CompletableFuture.completedFuture(false);
+        }
+        Instant watermark = Instant.now().plus(watermarkDelay).truncatedTo(ChronoUnit.MILLIS);
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        try {
+            announce(watermark);
+            writeLock.lock();
+            try {
+                pendingRebuild = new PendingRebuild(watermark, result,
+                        maintenanceScheduler.schedule(() -> completeRebuild(watermark, result), watermark));
+            } finally {
+                writeLock.unlock();
+            }
+        } catch (RuntimeException e) {
+            cancel(watermark);
+            leaseService.release(REBUILD_LEASE);
+            throw e;
+        }
+        return result;
+    }
+
+    @Scheduled(cron = "${orders.stats.rebuild-cron:0 0 3 * * *}", scheduler = SchedulingConfig.MAINTENANCE_SCHEDULER)
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    private void completeRebuild(Instant watermark, CompletableFuture<Boolean> result) {
+        writeLock.lock();
+        try {
+            pendingRebuild = null;
+        } finally {
+            writeLock.unlock();
+        }
+        boolean replaced;
+        try {
+            replaced = replaceWithSnapshot(watermark);
+            if (replaced) {
+                // Aplica a troca aqui também: descarta os deltas anteriores à marca e grava os retidos.
+                flush();
+            } else {
+                log.warn("Order stats rebuild at {} was superseded or abandoned", watermark);
+            }
+        } catch (RuntimeException e) {
+            log.error("Order stats rebuild at {} failed", watermark, e);
+            cancel(watermark);
+            try {
+                leaseService.release(REBUILD_LEASE);
+            } finally {
+                result.completeExceptionally(e);
+            }
+            return;
+        }
+        // Libera antes de completar: quem espera o future já encontra a lease livre.
+        try {
+            leaseService.release(REBUILD_LEASE);
+        } finally {
+            result.complete(replaced);
+        }
+    }
+
+    private void announce(Instant watermark) {
+        watermarkRepository.save(new OrderStatsWatermark(watermark));
+        writeLock.lock();
+        try {
+            track(watermark);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private boolean replaceWithSnapshot(Instant watermark) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            OrderStatsWatermark marker = watermarkRepository.lockById(OrderStatsWatermark.ID).orElse(null);
+            if (marker == null || !watermark.equals(marker.getWatermark())) {
+                return false;
+            }
+            List<OrderDailyStats> rebuilt = merge(statsRepository.aggregateFromOrders(), orderArchiveService.aggregateArchived());
+            statsRepository.deleteAllInBatch();
+            statsRepository.saveAll(rebuilt);
+            marker.setRebuilt(true);
+            log.info("Rebuilt order stats at {}: {} day/status rows", watermark, rebuilt.size());
+            return true;
+        }));
+    }
+
+    private void cancel(Instant watermark) {
+        try {
+            watermarkRepository.cancel(watermark);
+        } catch (DataAccessException e) {
+            // As outras réplicas desistem sozinhas depois de rebuild-timeout.
+            log.warn("Could not cancel order stats rebuild at {}", watermark, e);
+        }
+        writeLock.lock();
+        try {
+            if (watermark.equals(trackedWatermark)) {
+                untrack(watermark);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Lê a marca d'água e ajusta os deltas desta réplica; devolve true enquanto uma reconstrução estiver em andamento.
+    private boolean syncWatermark() {
+        OrderStatsWatermark marker;
+        try {
+            marker = watermarkRepository.findById(OrderStatsWatermark.ID).orElse(null);
+        } catch (DataAccessException e) {
+            log.warn("Could not read order stats watermark", e);
+            return trackedWatermark != null;
+        }
+        Instant watermark = marker == null ? null : marker.getWatermark();
+        if (trackedWatermark != null && !trackedWatermark.equals(watermark)) {
+            // Reconstrução cancelada ou substituída: os retidos voltam ao fluxo normal.
+            untrack(trackedWatermark);
+        }
+        if (marker == null || watermark.equals(seenWatermark)) {
+            return false;
+        }
+        if (marker.isRebuilt()) {
+            if (watermark.equals(trackedWatermark)) {
+                forEachAccumulator((key, accumulator) -> totals.get(key.getStatus()).discard(
+                        accumulator.pendingCount.sumThenReset(), accumulator.pendingCents.sumThenReset()));
+            } else if (seenWatermark != null || trackedWatermark != null) {
+                log.warn("Order stats were rebuilt at {} without this instance holding back its deltas; "
+                        + "unflushed deltas may be counted twice", watermark);
+            }
+            untrack(watermark);
+            return false;
+        }
+        if (Instant.now().isAfter(watermark.plus(rebuildTimeout))) {
+            log.warn("Order stats rebuild at {} did not finish within {}, resuming flushes", watermark, rebuildTimeout);
+            untrack(watermark);
+            return false;
+        }
+        track(watermark);
+        return true;
+    }
+
+    private void track(Instant watermark) {
+        trackedWatermark = watermark;
+        rotateAt = watermark.toEpochMilli();
+    }
+
+    private void untrack(Instant watermark) {
+        rotateAt = NO_WATERMARK;
+        trackedWatermark = null;
+        seenWatermark = watermark;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        PendingRebuild pending;
+        writeLock.lock();
+        try {
+            pending = pendingRebuild;
+            pendingRebuild = null;
+        } finally {
+            writeLock.unlock();
+        }
+        // Um snapshot que ainda não começou não vai rodar: libera a marca e a lease para outra réplica.
+        if (pending != null && pending.snapshot().cancel(false)) {
+            cancel(pending.watermark());
+            leaseService.release(REBUILD_LEASE);
+            pending.result().complete(false);
+        }
+        flush();
+    }
+
+    private void write(OrderDailyStatsId key, long count, BigDecimal amount) {
+        if (statsRepository.increment(key.getOrderDate(), key.getStatus(), count, amount) > 0) {
+            return;
+        }
+        try {
+            statsRepository.saveAndFlush(new OrderDailyStats(key.getOrderDate(), key.getStatus(), count, amount));
+        } catch (DataIntegrityViolationException e) {
+            // Outra réplica criou a linha primeiro.
+            statsRepository.increment(key.getOrderDate(), key.getStatus(), count, amount);
+        }
+    }
+
+    private static List<OrderDailyStats> merge(List<OrderDailyStats> live, List<OrderDailyStats> archived) {
+        if (archived.isEmpty()) {
+            return live;
+        }
+        Map<OrderDailyStatsId, OrderDailyStats> byKey = new HashMap<>();
+        Stream.concat(live.stream(), archived.stream()).forEach(row -> byKey.merge(
+                new OrderDailyStatsId(row.getOrderDate(), row.getStatus()), row,
+                (a, b) -> new OrderDailyStats(a.getOrderDate(), a.getStatus(), a.getOrderCount() + b.getOrderCount(),
+                        a.getTotalAmount().add(b.getTotalAmount()))));
+        return List.copyOf(byKey.values());
+    }
+
+    private void refresh() {
+        try {
+            apply(statsRepository.findAll());
+        } catch (DataAccessException e) {
+            log.warn("Could not reload order stats, serving last known values", e);
+        }
+    }
+
+    private void apply(List<OrderDailyStats> rows) {
+        Map<OrderDailyStatsId, OrderDailyStats> byKey = new HashMap<>();
+        Map<OrderStatus, long[]> persisted = new EnumMap<>(OrderStatus.class);
+        rows.forEach(row -> {
+            byKey.put(new OrderDailyStatsId(row.getOrderDate(), row.getStatus()), row);
+            accumulator(row.getOrderDate(), row.getStatus());
+            long[] sum = persisted.computeIfAbsent(row.getStatus(), ignored -> new long[2]);
+            sum[0] += row.getOrderCount();
+            sum[1] += cents(Money.of(row.getTotalAmount()));
+        });
+        forEachAccumulator((key, accumulator) -> {
+            OrderDailyStats row = byKey.get(key);
+            accumulator.persistedCount = row == null ? 0 : row.getOrderCount();
+            accumulator.persistedCents = row == null ? 0 : cents(Money.of(row.getTotalAmount()));
+        });
+        totals.forEach((status, total) -> {
+            long[] sum = persisted.getOrDefault(status, new long[2]);
+            total.persistedCount = sum[0];
+            total.persistedCents = sum[1];
+        });
+    }
+
+    private Accumulator accumulator(LocalDate day, OrderStatus status) {
+        return accumulators.get(status).computeIfAbsent(day, ignored -> new Accumulator());
+    }
+
+    private void forEachAccumulator(BiConsumer<OrderDailyStatsId, Accumulator> action) {
+        accumulators.forEach((status, days) -> days.forEach((day, accumulator) ->
+                action.accept(new OrderDailyStatsId(day, status), accumulator)));
+    }
+
+    // Dentro de uma transação, só conta depois do commit; um rollback não deixa contagem fantasma. O lado da marca
+    // d'água é decidido uma vez por registro, para as duas metades de uma transição caírem juntas.
+    private void record(Consumer<Boolean> update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.accept(System.currentTimeMillis() >= rotateAt);
+                }
+            });
+        } else {
+            update.accept(System.currentTimeMillis() >= rotateAt);
+        }
+    }
+
+    private void add(LocalDate day, OrderStatus status, long count, long cents, boolean held) {
+        Accumulator accumulator = accumulator(day, status);
+        totals.get(status).add(count, cents);
+        if (held) {
+            accumulator.heldCount.add(count);
+            accumulator.heldCents.add(cents);
+        } else {
+            accumulator.pendingCount.add(count);
+            accumulator.pendingCents.add(cents);
+        }
+    }
+
+    private static LocalDate day(Order order) {
+        return order.getCreatedAt().toLocalDate();
+    }
+
+    private static long cents(Money amount) {
+        return amount == null ? 0 : amount.getMinorUnits();
+    }
+
+    private static final class Accumulator {
+        private final LongAdder pendingCount = new LongAdder();
+        private final LongAdder pendingCents = new LongAdder();
+        // Registrados depois da marca d'água de uma reconstrução em andamento.
+        private final LongAdder heldCount = new LongAdder();
+        private final LongAdder heldCents = new LongAdder();
+        // Só o job de flush/refresh escreve estes campos.
+        private volatile long persistedCount;
+        private volatile long persistedCents;
+
+        private OrderDailyStatsDto toDto(LocalDate day, OrderStatus status) {
+            return new OrderDailyStatsDto(day, status,
+                    persistedCount + pendingCount.sum() + heldCount.sum(),
+                    BigDecimal.valueOf(persistedCents + pendingCents.sum() + heldCents.sum(), Money.SCALE));
+        }
+    }
+
+    // Soma de todos os dias de um status, mantida junto com os acumuladores: o que ainda não foi gravado fica nos
+    // adders, e persisted acompanha a tabela.
+    private static final class Total {
+        private final LongAdder unflushedCount = new LongAdder();
+        private final LongAdder unflushedCents = new LongAdder();
+        private volatile long persistedCount;
+        private volatile long persistedCents;
+
+        private void add(long count, long cents) {
+            unflushedCount.add(count);
+            unflushedCents.add(cents);
+        }
+
+        private void persist(long count, long cents) {
+            persistedCount += count;
+            persistedCents += cents;
+            add(-count, -cents);
+        }
+
+        private void discard(long count, long cents) {
+            add(-count, -cents);
+        }
+
+        private long count() {
+            return persistedCount + unflushedCount.sum();
+        }
+
+        private long cents() {
+            return persistedCents + unflushedCents.sum();
+        }
+    }
+
+    private record PendingRebuild(Instant watermark, CompletableFuture<Boolean> result, ScheduledFuture<?> snapshot) {
+    }
+}
@@ -0,0 +1,244 @@
+package com.orders.amcom.service;
+
+import com.orders.amcom.dto.OrderDto;
+import com.orders.amcom.enums.BackpressurePolicy;
+import com.orders.amcom.enums.OrderWriteMode;
+import com.orders.amcom.model.Order;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// Group commit do POST /api/orders: o pedido é validado e recebe o externalId na hora, entra num buffer limitado e uma
+// thread grava o que houver acumulado (até flushSize, esperando no máximo maxLinger pelo resto do lote) numa única
+// transação. O futuro de cada pedido só completa depois do commit do lote.
+@Slf4j
+@Service
+public class OrderWriteBuffer {
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private final OrderService orderService;
+    private final OrderBatchService orderBatchService;
+    private final OrderWriteMode mode;
+    private final int flushSize;
+    private final Duration maxLinger;
+    private final BackpressurePolicy backpressure;
+    private final BlockingQueue<PendingWrite> buffer;
+    private final DistributionSummary batchSizes;
+    private final Timer commitTimer;
+    private final Timer waitTimer;
+    private final Counter failures;
+    private final Counter rejections;
+    private final MeterRegistry meterRegistry;
+    private Thread flusher;
+    private volatile boolean running = true;
+
+    public OrderWriteBuffer(OrderService orderService, OrderBatchService orderBatchService, MeterRegistry meterRegistry,
+                            @Value("${orders.write.mode:SYNC}") OrderWriteMode mode,
+                            @Value("${orders.write.flush-size:100}") int flushSize,
+                            @Value("${orders.write.max-linger:5ms}") Duration maxLinger,
+                            @Value("${orders.write.buffer-capacity:10000}") int bufferCapacity,
+                            @Value("${orders.write.backpressure:BLOCK}") BackpressurePolicy backpressure) {
+        if (flushSize < 1 || bufferCapacity < 1) {
+            throw new IllegalArgumentException("orders.write.flush-size and orders.write.buffer-capacity must be positive");
+        }
+        this.orderService = orderService;
+        this.orderBatchService = orderBatchService;
+        this.mode = mode;
+        this.flushSize = flushSize;
+        this.maxLinger = maxLinger;
+        this.backpressure = backpressure;
+        this.buffer = new LinkedBlockingQueue<>(bufferCapacity);
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("orders.write.buffer", buffer, BlockingQueue::size).register(meterRegistry);
+        Gauge.builder("orders.write.buffer.capacity", () -> bufferCapacity).register(meterRegistry);
+        Gauge.builder("orders.write.flush.size.limit", () -> flushSize).register(meterRegistry);
+        TimeGauge.builder("orders.write.max.linger", () -> maxLinger.toNanos(), TimeUnit.NANOSECONDS).register(meterRegistry);
+        this.batchSizes = meterRegistry.summary("orders.write.batch.size");
+        this.commitTimer = meterRegistry.timer("orders.write.commit");
+        this.waitTimer = meterRegistry.timer("orders.write.wait");
+        this.failures = meterRegistry.counter("orders.write.failures");
+        this.rejections = meterRegistry.counter("orders.write.rejections");
+    }
+
+    @PostConstruct
+    public void start() {
+        if (mode != OrderWriteMode.SYNC) {
+            flusher = new Thread(this::flushLoop, "order-write-buffer");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+    }
+
+    public OrderWriteMode getMode() {
+        return mode;
+    }
+
+    // Validação e externalId acontecem antes de enfileirar: erro de validação sai direto para o chamador.
+    public CompletableFuture<OrderDto> submit(Order order) {
+        if (mode == OrderWriteMode.SYNC) {
+            return CompletableFuture.completedFuture(OrderDto.fromEntity(orderService.createOrder(order)));
+        }
+        if (!running) {
+            throw shuttingDown();
+        }
+        orderService.prepareOrder(order);
+
+        PendingWrite pending = new PendingWrite(order, new CompletableFuture<>(), System.nanoTime());
+        if (!enqueue(pending)) {
+            // CALLER_RUNS: com o buffer cheio o próprio chamador grava o pedido sozinho.
+            write(List.of(pending));
+        } else if (!running && buffer.remove(pending)) {
+            // Entrou depois do shutdown: se ninguém o pegou ainda, o flusher pode já ter saído e o pedido ficaria órfão.
+            throw shuttingDown();
+        }
+        return pending.result().thenApply(OrderDto::fromEntity);
+    }
+
+    private boolean enqueue(PendingWrite pending) {
+        return switch (backpressure) {
+            case BLOCK -> {
+                try {
+                    // Espera vaga em fatias para perceber o shutdown: um put() bloqueado não acordaria com ele.
+                    while (!buffer.offer(pending, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                        if (!running) {
+                            throw shuttingDown();
+                        }
+                    }
+                    yield true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    rejections.increment();
+                    throw new RejectedExecutionException("Interrupted while waiting for order write buffer capacity", e);
+                }
+            }
+            case REJECT -> {
+                if (!buffer.offer(pending)) {
+                    rejections.increment();
+                    throw new RejectedExecutionException("Order write buffer is full");
+                }
+                yield true;
+            }
+            case CALLER_RUNS -> buffer.offer(pending);
+        };
+    }
+
+    private RejectedExecutionException shuttingDown() {
+        rejections.increment();
+        return new RejectedExecutionException("Order write buffer is shutting down");
+    }
+
+    private void flushLoop() {
+        List<PendingWrite> batch = new ArrayList<>(flushSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                PendingWrite first = buffer.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fill(batch);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Unexpected error while writing a batch of {} orders", batch.size(), e);
+                batch.forEach(pending -> pending.result().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Completa o lote até flushSize, esperando no máximo maxLinger desde o primeiro pedido.
+    private void fill(List<PendingWrite> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + maxLinger.toNanos();
+        buffer.drainTo(batch, flushSize - batch.size());
+        String trigger = "size";
+        while (batch.size() < flushSize) {
+            long remaining = deadline - System.nanoTime();
+            PendingWrite next = remaining > 0 ? buffer.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            if (next == null) {
+                trigger = running ? "linger" : "shutdown";
+                break;
+            }
+            batch.add(next);
+            buffer.drainTo(batch, flushSize - batch.size());
+        }
+        meterRegistry.counter("orders.write.flushes", "trigger", trigger).increment();
+    }
+
+    private void write(List<PendingWrite> batch) {
+        batchSizes.record(batch.size());
+        List<Order> orders = batch.stream().map(PendingWrite::order).toList();
+        long start = System.nanoTime();
+        try {
+            orderService.savePreparedOrders(orders);
+            commitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batch.forEach(this::complete);
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                fail(batch.get(0), e);
+                return;
+            }
+            log.warn("Group commit of {} orders failed, retrying one by one", batch.size(), e);
+            Map<Order, PendingWrite> byOrder = new IdentityHashMap<>(batch.size());
+            batch.forEach(pending -> byOrder.put(pending.order(), pending));
+            orderBatchService.saveIndividually(orders, (order, failure) -> fail(byOrder.remove(order), failure));
+            byOrder.values().forEach(this::complete);
+        }
+    }
+
+    private void complete(PendingWrite pending) {
+        waitTimer.record(System.nanoTime() - pending.enqueuedAt(), TimeUnit.NANOSECONDS);
+        pending.result().complete(pending.order());
+    }
+
+    private void fail(PendingWrite pending, RuntimeException e) {
+        failures.increment();
+        log.error("Failed to write order {}", pending.order().getExternalId(), e);
+        pending.result().completeExceptionally(e);
+    }
+
+    // Grava o que restou no buffer antes de o pool de conexões fechar; o que o flusher não alcançar falha.
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (mode == OrderWriteMode.SYNC) {
+            return;
+        }
+        if (flusher != null) {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        List<PendingWrite> leftover = new ArrayList<>();
+        buffer.drainTo(leftover);
+        if (!leftover.isEmpty()) {
+            log.warn("{} buffered orders were not written at shutdown", leftover.size());
+            RejectedExecutionException error = new RejectedExecutionException("Order write buffer shut down before writing");
+            leftover.forEach(pending -> pending.result().completeExceptionally(error));
+        }
+    }
+
+    private record PendingWrite(Order order, CompletableFuture<Order> result, long enqueuedAt) {
+    }
+}
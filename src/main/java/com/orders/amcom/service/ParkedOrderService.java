@@ -0,0 +1,162 @@
+package com.orders.amcom.service;
+
+import com.orders.amcom.dto.ParkedMessageDto;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.GetResponse;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.amqp.rabbit.support.MessagePropertiesConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import static com.orders.amcom.config.RabbitMQConfig.PARKING_QUEUE_NAME;
+import static com.orders.amcom.config.RabbitMQConfig.QUEUE_NAME;
+import static com.orders.amcom.listener.OrderRetryRecoverer.EXCEPTION_MESSAGE_HEADER;
+import static com.orders.amcom.listener.OrderRetryRecoverer.EXCEPTION_TYPE_HEADER;
+import static com.orders.amcom.listener.OrderRetryRecoverer.PARKED_AT_HEADER;
+import static com.orders.amcom.listener.OrderRetryRecoverer.RETRY_ATTEMPTS_HEADER;
+import static com.orders.amcom.listener.OrderRetryRecoverer.RETRY_TARGET_HEADER;
+
+// Leitura e reenvio da fila de estacionamento direto no canal: basic.get sem ack, e só confirma o que o broker já
+// aceitou na fila de origem (publisher confirm).
+@Service
+public class ParkedOrderService {
+    public static final int MAX_BATCH = 1000;
+    private static final String ENCODING = StandardCharsets.UTF_8.name();
+
+    private final RabbitTemplate rabbitTemplate;
+    private final AmqpAdmin amqpAdmin;
+    private final Duration confirmTimeout;
+    private final MessagePropertiesConverter propertiesConverter = new DefaultMessagePropertiesConverter();
+
+    public ParkedOrderService(RabbitTemplate rabbitTemplate, AmqpAdmin amqpAdmin,
+                              @Value("${orders.retry.confirm-timeout:10s}") Duration confirmTimeout) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.amqpAdmin = amqpAdmin;
+        this.confirmTimeout = confirmTimeout;
+    }
+
+    // As mensagens lidas voltam para a fila (nack com requeue), na posição original.
+    public List<ParkedMessageDto> peek(int limit) {
+        int max = clamp(limit);
+        return rabbitTemplate.execute(channel -> {
+            List<ParkedMessageDto> parked = new ArrayList<>(max);
+            long lastDeliveryTag = -1;
+            try {
+                GetResponse response;
+                while (parked.size() < max && (response = channel.basicGet(PARKING_QUEUE_NAME, false)) != null) {
+                    lastDeliveryTag = response.getEnvelope().getDeliveryTag();
+                    parked.add(toDto(response));
+                }
+            } finally {
+                if (lastDeliveryTag >= 0) {
+                    channel.basicNack(lastDeliveryTag, true, true);
+                }
+            }
+            return parked;
+        });
+    }
+
+    // Republica na fila de origem com o contador de tentativas zerado.
+    public int replay(int limit) {
+        int max = clamp(limit);
+        Map<String, String> targets = new HashMap<>();
+        return rabbitTemplate.execute(channel -> {
+            channel.confirmSelect();
+            int replayed = 0;
+            GetResponse response;
+            while (replayed < max && (response = channel.basicGet(PARKING_QUEUE_NAME, false)) != null) {
+                MessageProperties properties = toMessageProperties(response);
+                String target = targets.computeIfAbsent(properties.getHeader(RETRY_TARGET_HEADER), this::replayTarget);
+                properties.getHeaders().keySet().removeAll(List.of(RETRY_TARGET_HEADER, RETRY_ATTEMPTS_HEADER,
+                        EXCEPTION_TYPE_HEADER, EXCEPTION_MESSAGE_HEADER, PARKED_AT_HEADER, "x-death"));
+                long deliveryTag = response.getEnvelope().getDeliveryTag();
+                publish(channel, target, properties, response.getBody());
+                awaitConfirm(channel, deliveryTag, target, replayed);
+                channel.basicAck(deliveryTag, false);
+                replayed++;
+            }
+            return replayed;
+        });
+    }
+
+    // Sem confirmação a original volta para a fila de estacionamento; se a cópia chegou mesmo assim, o consumidor
+    // descarta a duplicata pelo messageId.
+    private void awaitConfirm(Channel channel, long deliveryTag, String target, int replayed) throws IOException {
+        try {
+            channel.waitForConfirmsOrDie(confirmTimeout.toMillis());
+        } catch (IOException | TimeoutException e) {
+            // waitForConfirmsOrDie fecha o canal, e o broker já devolve a mensagem; o nack só vale se ele seguir aberto.
+            if (channel.isOpen()) {
+                channel.basicNack(deliveryTag, false, true);
+            }
+            throw new AmqpException("No confirmation replaying parked message to " + target + " after "
+                    + replayed + " replayed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (channel.isOpen()) {
+                channel.basicNack(deliveryTag, false, true);
+            }
+            throw new AmqpException("Interrupted while replaying parked message to " + target, e);
+        }
+    }
+
+    private void publish(Channel channel, String queue, MessageProperties properties, byte[] body) throws IOException {
+        AMQP.BasicProperties basicProperties = propertiesConverter.fromMessageProperties(properties, ENCODING);
+        channel.basicPublish("", queue, basicProperties, body);
+    }
+
+    // Uma partição que deixou de existir não pode receber de volta; nesse caso a mensagem vai para a fila principal.
+    private String replayTarget(String queue) {
+        return queue != null && amqpAdmin.getQueueProperties(queue) != null ? queue : QUEUE_NAME;
+    }
+
+    private ParkedMessageDto toDto(GetResponse response) {
+        MessageProperties properties = toMessageProperties(response);
+        Object attempts = properties.getHeader(RETRY_ATTEMPTS_HEADER);
+        return new ParkedMessageDto(
+                properties.getMessageId(),
+                headerText(properties, RETRY_TARGET_HEADER),
+                attempts instanceof Number number ? number.intValue() : 0,
+                headerText(properties, EXCEPTION_TYPE_HEADER),
+                headerText(properties, EXCEPTION_MESSAGE_HEADER),
+                headerText(properties, PARKED_AT_HEADER),
+                properties.getContentType(),
+                bodyText(properties.getContentType(), response.getBody()));
+    }
+
+    private MessageProperties toMessageProperties(GetResponse response) {
+        return propertiesConverter.toMessageProperties(response.getProps(), response.getEnvelope(), ENCODING);
+    }
+
+    private static String headerText(MessageProperties properties, String header) {
+        Object value = properties.getHeader(header);
+        return value == null ? null : value.toString();
+    }
+
+    // JSON e texto seguem legíveis; o formato binário sai em Base64.
+    private static String bodyText(String contentType, byte[] body) {
+        if (contentType != null && (contentType.contains("json") || contentType.startsWith("text/"))) {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+        return Base64.getEncoder().encodeToString(body);
+    }
+
+    private static int clamp(int limit) {
+        return Math.max(1, Math.min(limit, MAX_BATCH));
+    }
+}
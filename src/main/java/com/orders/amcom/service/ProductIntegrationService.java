@@ -1,31 +1,51 @@
 package com.orders.amcom.service;
 
+import com.orders.amcom.config.ReadOnlyTransactional;
+import com.orders.amcom.dto.ProductSalesDto;
 import com.orders.amcom.enums.OrderStatus;
-import com.orders.amcom.model.Order;
 import com.orders.amcom.model.Product;
-import com.orders.amcom.repository.OrderRepository;
+import com.orders.amcom.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class ProductIntegrationService {
-    private final OrderRepository orderRepository;
+    private static final Sort BY_ID = Sort.by("id");
+    private final ProductRepository productRepository;
 
     public List<Product> fetchProductsFromServiceA() {
         //todo: melhor maneira acredito seria por Feign Client, mas como é dados simulados fiz de forma mockada.
         return new ArrayList<>();
     }
 
-    public List<Product> fetchProductsFromServiceB() {
-        List<Order> completedOrders = orderRepository.findByStatus(OrderStatus.COMPLETED.toString());
+    // Produtos de pedidos COMPLETED em janelas de até pageSize linhas; passe ScrollPosition.keyset() na primeira
+    // chamada e window.positionAt(window.size() - 1) nas seguintes.
+    @ReadOnlyTransactional
+    public Window<Product> fetchProductsFromServiceB(ScrollPosition position, int pageSize) {
+        return productRepository.findByOrderStatus(OrderStatus.COMPLETED, position, BY_ID, Limit.of(pageSize));
+    }
+
+    @ReadOnlyTransactional
+    public Slice<ProductSalesDto> fetchProductSalesFromServiceB(Pageable pageable) {
+        return productRepository.findSalesByOrderStatus(OrderStatus.COMPLETED, pageable);
+    }
 
-        return completedOrders.stream()
-                .flatMap(order -> order.getProducts().stream())
-                .collect(Collectors.toList());
+    @ReadOnlyTransactional
+    public void streamProductSalesFromServiceB(Consumer<ProductSalesDto> action) {
+        try (Stream<ProductSalesDto> sales = productRepository.streamSalesByOrderStatus(OrderStatus.COMPLETED)) {
+            sales.forEach(action);
+        }
     }
 }
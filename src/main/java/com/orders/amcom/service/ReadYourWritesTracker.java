@@ -0,0 +1,34 @@
+package com.orders.amcom.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+
+// Pedidos alterados há menos de window: a leitura pelo externalId vai ao primário, porque a réplica pode ainda não
+// ter aplicado a alteração. window deve cobrir o atraso de replicação tolerado (orders.datasource.replicas.max-lag).
+@Service
+public class ReadYourWritesTracker {
+    private final boolean enabled;
+    private final Cache<String, Boolean> recentWrites;
+
+    public ReadYourWritesTracker(@Value("${orders.datasource.replicas.enabled:false}") boolean enabled,
+                                 @Value("${orders.datasource.read-your-writes.window:10s}") Duration window,
+                                 @Value("${orders.datasource.read-your-writes.maximum-size:100000}") long maximumSize) {
+        this.enabled = enabled;
+        this.recentWrites = Caffeine.newBuilder().expireAfterWrite(window).maximumSize(maximumSize).build();
+    }
+
+    public void recordWrites(Collection<String> externalIds) {
+        if (enabled) {
+            externalIds.forEach(externalId -> recentWrites.put(externalId, Boolean.TRUE));
+        }
+    }
+
+    public boolean recentlyWritten(String externalId) {
+        return enabled && recentWrites.getIfPresent(externalId) != null;
+    }
+}
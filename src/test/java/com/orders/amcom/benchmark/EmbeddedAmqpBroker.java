@@ -0,0 +1,69 @@
+package com.orders.amcom.benchmark;
+
+import org.apache.qpid.server.SystemLauncher;
+import org.apache.qpid.server.model.SystemConfig;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+// Qpid Broker-J em memória falando AMQP 0-9-1, suficiente para o Spring AMQP sem um RabbitMQ instalado.
+class EmbeddedAmqpBroker implements AutoCloseable {
+    private static final String INITIAL_CONFIGURATION = "benchmark/qpid-config.json";
+
+    private final SystemLauncher launcher = new SystemLauncher();
+    private final int port;
+    private final Path workDir;
+
+    private EmbeddedAmqpBroker(int port, Path workDir) {
+        this.port = port;
+        this.workDir = workDir;
+    }
+
+    static EmbeddedAmqpBroker start() {
+        try {
+            EmbeddedAmqpBroker broker = new EmbeddedAmqpBroker(freePort(), Files.createTempDirectory("qpid-work"));
+            broker.launcher.startup(broker.systemAttributes());
+            return broker;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Embedded AMQP broker failed to start", e);
+        }
+    }
+
+    int getPort() {
+        return port;
+    }
+
+    @Override
+    public void close() {
+        launcher.shutdown();
+    }
+
+    private Map<String, Object> systemAttributes() {
+        Map<String, Object> context = new HashMap<>();
+        context.put("qpid.amqp_port", port);
+        context.put("qpid.work_dir", workDir.toString());
+        context.put("broker.name", "amcom-benchmark");
+
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(SystemConfig.TYPE, "Memory");
+        attributes.put(SystemConfig.INITIAL_CONFIGURATION_LOCATION,
+                Objects.requireNonNull(getClass().getClassLoader().getResource(INITIAL_CONFIGURATION)).toExternalForm());
+        attributes.put(SystemConfig.STARTUP_LOGGED_TO_SYSTEM_OUT, false);
+        attributes.put(SystemConfig.CONTEXT, context);
+        return attributes;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.orders.amcom.benchmark;
+
+import com.orders.amcom.enums.OrderStatus;
+import com.orders.amcom.model.Money;
+import com.orders.amcom.model.Order;
+import com.orders.amcom.model.Product;
+import com.orders.amcom.repository.OrderRepository;
+import com.orders.amcom.service.OrderService;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Carga ponta a ponta: publica pedidos pelo OrderPublisher, consome pelo listener configurado e mede até o commit no banco.
+// Broker embarcado (Qpid, AMQP 0-9-1) e H2 no lugar do PostgreSQL; as configurações da aplicação entram como -D:
+//   mvn test -Dtest=OrderIngestionLoadBenchmark -Dbenchmark=true -Dload.orders=50000 \
+//       -Dorders.listener.batch.enabled=true -Dorders.messaging.format=BINARY -Dorders.listener.concurrency=10-20
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(properties = {
+        "spring.rabbitmq.listener.simple.auto-startup=true",
+        // O Qpid não aceita filas com TTL e dead-letter exchange, então as filas de retentativa ficam de fora.
+        "orders.retry.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=false",
+        "spring.jpa.show-sql=false"
+})
+public class OrderIngestionLoadBenchmark {
+    private static final int ORDERS = Integer.getInteger("load.orders", 20_000);
+    private static final int PRODUCERS = Integer.getInteger("load.producers", 4);
+    private static final int PRODUCTS_PER_ORDER = Integer.getInteger("load.products", 3);
+    // Pedidos por segundo somando todos os produtores; 0 publica o mais rápido possível.
+    private static final int RATE = Integer.getInteger("load.rate", 0);
+    private static final Duration TIMEOUT = Duration.ofSeconds(Long.getLong("load.timeout-seconds", 300));
+
+    private static final EmbeddedAmqpBroker BROKER = EmbeddedAmqpBroker.start();
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PersistenceProbe probe;
+
+    @Autowired
+    private Environment environment;
+
+    @DynamicPropertySource
+    static void rabbitProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.rabbitmq.host", () -> "127.0.0.1");
+        registry.add("spring.rabbitmq.port", BROKER::getPort);
+        registry.add("spring.rabbitmq.username", () -> "guest");
+        registry.add("spring.rabbitmq.password", () -> "guest");
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        BROKER.close();
+    }
+
+    @Test
+    void ingestOrdersEndToEnd() throws Exception {
+        Map<String, LongAdder> publishErrors = new ConcurrentHashMap<>();
+        long start = System.nanoTime();
+        List<Thread> producers = new ArrayList<>(PRODUCERS);
+        for (int p = 0; p < PRODUCERS; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> publish(producer, publishErrors), "load-producer-" + p);
+            producers.add(thread);
+            thread.start();
+        }
+        for (Thread thread : producers) {
+            thread.join();
+        }
+        long published = System.nanoTime() - start;
+
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        int expected = ORDERS - (int) count(publishErrors);
+        while (probe.persisted() < expected && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        report(published, elapsed, expected, publishErrors);
+        assertEquals(expected, probe.persisted(), "orders published but not persisted within " + TIMEOUT);
+    }
+
+    private void publish(int producer, Map<String, LongAdder> publishErrors) {
+        long intervalNanos = RATE > 0 ? TimeUnit.SECONDS.toNanos(PRODUCERS) / RATE : 0;
+        long next = System.nanoTime();
+        for (int i = producer; i < ORDERS; i += PRODUCERS) {
+            if (intervalNanos > 0) {
+                next += intervalNanos;
+                LockSupport.parkNanos(next - System.nanoTime());
+            }
+            try {
+                orderService.processOrder(order(i)).whenComplete((ignored, e) -> {
+                    if (e != null) {
+                        publishErrors.computeIfAbsent(rootCause(e), key -> new LongAdder()).increment();
+                    }
+                });
+            } catch (RuntimeException e) {
+                publishErrors.computeIfAbsent(rootCause(e), key -> new LongAdder()).increment();
+            }
+        }
+    }
+
+    private void report(long publishedNanos, long elapsedNanos, int expected, Map<String, LongAdder> publishErrors) {
+        int persisted = probe.persisted();
+        long[] latencies = probe.latenciesMicros();
+        long[] completions = probe.completionNanos();
+        Arrays.sort(latencies);
+        Arrays.sort(completions);
+
+        System.out.println("---- Order ingestion load ----");
+        System.out.printf("listener: batch=%s concurrency=%s | format=%s | publisher=%s%n",
+                environment.getProperty("orders.listener.batch.enabled", "false"),
+                environment.getProperty("orders.listener.batch.enabled", Boolean.class, false)
+                        ? environment.getProperty("orders.listener.batch.concurrency", "5-10")
+                        : environment.getProperty("orders.listener.concurrency", "5-10"),
+                environment.getProperty("orders.messaging.format", "JSON"),
+                environment.getProperty("orders.publisher.mode", "SYNC"));
+        System.out.printf("orders: %,d (%d products each) | producers: %d | rate: %s%n",
+                ORDERS, PRODUCTS_PER_ORDER, PRODUCERS, RATE > 0 ? RATE + "/s" : "unbounded");
+        System.out.printf("published in %,d ms (%,.0f orders/s)%n",
+                TimeUnit.NANOSECONDS.toMillis(publishedNanos), ORDERS / seconds(publishedNanos));
+        System.out.printf("persisted %,d/%,d in %,d ms (%,.0f orders/s overall, %,.0f orders/s sustained p10-p90)%n",
+                persisted, expected, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), persisted / seconds(elapsedNanos),
+                sustainedThroughput(completions));
+        System.out.printf("end-to-end latency ms: p50=%.1f p90=%.1f p95=%.1f p99=%.1f max=%.1f%n",
+                percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.90), percentileMillis(latencies, 0.95),
+                percentileMillis(latencies, 0.99), percentileMillis(latencies, 1.0));
+        System.out.printf("errors: publish=%s persistence=%s lost=%,d | rows in database=%,d%n",
+                counts(publishErrors), counts(probe.errors), expected - persisted, orderRepository.count());
+    }
+
+    // Vazão entre o 10º e o 90º percentil das conclusões: descarta o aquecimento e a cauda do fim da fila.
+    private static double sustainedThroughput(long[] completions) {
+        if (completions.length < 10) {
+            return 0;
+        }
+        int from = completions.length / 10;
+        int to = completions.length * 9 / 10;
+        return (to - from) / seconds(completions[to] - completions[from]);
+    }
+
+    private static double percentileMillis(long[] sortedMicros, double percentile) {
+        if (sortedMicros.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedMicros.length) - 1;
+        return sortedMicros[Math.max(0, index)] / 1000.0;
+    }
+
+    private static double seconds(long nanos) {
+        return Math.max(nanos, 1) / 1_000_000_000.0;
+    }
+
+    private static long count(Map<String, LongAdder> errors) {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    private static Map<String, Long> counts(Map<String, LongAdder> errors) {
+        Map<String, Long> counts = new TreeMap<>();
+        errors.forEach((type, count) -> counts.put(type, count.sum()));
+        return counts;
+    }
+
+    private static String rootCause(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause.getClass().getSimpleName();
+    }
+
+    private static Order order(int i) {
+        Order order = new Order();
+        order.setExternalId("LOAD-" + i);
+        order.setStatus(OrderStatus.PENDING);
+        List<Product> products = new ArrayList<>(PRODUCTS_PER_ORDER);
+        for (int p = 0; p < PRODUCTS_PER_ORDER; p++) {
+            Product product = new Product();
+            product.setName("Produto " + p);
+            product.setPrice(Money.of(BigDecimal.valueOf(1000 + p, 2)));
+            product.setQuantity(p + 1);
+            products.add(product);
+        }
+        order.setProducts(products);
+        // createdAt viaja na mensagem e marca o início da medição de latência.
+        order.setCreatedAt(LocalDateTime.now());
+        return order;
+    }
+
+    @TestConfiguration
+    static class ProbeConfig {
+        @Bean
+        PersistenceProbe persistenceProbe() {
+            return new PersistenceProbe(ORDERS);
+        }
+    }
+
+    // Envolve a transação de criação (precedência máxima): o registro acontece depois do commit.
+    @Aspect
+    @org.springframework.core.annotation.Order(Ordered.HIGHEST_PRECEDENCE)
+    static class PersistenceProbe {
+        private final AtomicLongArray latenciesMicros;
+        private final AtomicLongArray completionNanos;
+        private final AtomicInteger persisted = new AtomicInteger();
+        private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+        PersistenceProbe(int capacity) {
+            latenciesMicros = new AtomicLongArray(capacity);
+            completionNanos = new AtomicLongArray(capacity);
+        }
+
+        @Around("execution(* com.orders.amcom.service.OrderService.createOrder(..))"
+                + " || execution(* com.orders.amcom.service.OrderService.createOrders(..))")
+        public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+            Object result;
+            try {
+                result = joinPoint.proceed();
+            } catch (Throwable e) {
+                errors.computeIfAbsent(rootCause(e), key -> new LongAdder()).increment();
+                throw e;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            long nanos = System.nanoTime();
+            if (result instanceof Order order) {
+                record(order, now, nanos);
+            } else if (result instanceof List<?> orders) {
+                orders.forEach(order -> record((Order) order, now, nanos));
+            }
+            return result;
+        }
+
+        private void record(Order order, LocalDateTime now, long nanos) {
+            int index = persisted.getAndIncrement();
+            if (index < latenciesMicros.length()) {
+                latenciesMicros.set(index, ChronoUnit.MICROS.between(order.getCreatedAt(), now));
+                completionNanos.set(index, nanos);
+            }
+        }
+
+        int persisted() {
+            return persisted.get();
+        }
+
+        long[] latenciesMicros() {
+            return snapshot(latenciesMicros);
+        }
+
+        long[] completionNanos() {
+            return snapshot(completionNanos);
+        }
+
+        private long[] snapshot(AtomicLongArray values) {
+            long[] copy = new long[Math.min(persisted.get(), values.length())];
+            for (int i = 0; i < copy.length; i++) {
+                copy[i] = values.get(i);
+            }
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.orders.amcom.benchmark;
+
+import com.orders.amcom.enums.OrderStatus;
+import com.orders.amcom.converter.OrderBinaryMessageConverter;
+import com.orders.amcom.model.Money;
+import com.orders.amcom.model.Order;
+import com.orders.amcom.model.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Tamanho do payload e ns/op de encode/decode do formato binário contra o Jackson2JsonMessageConverter.
+// mvn test -Dtest=OrderMessageConverterBenchmark -Dbenchmark=true
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class OrderMessageConverterBenchmark {
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 100_000;
+
+    private final MessageConverter jackson = new Jackson2JsonMessageConverter();
+    private final MessageConverter binary = new OrderBinaryMessageConverter(1024);
+
+    @Test
+    void compareJsonAndBinary() {
+        System.out.printf("%-8s %8s %12s %12s %12s%n", "products", "format", "bytes", "encode ns", "decode ns");
+        for (int products : new int[]{1, 10, 100}) {
+            Order order = order(products);
+            report(products, "json", jackson, order);
+            report(products, "binary", binary, order);
+        }
+    }
+
+    private void report(int products, String format, MessageConverter converter, Order order) {
+        Message message = converter.toMessage(order, new MessageProperties());
+        message.getMessageProperties().setInferredArgumentType(Order.class);
+
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += converter.toMessage(order, new MessageProperties()).getBody().length;
+            sink += ((Order) converter.fromMessage(message)).getProducts().size();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += converter.toMessage(order, new MessageProperties()).getBody().length;
+        }
+        long encodeNs = (System.nanoTime() - start) / ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += ((Order) converter.fromMessage(message)).getProducts().size();
+        }
+        long decodeNs = (System.nanoTime() - start) / ITERATIONS;
+
+        System.out.printf("%-8d %8s %12d %12d %12d%n", products, format, message.getBody().length, encodeNs, decodeNs);
+        if (sink == 42) {
+            System.out.println();
+        }
+    }
+
+    private Order order(int products) {
+        Order order = new Order();
+        order.setId("6f1c2a9e-5d7b-4f0e-9a51-2b8c3d4e5f60");
+        order.setExternalId("ORD-1754398712345");
+        order.setStatus(OrderStatus.PENDING);
+        order.setTotalAmount(Money.of(new BigDecimal("1234.56")));
+        order.setCreatedAt(LocalDateTime.of(2024, 5, 1, 10, 15, 30));
+        List<Product> items = new ArrayList<>();
+        for (int i = 0; i < products; i++) {
+            Product product = new Product();
+            product.setName("Produto " + i);
+            product.setPrice(Money.of(new BigDecimal("19.90")));
+            product.setQuantity(i + 1);
+            items.add(product);
+        }
+        order.setProducts(items);
+        return order;
+    }
+}
@@ -0,0 +1,94 @@
+package com.orders.amcom.benchmark;
+
+import com.orders.amcom.config.RabbitMQConfig;
+import com.orders.amcom.enums.OrderStatus;
+import com.orders.amcom.enums.PublisherMode;
+import com.orders.amcom.model.Money;
+import com.orders.amcom.model.Order;
+import com.orders.amcom.service.OrderPartitioner;
+import com.orders.amcom.service.OrderPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Compara msgs/s entre o convertAndSend síncrono e a publicação em lote com confirms.
+// Precisa de um RabbitMQ local: mvn test -Dtest=OrderPublishingBenchmark -Dbenchmark=true
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class OrderPublishingBenchmark {
+    private static final int MESSAGES = Integer.getInteger("benchmark.messages", 20_000);
+
+    private CachingConnectionFactory connectionFactory;
+    private RabbitTemplate rabbitTemplate;
+    private AmqpAdmin admin;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new CachingConnectionFactory(System.getProperty("benchmark.rabbit.host", "localhost"));
+        connectionFactory.setUsername(System.getProperty("benchmark.rabbit.username", "admin"));
+        connectionFactory.setPassword(System.getProperty("benchmark.rabbit.password", "admin"));
+        connectionFactory.setPublisherConfirmType(CachingConnectionFactory.ConfirmType.CORRELATED);
+        rabbitTemplate = new RabbitTemplate(connectionFactory);
+        rabbitTemplate.setMessageConverter(new Jackson2JsonMessageConverter());
+
+        RabbitMQConfig config = new RabbitMQConfig();
+        admin = new RabbitAdmin(connectionFactory);
+        admin.declareQueue(config.orderQueue());
+        admin.declareExchange(config.orderExchange());
+        admin.declareBinding(config.binding(config.orderQueue(), config.orderExchange()));
+        admin.purgeQueue(RabbitMQConfig.QUEUE_NAME, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        admin.purgeQueue(RabbitMQConfig.QUEUE_NAME, false);
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void compareSyncAndBatchedPublishing() throws Exception {
+        double sync = measure(PublisherMode.SYNC);
+        double batched = measure(PublisherMode.BATCHED);
+
+        System.out.printf("SYNC:    %,.0f msgs/s%n", sync);
+        System.out.printf("BATCHED: %,.0f msgs/s (confirmed)%n", batched);
+    }
+
+    private double measure(PublisherMode mode) throws Exception {
+        OrderPublisher publisher = new OrderPublisher(rabbitTemplate, new OrderPartitioner(0), new SimpleMeterRegistry(), mode,
+                100, 10_000, Duration.ofSeconds(30));
+        publisher.start();
+        List<CompletableFuture<Void>> results = new ArrayList<>(MESSAGES);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MESSAGES; i++) {
+            results.add(publisher.publish(order(i)));
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(2, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - start;
+
+        publisher.shutdown();
+        return MESSAGES / (elapsed / 1_000_000_000.0);
+    }
+
+    private Order order(int i) {
+        Order order = new Order();
+        order.setExternalId("BENCH-" + i);
+        order.setStatus(OrderStatus.PENDING);
+        order.setTotalAmount(Money.of(BigDecimal.TEN));
+        return order;
+    }
+}
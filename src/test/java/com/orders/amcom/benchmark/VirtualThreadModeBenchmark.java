@@ -0,0 +1,183 @@
+package com.orders.amcom.benchmark;
+
+import com.orders.amcom.AmcomApplication;
+import com.orders.amcom.enums.OrderStatus;
+import com.orders.amcom.model.Money;
+import com.orders.amcom.model.Order;
+import com.orders.amcom.model.Product;
+import com.orders.amcom.service.OrderService;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Compara o atendimento HTTP com pools de threads de plataforma e com virtual threads sob muitos clientes simultâneos.
+// Cada requisição a GET /api/orders/{externalId} fica bloqueada load.io-latency-ms a mais, simulando a ida ao banco
+// em rede; o pool do Hikari é grande o bastante para o limite ser a thread e não a conexão.
+//   mvn test -Dtest=VirtualThreadModeBenchmark -Dbenchmark=true -Dload.clients=1000 -Dload.seconds=20
+// Virtual threads exigem Java 21+; em JVMs anteriores só o modo de plataforma é medido.
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class VirtualThreadModeBenchmark {
+    private static final int CLIENTS = Integer.getInteger("load.clients", 500);
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("load.seconds", 15));
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("load.warmup-seconds", 5));
+    private static final long IO_LATENCY_MILLIS = Long.getLong("load.io-latency-ms", 50);
+
+    @Test
+    void compareThreadingModes() throws Exception {
+        List<Result> results = new ArrayList<>();
+        results.add(run(false));
+        if (Runtime.version().feature() >= 21) {
+            results.add(run(true));
+        } else {
+            System.out.printf("Java %d has no virtual threads: measuring platform threads only%n", Runtime.version().feature());
+        }
+
+        System.out.println("---- HTTP threading modes ----");
+        System.out.printf("clients: %d | io latency: %d ms | duration: %d s%n", CLIENTS, IO_LATENCY_MILLIS, DURATION.toSeconds());
+        results.forEach(result -> System.out.println(result.format()));
+        results.forEach(result -> assertEquals(0, result.errors(), result.mode() + " mode returned errors"));
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(AmcomApplication.class, LatencyConfig.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.cache.type=none",
+                        "spring.datasource.hikari.maximum-pool-size=" + (CLIENTS + 10),
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        "spring.jpa.show-sql=false")
+                .run()) {
+            String externalId = context.getBean(OrderService.class).createOrder(order()).getExternalId();
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://127.0.0.1:" + port + "/api/orders/" + externalId);
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+            drive(client, uri, WARMUP);
+            long start = System.nanoTime();
+            List<ClientStats> clients = drive(client, uri, DURATION);
+            return Result.of(virtualThreads ? "virtual" : "platform", System.nanoTime() - start, clients);
+        }
+    }
+
+    private static List<ClientStats> drive(HttpClient client, URI uri, Duration duration) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<ClientStats> stats = new ArrayList<>(CLIENTS);
+        List<Thread> threads = new ArrayList<>(CLIENTS);
+        for (int c = 0; c < CLIENTS; c++) {
+            // Cada cliente registra no próprio buffer; os resultados só se juntam depois do join.
+            ClientStats clientStats = new ClientStats();
+            Thread thread = new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    long sent = System.nanoTime();
+                    boolean ok;
+                    try {
+                        ok = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+                    } catch (Exception e) {
+                        ok = false;
+                    }
+                    clientStats.record(System.nanoTime() - sent, ok);
+                }
+            }, "http-client-" + c);
+            stats.add(clientStats);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return stats;
+    }
+
+    private static Order order() {
+        Product product = new Product();
+        product.setName("Produto");
+        product.setPrice(Money.of(BigDecimal.valueOf(1000, 2)));
+        product.setQuantity(1);
+        Order order = new Order();
+        order.setStatus(OrderStatus.PENDING);
+        order.setProducts(new ArrayList<>(List.of(product)));
+        return order;
+    }
+
+    private record Result(String mode, long requests, long errors, long elapsedNanos, long[] sortedMicros) {
+        static Result of(String mode, long elapsedNanos, List<ClientStats> clients) {
+            long[] latencies = clients.stream()
+                    .flatMapToLong(stats -> Arrays.stream(stats.latenciesMicros, 0, stats.count))
+                    .sorted()
+                    .toArray();
+            long errors = clients.stream().mapToLong(stats -> stats.errors).sum();
+            return new Result(mode, latencies.length + errors, errors, elapsedNanos, latencies);
+        }
+
+        String format() {
+            return String.format("%-8s %,9.0f req/s | latency ms p50=%.1f p90=%.1f p99=%.1f max=%.1f | errors=%d",
+                    mode, requests / (elapsedNanos / 1e9), percentile(0.50), percentile(0.90), percentile(0.99),
+                    percentile(1.0), errors);
+        }
+
+        private double percentile(double percentile) {
+            if (sortedMicros.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sortedMicros.length) - 1;
+            return sortedMicros[Math.max(0, index)] / 1000.0;
+        }
+    }
+
+    private static class ClientStats {
+        private long[] latenciesMicros = new long[1024];
+        private int count;
+        private long errors;
+
+        void record(long nanos, boolean ok) {
+            if (!ok) {
+                errors++;
+                return;
+            }
+            if (count == latenciesMicros.length) {
+                latenciesMicros = Arrays.copyOf(latenciesMicros, count * 2);
+            }
+            latenciesMicros[count++] = TimeUnit.NANOSECONDS.toMicros(nanos);
+        }
+    }
+
+    @Configuration
+    static class LatencyConfig {
+        @Bean
+        IoLatency ioLatency() {
+            return new IoLatency();
+        }
+    }
+
+    // Dorme dentro da leitura, como uma consulta que espera a rede: segura a thread da requisição sem usar CPU.
+    @Aspect
+    static class IoLatency {
+        @Around("execution(* com.orders.amcom.service.OrderService.getOrderByExternalId(..))")
+        public Object delay(ProceedingJoinPoint joinPoint) throws Throwable {
+            Thread.sleep(IO_LATENCY_MILLIS);
+            return joinPoint.proceed();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.orders.amcom.config;
+
+import com.orders.amcom.dto.OrderDto;
+import com.orders.amcom.enums.OrderStatus;
+import com.orders.amcom.exception.OrderException;
+import com.orders.amcom.model.Order;
+import com.orders.amcom.service.OrderService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+public class MetricsConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void serviceCalls_ShouldBeTimedWithPercentiles_AndFailuresCountedByException() throws Exception {
+        orderService.getAllOrders(OrderStatus.PENDING, null, null, PageRequest.of(0, 10));
+        OrderDto toPending = new OrderDto();
+        toPending.setStatus(OrderStatus.PENDING);
+        assertThrows(OrderException.class, () -> orderService.updateOrderStatus("ORD-METRICS", toPending));
+        assertThrows(IllegalArgumentException.class, () -> orderService.createOrder(emptyOrder()));
+
+        Timer queryTimer = meterRegistry.get("orders.query").tag("method", "getAllOrders").timer();
+        assertEquals(1, queryTimer.count());
+        assertEquals(3, queryTimer.takeSnapshot().percentileValues().length);
+        assertEquals(1.0, meterRegistry.get("orders.failures")
+                .tag("method", "updateOrderStatus")
+                .tag("exception", "OrderException")
+                .counter().count());
+        assertEquals(1.0, meterRegistry.get("orders.failures")
+                .tag("method", "createOrder")
+                .tag("exception", "IllegalArgumentException")
+                .counter().count());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("orders_query_seconds_bucket{")))
+                .andExpect(content().string(containsString("orders_failures_total{")))
+                .andExpect(content().string(containsString("orders_queue_depth")))
+                .andExpect(content().string(containsString("orders_listener_consumers{listener=\"orderListener\"}")));
+    }
+
+    private Order emptyOrder() {
+        Order order = new Order();
+        order.setProducts(new ArrayList<>());
+        return order;
+    }
+}
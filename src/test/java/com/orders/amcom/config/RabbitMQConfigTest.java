@@ -0,0 +1,40 @@
+package com.orders.amcom.config;
+
+import com.orders.amcom.listener.OrderRetryPolicy;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.Queue;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RabbitMQConfigTest {
+
+    private final RabbitMQConfig config = new RabbitMQConfig();
+
+    private static List<String> returnBindings(Declarables declarables) {
+        return declarables.getDeclarablesByType(Binding.class).stream()
+                .filter(binding -> RabbitMQConfig.RETRY_RETURN_EXCHANGE_NAME.equals(binding.getExchange()))
+                .map(Binding::getDestination)
+                .toList();
+    }
+
+    @Test
+    void orderPartitions_ShouldNotBindToRetryReturnExchange() {
+        // Com retentativas desligadas o exchange de volta não é declarado; uma ligação a ele derrubaria o canal.
+        assertTrue(returnBindings(config.orderPartitions(3)).isEmpty());
+    }
+
+    @Test
+    void orderRetryTopology_ShouldBindOrderQueueAndEveryPartition() {
+        OrderRetryPolicy retryPolicy = new OrderRetryPolicy(3, Duration.ofSeconds(1), 4, Duration.ofMinutes(5));
+
+        Declarables topology = config.orderRetryTopology(new Queue(RabbitMQConfig.QUEUE_NAME), retryPolicy, 2);
+
+        assertEquals(List.of(RabbitMQConfig.QUEUE_NAME, RabbitMQConfig.partitionQueueName(0), RabbitMQConfig.partitionQueueName(1)),
+                returnBindings(topology));
+    }
+}
@@ -0,0 +1,124 @@
+package com.orders.amcom.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Um banco H2 por instância; cada um responde o próprio nome, então a consulta mostra para onde a conexão foi.
+public class ReplicaRoutingDataSourceTest {
+
+    private final AtomicBoolean replicaDown = new AtomicBoolean();
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        routing = new ReplicaRoutingDataSource(database("primary"),
+                List.of(database("replica_a"), new FlakyDataSource(database("replica_b"))));
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:routing_" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("create table if not exists instance (name varchar(32))");
+        template.execute("delete from instance");
+        template.update("insert into instance (name) values (?)", name);
+        return dataSource;
+    }
+
+    private String instance() {
+        return jdbcTemplate.queryForObject("select name from instance", String.class);
+    }
+
+    @Test
+    void readWriteTransactions_ShouldUsePrimary() {
+        assertEquals("primary", readWrite.execute(status -> instance()));
+        assertEquals("primary", instance());
+    }
+
+    @Test
+    void readOnlyTransactions_ShouldRoundRobinAcrossReplicas() {
+        List<String> instances = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            instances.add(readOnly.execute(status -> instance()));
+        }
+
+        assertEquals(List.of("replica_a", "replica_b", "replica_a", "replica_b"), instances);
+    }
+
+    @Test
+    void onPrimary_ShouldOverrideReadOnlyRouting() {
+        assertEquals("primary", readOnly.execute(status -> ReplicaRoutingDataSource.onPrimary(this::instance)));
+        assertEquals("replica_a", readOnly.execute(status -> instance()));
+    }
+
+    @Test
+    void failedReplica_ShouldFallBackToPrimary_UntilHealthCheckPasses() {
+        replicaDown.set(true);
+        List<String> instances = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            instances.add(readOnly.execute(status -> instance()));
+        }
+        assertEquals(List.of("replica_a", "primary", "replica_a", "replica_a"), instances);
+        assertEquals(1, routing.healthyReplicas());
+
+        routing.checkReplicas(Duration.ofSeconds(1), Duration.ofSeconds(5));
+        assertEquals(1, routing.healthyReplicas());
+
+        replicaDown.set(false);
+        routing.checkReplicas(Duration.ofSeconds(1), Duration.ofSeconds(5));
+        assertEquals(2, routing.healthyReplicas());
+    }
+
+    @Test
+    void allReplicasDown_ShouldServeReadsFromPrimary() {
+        routing = new ReplicaRoutingDataSource(database("primary"), List.of(new FlakyDataSource(database("replica_a"))));
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnly.setReadOnly(true);
+        replicaDown.set(true);
+
+        assertEquals("primary", readOnly.execute(status -> instance()));
+        assertEquals(0, routing.healthyReplicas());
+        assertEquals("primary", readOnly.execute(status -> instance()));
+    }
+
+    // Simula a réplica fora do ar sem derrubar o banco em memória.
+    private class FlakyDataSource extends DelegatingDataSource {
+        FlakyDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (replicaDown.get()) {
+                throw new SQLException("Connection refused");
+            }
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.orders.amcom.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class SchedulingConfigTest {
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Autowired
+    @Qualifier(SchedulingConfig.MAINTENANCE_SCHEDULER)
+    private TaskScheduler maintenanceScheduler;
+
+    @Test
+    void defaultScheduler_ShouldKeepRunning_WhileMaintenanceJobIsBusy() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> maintenanceThread = new CompletableFuture<>();
+        CompletableFuture<String> heartbeatThread = new CompletableFuture<>();
+        maintenanceScheduler.schedule(() -> {
+            maintenanceThread.complete(Thread.currentThread().getName());
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, Instant.now());
+        try {
+            maintenanceThread.get(5, TimeUnit.SECONDS);
+            taskScheduler.schedule(() -> heartbeatThread.complete(Thread.currentThread().getName()), Instant.now());
+
+            assertNotEquals(maintenanceThread.get(), heartbeatThread.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+    }
+}
@@ -1,13 +1,29 @@
 package com.orders.amcom.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orders.amcom.dto.BulkStatusUpdateRequest;
+import com.orders.amcom.dto.BulkStatusUpdateResult;
+import com.orders.amcom.dto.CursorPage;
+import com.orders.amcom.dto.OrderDailyStatsDto;
 import com.orders.amcom.dto.OrderDto;
+import com.orders.amcom.dto.OrderStatsDto;
+import com.orders.amcom.dto.ParkedMessageDto;
+import com.orders.amcom.enums.BulkUpdateOutcome;
+import com.orders.amcom.enums.ExportFormat;
 import com.orders.amcom.enums.OrderStatus;
+import com.orders.amcom.exception.InvalidCursorException;
+import com.orders.amcom.exception.OrderConflictException;
 import com.orders.amcom.exception.OrderNotFoundException;
+import com.orders.amcom.model.Money;
 import com.orders.amcom.model.Order;
+import com.orders.amcom.service.OrderBulkStatusService;
+import com.orders.amcom.service.OrderExportService;
 import com.orders.amcom.service.OrderService;
+import com.orders.amcom.service.OrderStatsService;
+import com.orders.amcom.service.ParkedOrderService;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.amqp.AmqpException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -17,14 +33,24 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -39,6 +65,18 @@ public class OrderControllerTest {
     @MockBean
     private OrderService orderService;
 
+    @MockBean
+    private OrderExportService orderExportService;
+
+    @MockBean
+    private OrderBulkStatusService orderBulkStatusService;
+
+    @MockBean
+    private OrderStatsService orderStatsService;
+
+    @MockBean
+    private ParkedOrderService parkedOrderService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -47,7 +85,7 @@ public class OrderControllerTest {
         // Mocking the service
         Order mockOrder = new Order();
         mockOrder.setId(UUID.fromString("123e4567-e89b-12d3-a456-426614174000").toString());
-        mockOrder.setTotalAmount(BigDecimal.valueOf(100));
+        mockOrder.setTotalAmount(Money.of(BigDecimal.valueOf(100)));
         mockOrder.setStatus(OrderStatus.COMPLETED);
         mockOrder.setExternalId("ORD-123");
         mockOrder.setProducts(new ArrayList<>());
@@ -76,7 +114,7 @@ public class OrderControllerTest {
         // Prepare mock data
         Order mockOrder = new Order();
         mockOrder.setId(UUID.fromString("123e4567-e89b-12d3-a456-426614174000").toString());
-        mockOrder.setTotalAmount(BigDecimal.valueOf(100));
+        mockOrder.setTotalAmount(Money.of(BigDecimal.valueOf(100)));
         mockOrder.setStatus(OrderStatus.COMPLETED);
         mockOrder.setExternalId("ORD-123");
         mockOrder.setProducts(new ArrayList<>());
@@ -146,6 +184,23 @@ public class OrderControllerTest {
                 .andExpect(jsonPath("$.message").value("Order with externalId ORD-999 not found"));
     }
 
+    @Test
+    void updateOrderStatus_ShouldReturnConflict_WhenOrderWasUpdatedConcurrently() throws Exception {
+        String externalId = "ORD-123";
+        OrderDto orderDto = new OrderDto();
+        orderDto.setStatus(OrderStatus.COMPLETED);
+        orderDto.setVersion(0L);
+
+        Mockito.when(orderService.updateOrderStatus(Mockito.eq(externalId), Mockito.any(OrderDto.class)))
+                .thenThrow(new OrderConflictException("Order ORD-123 was modified concurrently; expected version 0."));
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/orders/{externalId}/status", externalId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderDto)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Order ORD-123 was modified concurrently; expected version 0."));
+    }
+
     @Test
     void processOrder_ShouldReturnSuccessMessage_WhenOrderIsProcessed() throws Exception {
         // Criação de um pedido de teste
@@ -154,12 +209,16 @@ public class OrderControllerTest {
         order.setStatus(OrderStatus.COMPLETED);
 
         // Mocking do comportamento do serviço
-        doNothing().when(orderService).processOrder(order);
+        when(orderService.processOrder(order)).thenReturn(CompletableFuture.completedFuture(null));
 
         // Realizando a requisição e verificando a resposta
-        mockMvc.perform(post("/api/orders/process")
+        MvcResult result = mockMvc.perform(post("/api/orders/process")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(order)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(content().string("Pedido processado com sucesso."));
 
@@ -177,15 +236,39 @@ public class OrderControllerTest {
         doThrow(new RuntimeException("Erro de processamento")).when(orderService).processOrder(order);
 
         // Realizando a requisição e verificando a resposta
-        mockMvc.perform(post("/api/orders/process")
+        MvcResult result = mockMvc.perform(post("/api/orders/process")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(order)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isInternalServerError())
                 .andExpect(content().string("Erro ao processar o pedido: Erro de processamento"));
 
         verify(orderService, times(1)).processOrder(order);
     }
 
+    @Test
+    void processOrder_ShouldReturnErrorMessage_WhenBrokerRejectsPublish() throws Exception {
+        Order order = new Order();
+        order.setExternalId("ORD-123");
+        order.setStatus(OrderStatus.COMPLETED);
+
+        when(orderService.processOrder(order)).thenReturn(
+                CompletableFuture.failedFuture(new AmqpException("Broker did not confirm order: nack")));
+
+        MvcResult result = mockMvc.perform(post("/api/orders/process")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(order)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isInternalServerError())
+                .andExpect(content().string("Erro ao processar o pedido: Broker did not confirm order: nack"));
+    }
+
     @Test
     void createOrder_ShouldReturnCreatedOrder_WhenValidData() throws Exception {
         // Criação de um pedido de entrada (DTO)
@@ -204,9 +287,13 @@ public class OrderControllerTest {
         when(orderService.createOrder(any(Order.class))).thenReturn(savedOrder);
 
         // Realizando a requisição e verificando a resposta
-        mockMvc.perform(post("/api/orders")
+        MvcResult result = mockMvc.perform(post("/api/orders")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(orderDto)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.externalId").value("ORD-123"))
                 .andExpect(jsonPath("$.status").value("PENDING"));
@@ -214,4 +301,163 @@ public class OrderControllerTest {
         verify(orderService, times(1)).createOrder(any(Order.class));
     }
 
+    @Test
+    void getOrdersByCursor_ShouldReturnCursorPage_WhenCursorModeIsRequested() throws Exception {
+        Order mockOrder = new Order();
+        mockOrder.setId(UUID.fromString("123e4567-e89b-12d3-a456-426614174000").toString());
+        mockOrder.setStatus(OrderStatus.PENDING);
+        mockOrder.setExternalId("ORD-123");
+        mockOrder.setProducts(new ArrayList<>());
+
+        CursorPage<Order> mockPage = new CursorPage<>(List.of(mockOrder), 1, true, "next-token");
+
+        Mockito.when(orderService.getOrdersByCursor(Mockito.eq(OrderStatus.PENDING), Mockito.any(), Mockito.any(),
+                        Mockito.eq(""), Mockito.eq(1)))
+                .thenReturn(mockPage);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/orders")
+                        .param("status", "PENDING")
+                        .param("cursor", "")
+                        .param("size", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].externalId").value("ORD-123"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.nextCursor").value("next-token"));
+    }
+
+    @Test
+    void getOrdersByCursor_ShouldReturnBadRequest_WhenCursorIsInvalid() throws Exception {
+        Mockito.when(orderService.getOrdersByCursor(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.eq("bad"), Mockito.anyInt()))
+                .thenThrow(new InvalidCursorException("bad"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/orders")
+                        .param("cursor", "bad")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid cursor: bad"));
+    }
+
+    @Test
+    void exportOrders_ShouldStreamCsv_WhenCsvFormatIsRequested() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(4);
+            outputStream.write("id,externalId\n1,ORD-123\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(orderExportService).export(Mockito.eq(OrderStatus.COMPLETED), Mockito.any(), Mockito.any(),
+                Mockito.eq(ExportFormat.CSV), Mockito.any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/export")
+                        .param("status", "COMPLETED")
+                        .param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"orders.csv\""))
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(content().string("id,externalId\n1,ORD-123\n"));
+    }
+
+    @Test
+    void exportOrders_ShouldUseItsOwnTimeout_WithoutChangingOtherAsyncEndpoints() throws Exception {
+        when(orderService.processOrder(Mockito.any())).thenReturn(new CompletableFuture<>());
+
+        MvcResult export = mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult process = mockMvc.perform(post("/api/orders/process")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"externalId\":\"ORD-123\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertEquals(Duration.ofMinutes(30).toMillis(), export.getRequest().getAsyncContext().getTimeout());
+        assertNotEquals(Duration.ofMinutes(30).toMillis(), process.getRequest().getAsyncContext().getTimeout());
+    }
+
+    @Test
+    void getOrder_ShouldReturnOrder_WhenExternalIdExists() throws Exception {
+        OrderDto orderDto = new OrderDto();
+        orderDto.setExternalId("ORD-123");
+        orderDto.setStatus(OrderStatus.PENDING);
+        orderDto.setProducts(new ArrayList<>());
+
+        Mockito.when(orderService.getOrderByExternalId("ORD-123")).thenReturn(orderDto);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/{externalId}", "ORD-123"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.externalId").value("ORD-123"))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+    }
+
+    @Test
+    void getOrder_ShouldReturnNotFound_WhenExternalIdDoesNotExist() throws Exception {
+        Mockito.when(orderService.getOrderByExternalId("ORD-999"))
+                .thenThrow(new OrderNotFoundException("Order not found: ORD-999"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/{externalId}", "ORD-999"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Order not found: ORD-999"));
+    }
+
+    @Test
+    void updateOrderStatuses_ShouldReturnOutcomePerExternalId() throws Exception {
+        BulkStatusUpdateResult bulkResult = new BulkStatusUpdateResult(OrderStatus.COMPLETED);
+        bulkResult.addAll(Map.of("ORD-1", BulkUpdateOutcome.UPDATED));
+        when(orderBulkStatusService.updateStatuses(any(BulkStatusUpdateRequest.class))).thenReturn(bulkResult);
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/orders/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"externalIds\":[\"ORD-1\"],\"status\":\"COMPLETED\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.outcomes.ORD-1").value("UPDATED"));
+    }
+
+    @Test
+    void getStats_ShouldAnswerFromStatsService() throws Exception {
+        LocalDate day = LocalDate.of(2024, 1, 1);
+        OrderStatsDto stats = new OrderStatsDto(
+                List.of(new OrderDailyStatsDto(day, OrderStatus.PENDING, 2, new BigDecimal("15.00"))), 2, new BigDecimal("15.00"));
+        when(orderStatsService.getStats(OrderStatus.PENDING, day, day)).thenReturn(stats);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/stats")
+                        .param("status", "PENDING")
+                        .param("startDate", "2024-01-01")
+                        .param("endDate", "2024-01-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orderCount").value(2))
+                .andExpect(jsonPath("$.days[0].date").value("2024-01-01"))
+                .andExpect(jsonPath("$.days[0].totalAmount").value(15.00));
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    void rebuildStats_ShouldReturnAccepted_WithoutWaitingForTheSnapshot() throws Exception {
+        when(orderStatsService.rebuild()).thenReturn(new CompletableFuture<>());
+
+        mockMvc.perform(post("/api/orders/stats/rebuild"))
+                .andExpect(status().isAccepted());
+        verify(orderStatsService).rebuild();
+    }
+
+    @Test
+    void parkedMessages_ShouldBeListedAndReplayed() throws Exception {
+        ParkedMessageDto parked = new ParkedMessageDto("msg-1", "order-queue", 1, IllegalArgumentException.class.getName(),
+                "The order must contain at least one product.", "2024-01-01T00:00:00Z", "application/json", "{}");
+        when(parkedOrderService.peek(10)).thenReturn(List.of(parked));
+        when(parkedOrderService.replay(100)).thenReturn(1);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/parked").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].messageId").value("msg-1"))
+                .andExpect(jsonPath("$[0].originalQueue").value("order-queue"))
+                .andExpect(jsonPath("$[0].exceptionType").value(IllegalArgumentException.class.getName()));
+
+        mockMvc.perform(post("/api/orders/parked/replay"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.replayed").value(1));
+    }
 }
@@ -0,0 +1,147 @@
+package com.orders.amcom.converter;
+
+import com.orders.amcom.enums.OrderMessageFormat;
+import com.orders.amcom.enums.OrderStatus;
+import com.orders.amcom.model.Money;
+import com.orders.amcom.model.Order;
+import com.orders.amcom.model.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderMessageConverterTest {
+
+    private final OrderMessageConverter binary = new OrderMessageConverter(OrderMessageFormat.BINARY, 1024);
+    private final OrderMessageConverter json = new OrderMessageConverter(OrderMessageFormat.JSON, 1024);
+
+    static Order order(int products) {
+        Order order = new Order();
+        order.setId("6f1c2a9e-5d7b-4f0e-9a51-2b8c3d4e5f60");
+        order.setExternalId("ORD-1754398712345");
+        order.setMessageId("msg-1");
+        order.setStatus(OrderStatus.PENDING);
+        order.setVersion(3L);
+        order.setTotalAmount(Money.of(new BigDecimal("1234.56")));
+        order.setCreatedAt(LocalDateTime.of(2024, 5, 1, 10, 15, 30, 123_456_000));
+        order.setUpdatedAt(null);
+        List<Product> items = new ArrayList<>();
+        for (int i = 0; i < products; i++) {
+            Product product = new Product();
+            product.setName("Produto " + i);
+            product.setPrice(Money.of(new BigDecimal("19.90")));
+            product.setQuantity(i + 1);
+            items.add(product);
+        }
+        order.setProducts(items);
+        return order;
+    }
+
+    private Message inbound(Message outbound) {
+        MessageProperties properties = outbound.getMessageProperties();
+        properties.setInferredArgumentType(Order.class);
+        return new Message(outbound.getBody(), properties);
+    }
+
+    @Test
+    void binary_ShouldRoundTripEveryField() {
+        Order original = order(3);
+        original.getProducts().get(1).setPrice(null);
+
+        Message message = binary.toMessage(original, new MessageProperties());
+        Order decoded = (Order) binary.fromMessage(inbound(message));
+
+        assertEquals(OrderBinaryMessageConverter.CONTENT_TYPE, message.getMessageProperties().getContentType());
+        assertEquals(OrderBinaryMessageConverter.FORMAT_VERSION, message.getBody()[0]);
+        assertEquals(original.getId(), decoded.getId());
+        assertEquals(original.getExternalId(), decoded.getExternalId());
+        assertEquals(original.getMessageId(), decoded.getMessageId());
+        assertEquals(original.getStatus(), decoded.getStatus());
+        assertEquals(original.getVersion(), decoded.getVersion());
+        assertEquals(original.getTotalAmount(), decoded.getTotalAmount());
+        assertEquals(original.getCreatedAt(), decoded.getCreatedAt());
+        assertNull(decoded.getUpdatedAt());
+        assertEquals(3, decoded.getProducts().size());
+        assertEquals("Produto 2", decoded.getProducts().get(2).getName());
+        assertEquals(3, decoded.getProducts().get(2).getQuantity());
+        assertNull(decoded.getProducts().get(1).getPrice());
+    }
+
+    @Test
+    void binary_ShouldCompressAboveThreshold_AndStaySmallerThanJson() {
+        Message small = binary.toMessage(order(1), new MessageProperties());
+        Message large = binary.toMessage(order(200), new MessageProperties());
+        Message largeJson = json.toMessage(order(200), new MessageProperties());
+
+        assertEquals(0, small.getBody()[1] & OrderBinaryMessageConverter.COMPRESSED);
+        assertEquals(OrderBinaryMessageConverter.COMPRESSED, large.getBody()[1] & OrderBinaryMessageConverter.COMPRESSED);
+        assertTrue(large.getBody().length < largeJson.getBody().length);
+        assertEquals(200, ((Order) binary.fromMessage(inbound(large))).getProducts().size());
+    }
+
+    @Test
+    void converter_ShouldReadBothFormats_RegardlessOfOutboundSetting() {
+        Message fromJsonProducer = json.toMessage(order(2), new MessageProperties());
+        Message fromBinaryProducer = binary.toMessage(order(2), new MessageProperties());
+
+        assertEquals(MessageProperties.CONTENT_TYPE_JSON, fromJsonProducer.getMessageProperties().getContentType());
+        assertEquals("ORD-1754398712345", ((Order) binary.fromMessage(inbound(fromJsonProducer))).getExternalId());
+        assertEquals("ORD-1754398712345", ((Order) json.fromMessage(inbound(fromBinaryProducer))).getExternalId());
+    }
+
+    @Test
+    void converter_ShouldKeepNonOrderPayloadsAsJson() {
+        Message message = binary.toMessage(List.of("ORD-1", "ORD-2"), new MessageProperties());
+
+        assertEquals(MessageProperties.CONTENT_TYPE_JSON, message.getMessageProperties().getContentType());
+    }
+
+    @Test
+    void binary_ShouldRejectUnknownFormatVersion() {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(OrderBinaryMessageConverter.CONTENT_TYPE);
+
+        assertThrows(MessageConversionException.class, () -> binary.fromMessage(new Message(new byte[]{9, 0}, properties)));
+    }
+
+    @Test
+    void binary_ShouldRejectLengthPrefixLargerThanTheRemainingPayload() {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(OrderBinaryMessageConverter.CONTENT_TYPE);
+        // id declarado com ~2 GiB em uma mensagem de 7 bytes
+        byte[] payload = {OrderBinaryMessageConverter.FORMAT_VERSION, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+
+        MessageConversionException error = assertThrows(MessageConversionException.class,
+                () -> binary.fromMessage(new Message(payload, properties)));
+        assertTrue(error.getMessage().contains("exceeds the 0 remaining bytes"));
+    }
+
+    @Test
+    void binary_ShouldStopInflating_AtTheMaxDecodedSize() {
+        OrderMessageConverter limited = new OrderMessageConverter(OrderMessageFormat.BINARY, 1024, 64 * 1024);
+        Deflater deflater = new Deflater();
+        deflater.setInput(new byte[1024 * 1024]);
+        deflater.finish();
+        byte[] compressed = new byte[8192];
+        int length = deflater.deflate(compressed);
+        deflater.end();
+        byte[] payload = new byte[length + 2];
+        payload[0] = OrderBinaryMessageConverter.FORMAT_VERSION;
+        payload[1] = OrderBinaryMessageConverter.COMPRESSED;
+        System.arraycopy(compressed, 0, payload, 2, length);
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(OrderBinaryMessageConverter.CONTENT_TYPE);
+
+        MessageConversionException error = assertThrows(MessageConversionException.class,
+                () -> limited.fromMessage(new Message(payload, properties)));
+        assertTrue(error.getMessage().contains("beyond the limit of 65536 bytes"));
+    }
+}
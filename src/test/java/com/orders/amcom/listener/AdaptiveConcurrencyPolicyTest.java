@@ -0,0 +1,104 @@
+package com.orders.amcom.listener;
+
+import com.orders.amcom.listener.AdaptiveConcurrencyPolicy.Decision;
+import com.orders.amcom.listener.AdaptiveConcurrencyPolicy.Reason;
+import com.orders.amcom.listener.AdaptiveConcurrencyPolicy.Sample;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveConcurrencyPolicyTest {
+    private static final int POOL_SIZE = 20;
+
+    private final AdaptiveConcurrencyPolicy policy = new AdaptiveConcurrencyPolicy(2, 40, 10, 500,
+            Duration.ofSeconds(5), Duration.ofMillis(50), 0.75, 0.25);
+
+    @Test
+    void poolSaturation_ShouldCutConsumersAndPrefetch() {
+        Decision decision = policy.decide(new Sample(10_000, 24, 200, 1.0, 400, 4, Duration.ofMillis(300)));
+
+        assertEquals(Reason.POOL_SATURATED, decision.reason());
+        assertEquals(18, decision.consumers());
+        assertEquals(100, decision.prefetch());
+    }
+
+    @Test
+    void backlogWithIdleConsumers_ShouldRaisePrefetchInsteadOfConsumers() {
+        Decision decision = policy.decide(new Sample(5_000, 10, 10, 0.3, 100, 0, Duration.ZERO));
+
+        assertEquals(Reason.PREFETCH_STARVED, decision.reason());
+        assertEquals(10, decision.consumers());
+        assertEquals(20, decision.prefetch());
+    }
+
+    @Test
+    void simulation_ShouldFollowLoadAndStayWithinThePool() {
+        Simulation simulation = new Simulation(2, 250);
+
+        // Carga moderada: 100/s pedem 5 consumidores; a fila acumulada no início precisa drenar.
+        simulation.run(120, 100, 20);
+        assertTrue(simulation.depth < 500, "backlog not drained: " + simulation.depth);
+        assertTrue(simulation.consumers >= 5 && simulation.consumers <= 12, "consumers: " + simulation.consumers);
+
+        // Pico acima do que o pool aguenta: cresce até o pool e oscila em volta dele, sem ficar esperando conexão.
+        List<Tick> spike = simulation.run(120, 600, 20);
+        List<Tick> settled = spike.subList(60, spike.size());
+        assertTrue(spike.stream().mapToInt(Tick::consumers).max().orElseThrow() >= POOL_SIZE);
+        assertTrue(average(settled) <= POOL_SIZE + 2, "average consumers during spike: " + average(settled));
+        assertTrue(settled.stream().filter(tick -> tick.pending() > 0).count() <= settled.size() / 2,
+                "threads waited for the pool in most intervals");
+
+        // Banco lento (consultas 4x mais demoradas) com a mesma chegada: de novo limitado pelo pool, não pela fila.
+        List<Tick> slowdown = simulation.run(120, 100, 5);
+        assertTrue(average(slowdown.subList(60, slowdown.size())) <= POOL_SIZE + 2);
+
+        // Sem carga: volta ao mínimo.
+        simulation.run(120, 0, 20);
+        assertEquals(0, simulation.depth);
+        assertEquals(2, simulation.consumers);
+    }
+
+    private static double average(List<Tick> ticks) {
+        return ticks.stream().mapToInt(Tick::consumers).average().orElseThrow();
+    }
+
+    private record Tick(int consumers, int prefetch, long depth, int pending) {
+    }
+
+    // Fila e pool de conexões num passo de 1s: cada conexão atende serviceRate mensagens/s, cada consumidor recebe
+    // no máximo 4 rodadas de prefetch por segundo e quem passa do tamanho do pool fica esperando conexão.
+    private class Simulation {
+        private int consumers;
+        private int prefetch;
+        private long depth;
+
+        Simulation(int consumers, int prefetch) {
+            this.consumers = consumers;
+            this.prefetch = prefetch;
+        }
+
+        List<Tick> run(int seconds, int arrivalsPerSecond, int serviceRate) {
+            List<Tick> ticks = new ArrayList<>(seconds);
+            for (int second = 0; second < seconds; second++) {
+                long backlog = depth + arrivalsPerSecond;
+                int perConsumer = Math.min(serviceRate, prefetch * 4);
+                int withWork = (int) Math.min(consumers, (backlog + perConsumer - 1) / perConsumer);
+                int pending = Math.max(0, withWork - POOL_SIZE);
+                long processed = Math.min(backlog, (long) Math.min(consumers, POOL_SIZE) * perConsumer);
+                depth = backlog - processed;
+
+                double utilization = Math.min(1.0, ((double) processed / serviceRate + pending) / consumers);
+                Decision decision = policy.decide(new Sample(depth, consumers, prefetch, utilization, processed,
+                        pending, pending > 0 ? Duration.ofMillis(200) : Duration.ZERO));
+                ticks.add(new Tick(consumers, prefetch, depth, pending));
+                consumers = decision.consumers();
+                prefetch = decision.prefetch();
+            }
+            return ticks;
+        }
+    }
+}
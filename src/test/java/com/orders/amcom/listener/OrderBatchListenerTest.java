@@ -0,0 +1,79 @@
+package com.orders.amcom.listener;
+
+import com.orders.amcom.converter.OrderMessageConverter;
+import com.orders.amcom.enums.OrderMessageFormat;
+import com.orders.amcom.model.Order;
+import com.orders.amcom.repository.OrderRepository;
+import com.orders.amcom.service.IdempotencyService;
+import com.orders.amcom.service.OrderBatchService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderBatchListenerTest {
+
+    private final OrderBatchService orderBatchService = Mockito.mock(OrderBatchService.class);
+    private final OrderRetryRecoverer retryRecoverer = Mockito.mock(OrderRetryRecoverer.class);
+    private final OrderMessageConverter messageConverter = new OrderMessageConverter(OrderMessageFormat.JSON, 1024);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OrderBatchListener listener = new OrderBatchListener(orderBatchService,
+            new IdempotencyService(Mockito.mock(OrderRepository.class), meterRegistry, 10_000, 0.01),
+            messageConverter, meterRegistry, retryRecoverer);
+
+    private Message message(String messageId) {
+        MessageProperties properties = new MessageProperties();
+        properties.setMessageId(messageId);
+        return messageConverter.toMessage(new Order(), properties);
+    }
+
+    private static Message unreadable() {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        return new Message("{not json".getBytes(StandardCharsets.UTF_8), properties);
+    }
+
+    private static List<Order> withMessageIds(String... messageIds) {
+        return Mockito.argThat(orders -> orders != null
+                && orders.stream().map(Order::getMessageId).toList().equals(List.of(messageIds)));
+    }
+
+    @Test
+    void processMessages_ShouldSendUnreadableAndInvalidMessagesToRecoverer() {
+        Message valid = message("msg-1");
+        Message invalid = message("msg-2");
+        Message garbage = unreadable();
+        Mockito.when(orderBatchService.createOrders(withMessageIds("msg-1", "msg-2"))).thenAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            return new OrderBatchService.Result(List.of(orders.get(0)),
+                    List.of(new OrderBatchService.Rejected(orders.get(1), new IllegalArgumentException("no products"))));
+        });
+
+        listener.processMessages(List.of(valid, invalid, garbage));
+
+        Mockito.verify(retryRecoverer).recover(Mockito.same(invalid), Mockito.any(IllegalArgumentException.class));
+        Mockito.verify(retryRecoverer).recover(Mockito.same(garbage), Mockito.any(MessageConversionException.class));
+        Mockito.verifyNoMoreInteractions(retryRecoverer);
+        assertEquals(2.0, meterRegistry.find(OrderBatchListener.REJECTED_METRIC).counters().stream()
+                .mapToDouble(counter -> counter.count()).sum());
+    }
+
+    @Test
+    void processMessages_ShouldPropagateTransientFailure_WithoutParkingAnything() {
+        Mockito.when(orderBatchService.createOrders(Mockito.anyList())).thenThrow(new QueryTimeoutException("lock timeout"));
+
+        assertThrows(QueryTimeoutException.class, () -> listener.processMessages(List.of(message("msg-1"), unreadable())));
+
+        // O lote inteiro segue para o recoverer do container; estacionar agora duplicaria a mensagem ilegível.
+        Mockito.verifyNoInteractions(retryRecoverer);
+    }
+}
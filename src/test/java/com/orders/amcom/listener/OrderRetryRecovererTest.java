@@ -0,0 +1,110 @@
+package com.orders.amcom.listener;
+
+import com.orders.amcom.config.RabbitMQConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.ListenerExecutionFailedException;
+import org.springframework.dao.TransientDataAccessResourceException;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderRetryRecovererTest {
+
+    private final RabbitTemplate rabbitTemplate = Mockito.mock(RabbitTemplate.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OrderRetryPolicy retryPolicy = new OrderRetryPolicy(3, Duration.ofSeconds(1), 4, Duration.ofMinutes(5));
+    private OrderRetryRecoverer recoverer;
+
+    @BeforeEach
+    void setUp() {
+        ConnectionFactory connectionFactory = Mockito.mock(ConnectionFactory.class);
+        Mockito.when(rabbitTemplate.getConnectionFactory()).thenReturn(connectionFactory);
+        recoverer = new OrderRetryRecoverer(rabbitTemplate, retryPolicy, meterRegistry, Duration.ofSeconds(1), true);
+    }
+
+    @Test
+    void policy_ShouldBackOffExponentiallyUpToMaxDelay() {
+        OrderRetryPolicy policy = new OrderRetryPolicy(6, Duration.ofSeconds(1), 10, Duration.ofMinutes(5));
+
+        assertEquals(List.of(Duration.ofSeconds(1), Duration.ofSeconds(10), Duration.ofSeconds(100), Duration.ofMinutes(5)),
+                policy.getDelays());
+        assertEquals(Duration.ofMinutes(5), policy.delayAfter(5));
+    }
+
+    @Test
+    void transientFailure_ShouldGoToDelayQueueWithAttemptCount() {
+        recoverer.recover(message(), failure(new TransientDataAccessResourceException("connection reset")));
+
+        Message retry = sent(RabbitMQConfig.RETRY_EXCHANGE_NAME, RabbitMQConfig.retryQueueName(Duration.ofSeconds(1)));
+        assertEquals(1, (Integer) retry.getMessageProperties().getHeader(OrderRetryRecoverer.RETRY_ATTEMPTS_HEADER));
+        assertEquals(RabbitMQConfig.QUEUE_NAME, retry.getMessageProperties().getHeader(OrderRetryRecoverer.RETRY_TARGET_HEADER));
+
+        recoverer.recover(retry, failure(new TransientDataAccessResourceException("connection reset")));
+
+        Message secondRetry = sent(RabbitMQConfig.RETRY_EXCHANGE_NAME, RabbitMQConfig.retryQueueName(Duration.ofSeconds(4)));
+        assertEquals(2, (Integer) secondRetry.getMessageProperties().getHeader(OrderRetryRecoverer.RETRY_ATTEMPTS_HEADER));
+    }
+
+    @Test
+    void nonRetryableFailure_ShouldBeParkedImmediately() {
+        recoverer.recover(message(), failure(new IllegalArgumentException("The order must contain at least one product.")));
+
+        Message parked = sent("", RabbitMQConfig.PARKING_QUEUE_NAME);
+        assertEquals(IllegalArgumentException.class.getName(),
+                parked.getMessageProperties().getHeader(OrderRetryRecoverer.EXCEPTION_TYPE_HEADER));
+        assertNotNull(parked.getMessageProperties().getHeader(OrderRetryRecoverer.PARKED_AT_HEADER));
+        assertEquals(1.0, meterRegistry.get("orders.retry.parked").counter().count());
+    }
+
+    @Test
+    void exhaustedRetries_ShouldBeParked() {
+        Message message = message();
+        message.getMessageProperties().setHeader(OrderRetryRecoverer.RETRY_ATTEMPTS_HEADER, 2);
+
+        recoverer.recover(message, failure(new TransientDataAccessResourceException("connection reset")));
+
+        Message parked = sent("", RabbitMQConfig.PARKING_QUEUE_NAME);
+        assertEquals(3, (Integer) parked.getMessageProperties().getHeader(OrderRetryRecoverer.RETRY_ATTEMPTS_HEADER));
+    }
+
+    @Test
+    void retryDisabled_ShouldParkInsteadOfUsingMissingDelayQueues() {
+        OrderRetryRecoverer withoutRetry = new OrderRetryRecoverer(rabbitTemplate, retryPolicy, meterRegistry,
+                Duration.ofSeconds(1), false);
+
+        withoutRetry.recover(message(), failure(new TransientDataAccessResourceException("connection reset")));
+
+        sent("", RabbitMQConfig.PARKING_QUEUE_NAME);
+        Mockito.verify(rabbitTemplate, Mockito.never())
+                .send(Mockito.eq(RabbitMQConfig.RETRY_EXCHANGE_NAME), Mockito.anyString(), Mockito.any(Message.class));
+    }
+
+    private Message message() {
+        MessageProperties properties = new MessageProperties();
+        properties.setMessageId("msg-1");
+        properties.setConsumerQueue(RabbitMQConfig.QUEUE_NAME);
+        return new Message("{}".getBytes(), properties);
+    }
+
+    private Throwable failure(Throwable cause) {
+        return new ListenerExecutionFailedException("Listener threw exception", cause);
+    }
+
+    private Message sent(String exchange, String routingKey) {
+        ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+        Mockito.verify(rabbitTemplate, Mockito.atLeastOnce())
+                .send(Mockito.eq(exchange), Mockito.eq(routingKey), captor.capture());
+        return captor.getValue();
+    }
+}
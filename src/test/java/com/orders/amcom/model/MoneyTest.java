@@ -0,0 +1,85 @@
+package com.orders.amcom.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orders.amcom.dto.ProductDto;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoneyTest {
+
+    @Test
+    void rounded_ShouldRoundHalfUpToTwoDecimals_LikeTheNumericColumn() {
+        assertEquals(1235, Money.of("12.345").rounded().getMinorUnits());
+        assertEquals(-1235, Money.of("-12.345").rounded().getMinorUnits());
+        assertEquals(new BigDecimal("12.30"), Money.of("12.3").toBigDecimal());
+        assertEquals(Money.of("10"), Money.of(new BigDecimal("10.000")));
+        assertTrue(Money.of("10.000").isCompact());
+    }
+
+    @Test
+    void of_ShouldKeepSubCentPrices_UntilTheTotalIsRounded() throws Exception {
+        Money price = new ObjectMapper().readValue("{\"price\":1.005}", ProductDto.class).getPrice();
+        assertEquals(new BigDecimal("1.005"), price.toBigDecimal());
+        assertThrows(ArithmeticException.class, price::getMinorUnits);
+
+        // 1.005 × 3 = 3.015 → 3.02; arredondar o preço antes daria 1.01 × 3 = 3.03
+        assertEquals(Money.of("3.02"), new Money.Sum().add(price, 3).toMoney());
+        assertEquals(Money.of("3.03"), new Money.Sum().add(price, 2).add(Money.of("1.015"), 1).toMoney());
+    }
+
+    @Test
+    void arithmetic_ShouldStayCompact_UntilItOverflowsLong() {
+        Money price = Money.of("19.90");
+        assertEquals(Money.of("59.70"), price.times(3));
+        assertTrue(price.times(3).isCompact());
+
+        Money huge = Money.ofMinor(Long.MAX_VALUE);
+        Money doubled = huge.times(2);
+        assertFalse(doubled.isCompact());
+        assertEquals(BigDecimal.valueOf(Long.MAX_VALUE, 2).multiply(BigDecimal.valueOf(2)), doubled.toBigDecimal());
+        assertThrows(ArithmeticException.class, doubled::getMinorUnits);
+
+        Money sum = huge.plus(Money.ofMinor(1));
+        assertFalse(sum.isCompact());
+        assertEquals(huge, sum.plus(Money.ofMinor(-1)));
+        assertTrue(sum.plus(Money.ofMinor(-1)).isCompact());
+    }
+
+    @Test
+    void sum_ShouldMatchBigDecimalArithmetic_OnBothPaths() {
+        Money.Sum small = new Money.Sum();
+        small.add(Money.of("10.50"), 2).add(Money.of("0.01"), 7);
+        assertEquals(Money.of("21.07"), small.toMoney());
+
+        Money.Sum overflowing = new Money.Sum();
+        overflowing.add(Money.ofMinor(Long.MAX_VALUE / 2), 3).add(Money.of("1.00"), 1);
+        BigDecimal expected = BigDecimal.valueOf(Long.MAX_VALUE / 2, 2).multiply(BigDecimal.valueOf(3)).add(BigDecimal.ONE);
+        assertEquals(0, expected.compareTo(overflowing.toMoney().toBigDecimal()));
+    }
+
+    @Test
+    void json_ShouldKeepTheNumericRepresentation() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ProductDto dto = new ProductDto();
+        dto.setPrice(Money.of("10.50"));
+
+        String json = objectMapper.writeValueAsString(dto);
+        assertTrue(json.contains("\"price\":10.50"));
+        assertEquals(Money.of("10.5"), objectMapper.readValue("{\"price\":10.5}", ProductDto.class).getPrice());
+        assertEquals(Money.of("7"), objectMapper.readValue("{\"price\":7}", ProductDto.class).getPrice());
+    }
+
+    @Test
+    void converter_ShouldMapToScaleTwoDecimal() {
+        MoneyConverter converter = new MoneyConverter();
+
+        assertEquals(new BigDecimal("3.10"), converter.convertToDatabaseColumn(Money.of("3.1")));
+        assertEquals(new BigDecimal("1.01"), converter.convertToDatabaseColumn(Money.of("1.005")));
+        assertEquals(Money.ofMinor(310), converter.convertToEntityAttribute(new BigDecimal("3.10")));
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+}
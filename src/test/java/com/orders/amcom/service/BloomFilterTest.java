@@ -0,0 +1,42 @@
+package com.orders.amcom.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BloomFilterTest {
+
+    @Test
+    void mightContain_ShouldNeverMissInsertedKeys_AndKeepFalsePositivesNearTheConfiguredRate() {
+        int insertions = 100_000;
+        BloomFilter filter = new BloomFilter(insertions, 0.01);
+
+        String[] keys = new String[insertions];
+        for (int i = 0; i < insertions; i++) {
+            keys[i] = UUID.randomUUID().toString();
+            filter.put(keys[i]);
+        }
+        for (String key : keys) {
+            assertTrue(filter.mightContain(key));
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < probes * 0.02, "False positive rate too high: " + falsePositives);
+    }
+
+    @Test
+    void constructor_ShouldSizeBitsAndHashesFromConfig() {
+        BloomFilter filter = new BloomFilter(1_000_000, 0.01);
+
+        assertTrue(filter.getBitCount() >= 9_585_059);
+        assertEquals(7, filter.getHashCount());
+    }
+}
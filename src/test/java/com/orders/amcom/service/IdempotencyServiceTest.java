@@ -0,0 +1,91 @@
+package com.orders.amcom.service;
+
+import com.orders.amcom.model.Order;
+import com.orders.amcom.repository.OrderRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdempotencyServiceTest {
+
+    private OrderRepository orderRepository;
+    private MeterRegistry meterRegistry;
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository = Mockito.mock(OrderRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        idempotencyService = new IdempotencyService(orderRepository, meterRegistry, 10_000, 0.01);
+    }
+
+    private double counter(String name) {
+        return meterRegistry.counter(name).count();
+    }
+
+    private Order order(String messageId) {
+        Order order = new Order();
+        order.setMessageId(messageId);
+        return order;
+    }
+
+    @Test
+    void isDuplicate_ShouldNotQueryDatabase_ForUnseenMessages() {
+        assertFalse(idempotencyService.isDuplicate("msg-1"));
+        assertFalse(idempotencyService.isDuplicate(null));
+
+        Mockito.verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void isDuplicate_ShouldConfirmWithDatabase_ForProcessedMessages() {
+        idempotencyService.markProcessed("msg-1");
+        Mockito.when(orderRepository.existsByMessageId("msg-1")).thenReturn(true);
+
+        assertTrue(idempotencyService.isDuplicate("msg-1"));
+        assertEquals(1.0, counter("orders.idempotency.duplicates.dropped"));
+    }
+
+    @Test
+    void isDuplicate_ShouldCountFalsePositive_WhenDatabaseHasNoSuchMessage() {
+        idempotencyService.markProcessed("msg-1");
+        Mockito.when(orderRepository.existsByMessageId("msg-1")).thenReturn(false);
+
+        assertFalse(idempotencyService.isDuplicate("msg-1"));
+        assertEquals(1.0, counter("orders.idempotency.false.positive.checks"));
+    }
+
+    @Test
+    void filterDuplicates_ShouldDropProcessedAndRepeatedMessages_WithOneQuery() {
+        idempotencyService.markProcessed("msg-old");
+        Mockito.when(orderRepository.findExistingMessageIds(List.of("msg-old"))).thenReturn(List.of("msg-old"));
+
+        Order old = order("msg-old");
+        Order fresh = order("msg-new");
+        Order repeated = order("msg-new");
+        Order withoutId = order(null);
+
+        List<Order> result = idempotencyService.filterDuplicates(List.of(old, fresh, repeated, withoutId));
+
+        assertEquals(2, result.size());
+        assertSame(fresh, result.get(0));
+        assertSame(withoutId, result.get(1));
+        assertEquals(2.0, counter("orders.idempotency.duplicates.dropped"));
+        Mockito.verify(orderRepository, Mockito.times(1)).findExistingMessageIds(Mockito.anyCollection());
+    }
+
+    @Test
+    void isConfirmedDuplicate_ShouldRememberMessage_WhenUniqueConstraintCaughtIt() {
+        Mockito.when(orderRepository.existsByMessageId("msg-1")).thenReturn(true);
+
+        assertTrue(idempotencyService.isConfirmedDuplicate("msg-1"));
+        assertTrue(idempotencyService.isDuplicate("msg-1"));
+        assertEquals(2.0, counter("orders.idempotency.duplicates.dropped"));
+    }
+}
@@ -0,0 +1,93 @@
+package com.orders.amcom.service;
+
+import com.orders.amcom.config.IdGeneratorConfig;
+import com.orders.amcom.repository.LeaseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Cada LeaseService tem um dono próprio, então duas instâncias sobre o mesmo banco fazem o papel de duas réplicas.
+@SpringBootTest
+public class LeaseServiceTest {
+    private static final String LEASE = "lease-service-test";
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    @Autowired
+    private LeaseRepository leaseRepository;
+
+    @AfterEach
+    void tearDown() {
+        leaseRepository.deleteById(LEASE);
+    }
+
+    private static long nodeIdOf(String externalId) {
+        return SnowflakeExternalIdGenerator.nodeIdOf(Long.parseLong(externalId.replaceAll("\\D", "")));
+    }
+
+    @Test
+    void tryAcquire_ShouldGrantLeaseToOneOwnerAtATime() {
+        LeaseService first = new LeaseService(leaseRepository);
+        LeaseService second = new LeaseService(leaseRepository);
+
+        assertTrue(first.tryAcquire(LEASE, TTL));
+        assertTrue(first.tryAcquire(LEASE, TTL));
+        assertFalse(second.tryAcquire(LEASE, TTL));
+        assertFalse(second.renew(LEASE, TTL));
+
+        first.release(LEASE);
+        assertTrue(second.tryAcquire(LEASE, TTL));
+    }
+
+    @Test
+    void tryAcquire_ShouldTakeOverExpiredLease() {
+        LeaseService first = new LeaseService(leaseRepository);
+        LeaseService second = new LeaseService(leaseRepository);
+
+        assertTrue(first.tryAcquire(LEASE, Duration.ofSeconds(-1)));
+        assertTrue(second.tryAcquire(LEASE, TTL));
+        assertFalse(first.renew(LEASE, TTL));
+        assertEquals(second.getOwner(), leaseRepository.findById(LEASE).orElseThrow().getOwner());
+    }
+
+    @Test
+    void tryAcquireExclusive_ShouldRefuseLeaseAlreadyHeldByTheSameInstance() {
+        LeaseService leaseService = new LeaseService(leaseRepository);
+
+        assertTrue(leaseService.tryAcquireExclusive(LEASE, TTL));
+        assertFalse(leaseService.tryAcquireExclusive(LEASE, TTL));
+
+        leaseService.release(LEASE);
+        assertTrue(leaseService.tryAcquireExclusive(LEASE, TTL));
+    }
+
+    @Test
+    void externalIdGenerator_ShouldLeaseDistinctNodeIds_WhenNodeIdIsUnset() {
+        IdGeneratorConfig first = new IdGeneratorConfig(new LeaseService(leaseRepository), TTL);
+        IdGeneratorConfig second = new IdGeneratorConfig(new LeaseService(leaseRepository), TTL);
+        try {
+            long firstNode = nodeIdOf(first.externalIdGenerator("").nextId());
+            long secondNode = nodeIdOf(second.externalIdGenerator("").nextId());
+
+            assertNotEquals(firstNode, secondNode);
+        } finally {
+            first.releaseNodeLease();
+            second.releaseNodeLease();
+        }
+    }
+
+    @Test
+    void externalIdGenerator_ShouldRefuseIds_AfterLeaseIsLost() {
+        IdGeneratorConfig config = new IdGeneratorConfig(new LeaseService(leaseRepository), TTL);
+        ExternalIdGenerator generator = config.externalIdGenerator("");
+        generator.nextId();
+
+        config.releaseNodeLease();
+
+        assertThrows(IllegalStateException.class, generator::nextId);
+    }
+}
@@ -0,0 +1,122 @@
+package com.orders.amcom.service;
+
+import com.orders.amcom.dto.OrderDto;
+import com.orders.amcom.enums.OrderStatus;
+import com.orders.amcom.model.Money;
+import com.orders.amcom.model.Order;
+import com.orders.amcom.model.Product;
+import com.orders.amcom.repository.LeaseRepository;
+import com.orders.amcom.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"orders.archive.enabled=true", "orders.archive.retention=30d", "orders.archive.chunk-size=2"})
+public class OrderArchiveServiceTest {
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderStatsService orderStatsService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private LeaseRepository leaseRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from products_archive");
+        jdbcTemplate.update("delete from orders_archive");
+        orderRepository.deleteAll();
+        orderStatsService.rebuild().join();
+    }
+
+    private Order createOrder(LocalDateTime createdAt, OrderStatus status) {
+        Product product = new Product();
+        product.setName("Produto");
+        product.setPrice(Money.of(new BigDecimal("10.00")));
+        product.setQuantity(2);
+
+        Order order = new Order();
+        order.setCreatedAt(createdAt);
+        order.setProducts(new ArrayList<>(List.of(product)));
+        Order created = orderService.createOrder(order);
+        if (status != OrderStatus.PENDING) {
+            OrderDto update = new OrderDto();
+            update.setId(created.getId());
+            update.setStatus(status);
+            orderService.updateOrderStatus(created.getExternalId(), update);
+        }
+        return created;
+    }
+
+    @Test
+    void archive_ShouldMoveOnlyOldCompletedOrders_InChunks() {
+        LocalDateTime old = LocalDateTime.now().minusDays(90);
+        Order first = createOrder(old, OrderStatus.COMPLETED);
+        Order second = createOrder(old.plusDays(1), OrderStatus.COMPLETED);
+        Order third = createOrder(old.plusDays(2), OrderStatus.COMPLETED);
+        Order oldPending = createOrder(old, OrderStatus.PENDING);
+        Order recent = createOrder(LocalDateTime.now().minusDays(1), OrderStatus.COMPLETED);
+
+        assertEquals(3, orderArchiveService.archive());
+
+        for (Order order : List.of(first, second, third)) {
+            assertTrue(orderRepository.findByExternalId(order.getExternalId()).isEmpty());
+        }
+        assertTrue(orderRepository.findByExternalId(oldPending.getExternalId()).isPresent());
+        assertTrue(orderRepository.findByExternalId(recent.getExternalId()).isPresent());
+        assertEquals(3, jdbcTemplate.queryForObject("select count(*) from orders_archive", Integer.class));
+        assertEquals(3, jdbcTemplate.queryForObject("select count(*) from products_archive", Integer.class));
+        assertEquals(0, orderArchiveService.archive());
+    }
+
+    @Test
+    void rebuild_ShouldKeepArchivedOrdersInStats() {
+        LocalDate day = LocalDate.now().minusDays(90);
+        createOrder(day.atTime(10, 0), OrderStatus.COMPLETED);
+        createOrder(day.atTime(11, 0), OrderStatus.COMPLETED);
+        orderArchiveService.archive();
+        createOrder(day.atTime(12, 0), OrderStatus.COMPLETED);
+
+        orderStatsService.rebuild().join();
+
+        assertEquals(3, orderStatsService.getStats(OrderStatus.COMPLETED, day, day).getOrderCount());
+        assertEquals(new BigDecimal("60.00"), orderStatsService.getStats(OrderStatus.COMPLETED, day, day).getTotalAmount());
+    }
+
+    @Test
+    void archive_ShouldSkip_WhenAnotherInstanceHoldsTheLease() {
+        Order old = createOrder(LocalDateTime.now().minusDays(90), OrderStatus.COMPLETED);
+        LeaseService otherInstance = new LeaseService(leaseRepository);
+        assertTrue(otherInstance.tryAcquire(OrderStatsService.REBUILD_LEASE, Duration.ofMinutes(1)));
+        try {
+            assertEquals(0, orderArchiveService.archive());
+            assertTrue(orderRepository.findByExternalId(old.getExternalId()).isPresent());
+        } finally {
+            otherInstance.release(OrderStatsService.REBUILD_LEASE);
+        }
+
+        assertEquals(1, orderArchiveService.archive());
+    }
+}
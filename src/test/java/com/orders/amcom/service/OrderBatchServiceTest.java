@@ -0,0 +1,120 @@
+package com.orders.amcom.service;
+
+import com.orders.amcom.model.Money;
+import com.orders.amcom.model.Order;
+import com.orders.amcom.model.Product;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.orders.amcom.service.OrderService.THE_ORDER_MUST_CONTAIN_AT_LEAST_ONE_PRODUCT;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class OrderBatchServiceTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @InjectMocks
+    private OrderBatchService orderBatchService;
+
+    private Order orderWithProduct() {
+        Product product = new Product();
+        product.setName("Produto");
+        product.setPrice(Money.of(BigDecimal.TEN));
+        product.setQuantity(1);
+
+        Order order = new Order();
+        order.setProducts(new ArrayList<>(List.of(product)));
+        return order;
+    }
+
+    // Pedidos iguais campo a campo: o lote é casado pela instância.
+    private static List<Order> only(Order order) {
+        return Mockito.argThat(orders -> orders != null && orders.size() == 1 && orders.get(0) == order);
+    }
+
+    @Test
+    void createOrders_ShouldSkipInvalidOrders_AndSaveTheRestInOneBatch() {
+        Order valid = orderWithProduct();
+        Order invalid = new Order();
+        invalid.setProducts(new ArrayList<>());
+
+        Mockito.doThrow(new IllegalArgumentException(THE_ORDER_MUST_CONTAIN_AT_LEAST_ONE_PRODUCT))
+                .when(orderService).validateOrder(invalid);
+        Mockito.when(orderService.createOrders(List.of(valid))).thenReturn(List.of(valid));
+
+        OrderBatchService.Result result = orderBatchService.createOrders(List.of(valid, invalid));
+
+        assertEquals(List.of(valid), result.saved());
+        assertEquals(1, result.rejected().size());
+        assertSame(invalid, result.rejected().get(0).order());
+        Mockito.verify(orderService).createOrders(List.of(valid));
+        Mockito.verify(orderService, Mockito.never()).savePreparedOrders(Mockito.anyList());
+    }
+
+    @Test
+    void createOrders_ShouldFallBackToSingleInserts_WhenBatchFails() {
+        Order good = orderWithProduct();
+        Order bad = orderWithProduct();
+        good.setId("stale-id-1");
+        bad.setId("stale-id-2");
+
+        Mockito.when(orderService.createOrders(Mockito.anyList())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+        Mockito.when(orderService.savePreparedOrders(only(good))).thenReturn(List.of(good));
+        Mockito.when(orderService.savePreparedOrders(only(bad))).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        OrderBatchService.Result result = orderBatchService.createOrders(List.of(good, bad));
+
+        assertEquals(List.of(good), result.saved());
+        assertEquals(1, result.rejected().size());
+        assertSame(bad, result.rejected().get(0).order());
+        assertNull(good.getId());
+        Mockito.verify(orderService).savePreparedOrders(only(good));
+        Mockito.verify(orderService).savePreparedOrders(only(bad));
+    }
+
+    @Test
+    void createOrders_ShouldRethrow_WhenBatchFailsTransiently() {
+        Order order = orderWithProduct();
+        Mockito.when(orderService.createOrders(Mockito.anyList()))
+                .thenThrow(new CannotCreateTransactionException("Connection is not available"));
+
+        assertThrows(CannotCreateTransactionException.class, () -> orderBatchService.createOrders(List.of(order)));
+        Mockito.verify(orderService, Mockito.never()).savePreparedOrders(Mockito.anyList());
+    }
+
+    @Test
+    void createOrders_ShouldStopSingleInserts_WhenDatabaseFailsTransiently() {
+        Order first = orderWithProduct();
+        Order second = orderWithProduct();
+        Mockito.when(orderService.createOrders(Mockito.anyList())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+        Mockito.when(orderService.savePreparedOrders(only(first))).thenThrow(new QueryTimeoutException("timeout"));
+
+        assertThrows(QueryTimeoutException.class, () -> orderBatchService.createOrders(List.of(first, second)));
+        Mockito.verify(orderService, Mockito.never()).savePreparedOrders(only(second));
+    }
+
+    @Test
+    void createOrders_ShouldNotTouchDatabase_WhenNoOrderIsValid() {
+        Order invalid = new Order();
+        Mockito.doThrow(new IllegalArgumentException(THE_ORDER_MUST_CONTAIN_AT_LEAST_ONE_PRODUCT))
+                .when(orderService).validateOrder(invalid);
+
+        OrderBatchService.Result result = orderBatchService.createOrders(List.of(invalid));
+
+        assertTrue(result.saved().isEmpty());
+        assertEquals(1, result.rejected().size());
+        Mockito.verify(orderService, Mockito.never()).createOrders(Mockito.anyList());
+    }
+}
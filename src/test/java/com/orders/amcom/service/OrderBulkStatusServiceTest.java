@@ -0,0 +1,120 @@
+package com.orders.amcom.service;
+
+import com.orders.amcom.dto.BulkStatusUpdateRequest;
+import com.orders.amcom.dto.BulkStatusUpdateResult;
+import com.orders.amcom.enums.BulkUpdateOutcome;
+import com.orders.amcom.enums.OrderStatus;
+import com.orders.amcom.exception.OrderException;
+import com.orders.amcom.model.Money;
+import com.orders.amcom.model.Order;
+import com.orders.amcom.repository.OrderRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class OrderBulkStatusServiceTest {
+
+    private static final int CHUNK_SIZE = 3;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private OrderBulkStatusService orderBulkStatusService;
+
+    @BeforeEach
+    void setUp() {
+        orderBulkStatusService = new OrderBulkStatusService(orderService, orderRepository, CHUNK_SIZE);
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            orders.add(order("ORD-BULK-" + i, i < 6 ? OrderStatus.PENDING : OrderStatus.COMPLETED,
+                    LocalDateTime.of(2024, 1, 1 + i, 12, 0)));
+        }
+        orderRepository.saveAll(orders);
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+    }
+
+    private Order order(String externalId, OrderStatus status, LocalDateTime createdAt) {
+        Order order = new Order();
+        order.setExternalId(externalId);
+        order.setStatus(status);
+        order.setTotalAmount(Money.of(BigDecimal.ONE));
+        order.setCreatedAt(createdAt);
+        return order;
+    }
+
+    @Test
+    void updateStatuses_ShouldReportOutcomePerId_InChunkedUpdates() {
+        BulkStatusUpdateRequest request = new BulkStatusUpdateRequest();
+        request.setStatus(OrderStatus.COMPLETED);
+        request.setExternalIds(List.of("ORD-BULK-0", "ORD-BULK-1", "ORD-BULK-6", "ORD-MISSING", "ORD-BULK-2", "ORD-BULK-0"));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        BulkStatusUpdateResult result = orderBulkStatusService.updateStatuses(request);
+
+        assertEquals(3, result.getUpdated());
+        assertEquals(1, result.getNotFound());
+        assertEquals(1, result.getInvalidTransition());
+        assertEquals(BulkUpdateOutcome.UPDATED, result.getOutcomes().get("ORD-BULK-0"));
+        assertEquals(BulkUpdateOutcome.INVALID_TRANSITION, result.getOutcomes().get("ORD-BULK-6"));
+        assertEquals(BulkUpdateOutcome.NOT_FOUND, result.getOutcomes().get("ORD-MISSING"));
+        // Dois lotes de no máximo 3 ids, sem carregar nenhuma entidade.
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(4, statistics.getPrepareStatementCount());
+
+        assertEquals(OrderStatus.COMPLETED, orderRepository.findByExternalId("ORD-BULK-2").orElseThrow().getStatus());
+        assertEquals(OrderStatus.PENDING, orderRepository.findByExternalId("ORD-BULK-3").orElseThrow().getStatus());
+    }
+
+    @Test
+    void updateStatuses_ShouldCompleteEveryPendingOrderInTheDateRange() {
+        BulkStatusUpdateRequest request = new BulkStatusUpdateRequest();
+        request.setStatus(OrderStatus.COMPLETED);
+        request.setStartDate(LocalDate.of(2024, 1, 2));
+        request.setEndDate(LocalDate.of(2024, 1, 8));
+
+        BulkStatusUpdateResult result = orderBulkStatusService.updateStatuses(request);
+
+        assertEquals(5, result.getUpdated());
+        assertEquals(0, result.getInvalidTransition());
+        assertEquals(OrderStatus.PENDING, orderRepository.findByExternalId("ORD-BULK-0").orElseThrow().getStatus());
+        assertEquals(OrderStatus.COMPLETED, orderRepository.findByExternalId("ORD-BULK-5").orElseThrow().getStatus());
+    }
+
+    @Test
+    void updateStatuses_ShouldRejectPendingTarget_AndMissingSelection() {
+        BulkStatusUpdateRequest toPending = new BulkStatusUpdateRequest();
+        toPending.setStatus(OrderStatus.PENDING);
+        toPending.setExternalIds(List.of("ORD-BULK-6"));
+        assertThrows(OrderException.class, () -> orderBulkStatusService.updateStatuses(toPending));
+
+        BulkStatusUpdateRequest noSelection = new BulkStatusUpdateRequest();
+        noSelection.setStatus(OrderStatus.COMPLETED);
+        OrderException exception = assertThrows(OrderException.class, () -> orderBulkStatusService.updateStatuses(noSelection));
+        assertEquals(OrderBulkStatusService.EXTERNAL_IDS_OR_FILTER_REQUIRED, exception.getMessage());
+    }
+}
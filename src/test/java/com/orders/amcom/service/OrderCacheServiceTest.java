@@ -0,0 +1,91 @@
+package com.orders.amcom.service;
+
+import com.orders.amcom.dto.OrderDto;
+import com.orders.amcom.enums.OrderStatus;
+import com.orders.amcom.model.Money;
+import com.orders.amcom.model.Order;
+import com.orders.amcom.model.Product;
+import com.orders.amcom.repository.OrderRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.orders.amcom.config.CacheConfig.ORDERS_CACHE;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class OrderCacheServiceTest {
+
+    private static final String EXTERNAL_ID = "ORD-CACHE-1";
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderCacheService orderCacheService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Order order = new Order();
+        order.setExternalId(EXTERNAL_ID);
+        order.setStatus(OrderStatus.PENDING);
+        Product product = new Product();
+        product.setName("Produto");
+        product.setPrice(Money.of(BigDecimal.TEN));
+        product.setQuantity(1);
+        product.setOrder(order);
+        order.setProducts(new ArrayList<>(List.of(product)));
+        orderRepository.save(order);
+
+        cacheManager.getCache(ORDERS_CACHE).clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void getOrderByExternalId_ShouldHitDatabaseOnce_WhileCached() {
+        OrderDto first = orderService.getOrderByExternalId(EXTERNAL_ID);
+        OrderDto second = orderService.getOrderByExternalId(EXTERNAL_ID);
+
+        assertEquals(EXTERNAL_ID, first.getExternalId());
+        assertEquals(1, first.getProducts().size());
+        assertSame(first, second);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void evict_ShouldForceNextReadToGoToDatabase() {
+        orderService.getOrderByExternalId(EXTERNAL_ID);
+
+        orderCacheService.evict(List.of(EXTERNAL_ID));
+        orderService.getOrderByExternalId(EXTERNAL_ID);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
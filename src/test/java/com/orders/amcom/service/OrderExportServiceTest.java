@@ -0,0 +1,93 @@
+package com.orders.amcom.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orders.amcom.dto.OrderExportDto;
+import com.orders.amcom.enums.ExportFormat;
+import com.orders.amcom.enums.OrderStatus;
+import com.orders.amcom.model.Money;
+import com.orders.amcom.model.Order;
+import com.orders.amcom.model.Product;
+import com.orders.amcom.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class OrderExportServiceTest {
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Order order = new Order();
+            order.setExternalId("ORD-EXP-" + i);
+            order.setStatus(i % 2 == 0 ? OrderStatus.PENDING : OrderStatus.COMPLETED);
+            order.setTotalAmount(Money.of(new BigDecimal("10.50")));
+            order.setCreatedAt(LocalDateTime.of(2024, 3, 1 + i % 10, 12, i));
+
+            Product product = new Product();
+            product.setName("Produto, com vírgula");
+            product.setPrice(Money.of(new BigDecimal("10.50")));
+            product.setQuantity(1);
+            product.setOrder(order);
+            order.setProducts(new ArrayList<>(List.of(product)));
+            orders.add(order);
+        }
+        orderRepository.saveAll(orders);
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+    }
+
+    private List<String> export(OrderStatus status, LocalDate startDate, LocalDate endDate, ExportFormat format) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        orderExportService.export(status, startDate, endDate, format, output);
+        return output.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
+    @Test
+    void export_ShouldWriteCsvHeaderAndOneLinePerOrder() throws Exception {
+        List<String> lines = export(null, null, null, ExportFormat.CSV);
+
+        assertEquals(31, lines.size());
+        assertEquals(OrderExportDto.CSV_HEADER, lines.get(0));
+        assertTrue(lines.get(1).contains(",ORD-EXP-0,PENDING,10.50,2024-03-01T12:00,"));
+    }
+
+    @Test
+    void export_ShouldWriteOneJsonObjectPerLine_UsingTheListingFilters() throws Exception {
+        List<String> lines = export(OrderStatus.COMPLETED, LocalDate.of(2024, 3, 2), LocalDate.of(2024, 3, 4), ExportFormat.NDJSON);
+
+        // dias 2 e 4 têm pedidos COMPLETED (i ímpar): i = 1, 3, 11, 13, 21, 23
+        assertEquals(6, lines.size());
+        for (String line : lines) {
+            JsonNode node = objectMapper.readTree(line);
+            assertEquals("COMPLETED", node.get("status").asText());
+            assertTrue(node.get("externalId").asText().startsWith("ORD-EXP-"));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.orders.amcom.service;
+
+import com.orders.amcom.config.RabbitMQConfig;
+import com.orders.amcom.model.Order;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderPartitionerTest {
+
+    @Test
+    void routing_ShouldKeepSingleQueue_WhenPartitioningIsDisabled() {
+        OrderPartitioner partitioner = new OrderPartitioner(0);
+
+        assertEquals(RabbitMQConfig.EXCHANGE_NAME, partitioner.exchange());
+        assertEquals(RabbitMQConfig.ROUTING_KEY, partitioner.routingKey(order("ORD-1")));
+    }
+
+    @Test
+    void routing_ShouldSendSameKeyToSamePartition() {
+        OrderPartitioner partitioner = new OrderPartitioner(8);
+
+        assertEquals(RabbitMQConfig.PARTITION_EXCHANGE_NAME, partitioner.exchange());
+        String routingKey = partitioner.routingKey(order("ORD-42"));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(routingKey, partitioner.routingKey(order("ORD-42")));
+        }
+        int partition = Integer.parseInt(routingKey);
+        assertTrue(partition >= 0 && partition < 8);
+    }
+
+    @Test
+    void assign_ShouldGiveEveryPartitionToExactlyOneMember() {
+        List<String> members = List.of("replica-a", "replica-b", "replica-c");
+
+        Set<Integer> covered = new HashSet<>();
+        int total = 0;
+        for (String member : members) {
+            Set<Integer> assigned = OrderPartitioner.assign(32, members, member);
+            assertFalse(assigned.isEmpty());
+            covered.addAll(assigned);
+            total += assigned.size();
+        }
+
+        assertEquals(32, covered.size());
+        assertEquals(32, total);
+    }
+
+    @Test
+    void assign_ShouldOnlyMovePartitionsOfLeavingMember() {
+        List<String> before = List.of("replica-a", "replica-b", "replica-c");
+        List<String> after = List.of("replica-a", "replica-b");
+
+        for (String member : after) {
+            Set<Integer> kept = OrderPartitioner.assign(32, before, member);
+            Set<Integer> now = OrderPartitioner.assign(32, after, member);
+            assertTrue(now.containsAll(kept));
+        }
+        Set<Integer> released = OrderPartitioner.assign(32, before, "replica-c");
+        Set<Integer> takenOver = new HashSet<>(OrderPartitioner.assign(32, after, "replica-a"));
+        takenOver.addAll(OrderPartitioner.assign(32, after, "replica-b"));
+        assertTrue(takenOver.containsAll(released));
+    }
+
+    private Order order(String externalId) {
+        Order order = new Order();
+        order.setExternalId(externalId);
+        return order;
+    }
+}
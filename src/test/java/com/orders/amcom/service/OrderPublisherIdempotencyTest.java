@@ -0,0 +1,128 @@
+package com.orders.amcom.service;
+
+import com.orders.amcom.enums.PublisherMode;
+import com.orders.amcom.listener.OrderListener;
+import com.orders.amcom.model.Money;
+import com.orders.amcom.model.Order;
+import com.orders.amcom.model.Product;
+import com.orders.amcom.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mockito.Mockito;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// O broker é simulado: o que o publisher enviaria é convertido com o conversor da aplicação e entregue ao listener.
+@SpringBootTest
+public class OrderPublisherIdempotencyTest {
+
+    @Autowired
+    private MessageConverter messageConverter;
+
+    @Autowired
+    private OrderListener orderListener;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderStatsService orderStatsService;
+
+    private final RabbitTemplate rabbitTemplate = Mockito.mock(RabbitTemplate.class);
+    private final RabbitOperations operations = Mockito.mock(RabbitOperations.class);
+    private final List<Message> sent = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+        orderStatsService.rebuild().join();
+    }
+
+    private OrderPublisher publisher(PublisherMode mode) {
+        Mockito.doAnswer(invocation -> {
+            send(invocation.getArgument(2), invocation.getArgument(3));
+            return null;
+        }).when(rabbitTemplate).convertAndSend(Mockito.anyString(), Mockito.anyString(), Mockito.any(Object.class),
+                Mockito.any(MessagePostProcessor.class));
+        Mockito.when(rabbitTemplate.invoke(Mockito.any())).thenAnswer(invocation -> {
+            RabbitOperations.OperationsCallback<?> callback = invocation.getArgument(0);
+            return callback.doInRabbit(operations);
+        });
+        Mockito.doAnswer(invocation -> {
+            send(invocation.getArgument(2), invocation.getArgument(3));
+            CorrelationData correlationData = invocation.getArgument(4);
+            correlationData.getFuture().complete(new CorrelationData.Confirm(true, null));
+            return null;
+        }).when(operations).convertAndSend(Mockito.anyString(), Mockito.anyString(), Mockito.any(Object.class),
+                Mockito.any(MessagePostProcessor.class), Mockito.any(CorrelationData.class));
+        OrderPublisher publisher = new OrderPublisher(rabbitTemplate, new OrderPartitioner(0), new SimpleMeterRegistry(),
+                mode, 10, 100, Duration.ofSeconds(5));
+        publisher.start();
+        return publisher;
+    }
+
+    private void send(Object payload, MessagePostProcessor postProcessor) {
+        sent.add(postProcessor.postProcessMessage(messageConverter.toMessage(payload, new MessageProperties())));
+    }
+
+    private Order order() {
+        Product product = new Product();
+        product.setName("Produto");
+        product.setPrice(Money.of(new BigDecimal("10.00")));
+        product.setQuantity(1);
+
+        Order order = new Order();
+        order.setProducts(new ArrayList<>(List.of(product)));
+        return order;
+    }
+
+    @ParameterizedTest
+    @EnumSource(PublisherMode.class)
+    void publishingSameOrderTwice_ShouldPersistItOnce(PublisherMode mode) throws Exception {
+        OrderPublisher publisher = publisher(mode);
+        Order order = order();
+
+        CompletableFuture.allOf(publisher.publish(order), publisher.publish(order)).get(5, TimeUnit.SECONDS);
+        publisher.shutdown();
+
+        assertEquals(2, sent.size());
+        for (Message message : sent) {
+            String messageId = message.getMessageProperties().getMessageId();
+            assertEquals(order.getMessageId(), messageId);
+            orderListener.processMessage((Order) messageConverter.fromMessage(message), messageId);
+        }
+        assertEquals(1, orderRepository.findAll().stream()
+                .filter(saved -> order.getMessageId().equals(saved.getMessageId()))
+                .count());
+    }
+
+    @Test
+    void publish_ShouldGiveDistinctOrdersDistinctMessageIds() {
+        OrderPublisher publisher = publisher(PublisherMode.SYNC);
+
+        publisher.publish(order());
+        publisher.publish(order());
+
+        assertNotEquals(sent.get(0).getMessageProperties().getMessageId(), sent.get(1).getMessageProperties().getMessageId());
+    }
+}
@@ -0,0 +1,172 @@
+package com.orders.amcom.service;
+
+import com.orders.amcom.config.RabbitMQConfig;
+import com.orders.amcom.enums.PublisherMode;
+import com.orders.amcom.model.Order;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderPublisherTest {
+
+    private final RabbitTemplate rabbitTemplate = Mockito.mock(RabbitTemplate.class);
+    private final RabbitOperations operations = Mockito.mock(RabbitOperations.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<CorrelationData> published = new CopyOnWriteArrayList<>();
+
+    private OrderPublisher publisher(PublisherMode mode, Duration confirmTimeout) {
+        Mockito.when(rabbitTemplate.invoke(Mockito.any())).thenAnswer(invocation -> {
+            RabbitOperations.OperationsCallback<?> callback = invocation.getArgument(0);
+            return callback.doInRabbit(operations);
+        });
+        Mockito.doAnswer(invocation -> {
+            published.add(invocation.getArgument(4));
+            return null;
+        }).when(operations).convertAndSend(Mockito.anyString(), Mockito.anyString(), Mockito.any(Object.class),
+                Mockito.any(MessagePostProcessor.class), Mockito.any(CorrelationData.class));
+        OrderPublisher publisher = new OrderPublisher(rabbitTemplate, new OrderPartitioner(0), meterRegistry, mode, 10, 100,
+                confirmTimeout);
+        publisher.start();
+        return publisher;
+    }
+
+    @Test
+    void publish_ShouldSendImmediately_InSyncMode() throws Exception {
+        OrderPublisher publisher = publisher(PublisherMode.SYNC, Duration.ofSeconds(1));
+        Order order = new Order();
+
+        CompletableFuture<Void> result = publisher.publish(order);
+
+        assertTrue(result.isDone());
+        assertNotNull(order.getMessageId());
+        Mockito.verify(rabbitTemplate).convertAndSend(Mockito.eq(RabbitMQConfig.EXCHANGE_NAME),
+                Mockito.eq(RabbitMQConfig.ROUTING_KEY), Mockito.same(order), Mockito.any(MessagePostProcessor.class));
+        publisher.shutdown();
+    }
+
+    @Test
+    void publish_ShouldSendTwoUpdatesOfSameOrderToOnePartition_InPublishOrder() throws Exception {
+        List<String> routingKeys = new CopyOnWriteArrayList<>();
+        List<Object> payloads = new CopyOnWriteArrayList<>();
+        Mockito.doAnswer(invocation -> {
+            routingKeys.add(invocation.getArgument(1));
+            payloads.add(invocation.getArgument(2));
+            return null;
+        }).when(rabbitTemplate).convertAndSend(Mockito.anyString(), Mockito.anyString(), Mockito.any(Object.class),
+                Mockito.any(MessagePostProcessor.class));
+        OrderPublisher publisher = new OrderPublisher(rabbitTemplate, new OrderPartitioner(8), meterRegistry,
+                PublisherMode.SYNC, 10, 100, Duration.ofSeconds(1));
+        publisher.start();
+        Order first = new Order();
+        first.setExternalId("ORD-42");
+        Order second = new Order();
+        second.setExternalId("ORD-42");
+
+        publisher.publish(first);
+        publisher.publish(second);
+
+        // Cada publicação tem messageId próprio; a partição segue o externalId.
+        assertNotEquals(first.getMessageId(), second.getMessageId());
+        assertEquals(routingKeys.get(0), routingKeys.get(1));
+        assertSame(first, payloads.get(0));
+        assertSame(second, payloads.get(1));
+        publisher.shutdown();
+    }
+
+    @Test
+    void publish_ShouldCompleteOnlyAfterBrokerAck_InBatchedMode() throws Exception {
+        OrderPublisher publisher = publisher(PublisherMode.BATCHED, Duration.ofSeconds(5));
+
+        List<CompletableFuture<Void>> results = List.of(
+                publisher.publish(new Order()), publisher.publish(new Order()), publisher.publish(new Order()));
+        awaitPublished(3);
+
+        assertTrue(results.stream().noneMatch(CompletableFuture::isDone));
+        assertEquals(3, publisher.getOutstandingConfirms());
+
+        published.forEach(correlation -> correlation.getFuture().complete(new CorrelationData.Confirm(true, null)));
+
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(1, TimeUnit.SECONDS);
+        assertEquals(0, publisher.getOutstandingConfirms());
+        publisher.shutdown();
+    }
+
+    @Test
+    void publish_ShouldFail_WhenBrokerNacks() throws Exception {
+        OrderPublisher publisher = publisher(PublisherMode.BATCHED, Duration.ofSeconds(5));
+
+        CompletableFuture<Void> result = publisher.publish(new Order());
+        awaitPublished(1);
+        published.get(0).getFuture().complete(new CorrelationData.Confirm(false, "queue full"));
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> result.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(AmqpException.class, error.getCause());
+        assertTrue(error.getCause().getMessage().contains("queue full"));
+        publisher.shutdown();
+    }
+
+    @Test
+    void publish_ShouldFail_WhenConfirmTimesOut() throws Exception {
+        OrderPublisher publisher = publisher(PublisherMode.BATCHED, Duration.ofMillis(50));
+
+        CompletableFuture<Void> result = publisher.publish(new Order());
+
+        assertThrows(ExecutionException.class, () -> result.get(2, TimeUnit.SECONDS));
+        assertEquals(0, publisher.getOutstandingConfirms());
+        publisher.shutdown();
+    }
+
+    @Test
+    void publish_ShouldFailWholeBatch_WhenChannelErrors() throws Exception {
+        Mockito.when(rabbitTemplate.invoke(Mockito.any())).thenThrow(new AmqpException("connection refused"));
+        OrderPublisher publisher = new OrderPublisher(rabbitTemplate, new OrderPartitioner(0), meterRegistry,
+                PublisherMode.BATCHED, 10, 100, Duration.ofSeconds(1));
+        publisher.start();
+
+        CompletableFuture<Void> result = publisher.publish(new Order());
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> result.get(2, TimeUnit.SECONDS));
+        assertEquals("connection refused", error.getCause().getMessage());
+        publisher.shutdown();
+        assertThrows(ExecutionException.class, () -> publisher.publish(new Order()).get());
+    }
+
+    @Test
+    void shutdown_ShouldFailPublishesLeftInBuffer() throws Exception {
+        // Sem start() o flusher não roda: o pedido fica no buffer até o shutdown.
+        OrderPublisher publisher = new OrderPublisher(rabbitTemplate, new OrderPartitioner(0), meterRegistry,
+                PublisherMode.BATCHED, 10, 100, Duration.ofSeconds(1));
+        CompletableFuture<Void> result = publisher.publish(new Order());
+        assertFalse(result.isDone());
+
+        publisher.shutdown();
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> result.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, error.getCause());
+        Mockito.verifyNoInteractions(rabbitTemplate);
+    }
+
+    private void awaitPublished(int count) {
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            while (published.size() < count) {
+                Thread.sleep(1);
+            }
+        });
+    }
+}
@@ -0,0 +1,160 @@
+package com.orders.amcom.service;
+
+import com.orders.amcom.enums.BackpressurePolicy;
+import com.orders.amcom.model.Order;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderQueueServiceTest {
+
+    private final OrderService orderService = Mockito.mock(OrderService.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private OrderQueueService queue(int capacity, int workers, BackpressurePolicy backpressure) {
+        return new OrderQueueService(orderService, meterRegistry, capacity, workers, backpressure, false, Duration.ofSeconds(5));
+    }
+
+    @Test
+    void addToQueue_ShouldProcessOrdersOnSeveralNamedWorkers() throws Exception {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        CountDownLatch processed = new CountDownLatch(40);
+        Mockito.doAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            Thread.sleep(5);
+            processed.countDown();
+            return CompletableFuture.completedFuture(null);
+        }).when(orderService).processOrder(Mockito.any());
+
+        OrderQueueService queue = queue(100, 4, BackpressurePolicy.BLOCK);
+        for (int i = 0; i < 40; i++) {
+            queue.addToQueue(new Order());
+        }
+
+        assertTrue(processed.await(5, TimeUnit.SECONDS));
+        assertTrue(threads.size() > 1);
+        assertTrue(threads.stream().allMatch(name -> name.startsWith("order-queue-")));
+        queue.shutdown();
+        assertEquals(40, meterRegistry.timer("orders.queue.processing").count());
+        assertEquals(40, meterRegistry.timer("orders.queue.wait").count());
+    }
+
+    @Test
+    void addToQueue_ShouldRejectWhenFull_WithRejectPolicy() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            release.await();
+            return CompletableFuture.completedFuture(null);
+        }).when(orderService).processOrder(Mockito.any());
+
+        OrderQueueService queue = queue(1, 1, BackpressurePolicy.REJECT);
+        queue.addToQueue(new Order());
+        // o primeiro pode ainda não ter saído da fila; garante worker ocupado e fila cheia
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            while (queue.getQueueDepth() > 0) {
+                Thread.sleep(1);
+            }
+        });
+        queue.addToQueue(new Order());
+
+        assertThrows(RejectedExecutionException.class, () -> queue.addToQueue(new Order()));
+        assertEquals(1.0, meterRegistry.counter("orders.queue.rejections").count());
+        release.countDown();
+        queue.shutdown();
+    }
+
+    @Test
+    void addToQueue_ShouldRunOnCaller_WhenFull_WithCallerRunsPolicy() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger onCaller = new AtomicInteger();
+        Thread caller = Thread.currentThread();
+        Mockito.doAnswer(invocation -> {
+            if (Thread.currentThread() == caller) {
+                onCaller.incrementAndGet();
+            } else {
+                release.await();
+            }
+            return CompletableFuture.completedFuture(null);
+        }).when(orderService).processOrder(Mockito.any());
+
+        OrderQueueService queue = queue(1, 1, BackpressurePolicy.CALLER_RUNS);
+        queue.addToQueue(new Order());
+        queue.addToQueue(new Order());
+        queue.addToQueue(new Order());
+        queue.addToQueue(new Order());
+
+        assertTrue(onCaller.get() >= 1);
+        release.countDown();
+        queue.shutdown();
+    }
+
+    @Test
+    void addToQueue_ShouldRejectBlockedCaller_WhenQueueShutsDown() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            release.await();
+            return CompletableFuture.completedFuture(null);
+        }).when(orderService).processOrder(Mockito.any());
+
+        OrderQueueService queue = queue(1, 1, BackpressurePolicy.BLOCK);
+        queue.addToQueue(new Order());
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            while (queue.getQueueDepth() > 0) {
+                Thread.sleep(1);
+            }
+        });
+        queue.addToQueue(new Order());
+
+        CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> queue.addToQueue(new Order()));
+        Thread.sleep(200);
+        assertFalse(blocked.isDone());
+
+        CompletableFuture<Void> shutdown = CompletableFuture.runAsync(() -> {
+            try {
+                queue.shutdown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        ExecutionException error = assertThrows(ExecutionException.class, () -> blocked.get(2, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, error.getCause());
+        assertEquals(1.0, meterRegistry.counter("orders.queue.rejections").count());
+
+        release.countDown();
+        shutdown.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void shutdown_ShouldDrainQueuedOrders_AndKeepWorkingAfterFailures() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        Mockito.doAnswer(invocation -> {
+            if (calls.incrementAndGet() % 2 == 0) {
+                throw new IllegalStateException("broker down");
+            }
+            return CompletableFuture.completedFuture(null);
+        }).when(orderService).processOrder(Mockito.any());
+
+        OrderQueueService queue = queue(1_000, 2, BackpressurePolicy.BLOCK);
+        for (int i = 0; i < 500; i++) {
+            queue.addToQueue(new Order());
+        }
+        queue.shutdown();
+
+        assertEquals(500, calls.get());
+        assertEquals(250.0, meterRegistry.counter("orders.queue.failures").count());
+        assertThrows(RejectedExecutionException.class, () -> queue.addToQueue(new Order()));
+    }
+}
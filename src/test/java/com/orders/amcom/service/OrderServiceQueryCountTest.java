@@ -0,0 +1,138 @@
+package com.orders.amcom.service;
+
+import com.orders.amcom.dto.CursorPage;
+import com.orders.amcom.dto.OrderDto;
+import com.orders.amcom.enums.OrderStatus;
+import com.orders.amcom.model.Money;
+import com.orders.amcom.model.Order;
+import com.orders.amcom.model.Product;
+import com.orders.amcom.repository.OrderRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class OrderServiceQueryCountTest {
+
+    private static final int ORDERS = 60;
+    private static final int PRODUCTS_PER_ORDER = 3;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        List<Order> orders = new ArrayList<>();
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order();
+            order.setExternalId("ORD-QC-" + i);
+            order.setStatus(OrderStatus.PENDING);
+            order.setTotalAmount(Money.of(BigDecimal.valueOf(PRODUCTS_PER_ORDER)));
+            order.setCreatedAt(createdAt.plusMinutes(i));
+            List<Product> products = new ArrayList<>();
+            for (int j = 0; j < PRODUCTS_PER_ORDER; j++) {
+                Product product = new Product();
+                product.setName("Produto " + j);
+                product.setPrice(Money.of(BigDecimal.ONE));
+                product.setQuantity(1);
+                product.setOrder(order);
+                products.add(product);
+            }
+            order.setProducts(products);
+            orders.add(order);
+        }
+        orderRepository.saveAll(orders);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+    }
+
+    private long statementsForPage(int pageSize) {
+        statistics.clear();
+        Page<Order> page = orderService.getAllOrders(OrderStatus.PENDING, null, null, PageRequest.of(0, pageSize));
+        List<OrderDto> dtos = page.map(OrderDto::fromEntity).getContent();
+
+        assertEquals(pageSize, dtos.size());
+        assertEquals(ORDERS, page.getTotalElements());
+        dtos.forEach(dto -> assertEquals(PRODUCTS_PER_ORDER, dto.getProducts().size()));
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    void getAllOrders_ShouldIssueSameNumberOfStatements_RegardlessOfPageSize() {
+        long smallPage = statementsForPage(5);
+        long largePage = statementsForPage(50);
+
+        // página + count + produtos da página
+        assertEquals(3, smallPage);
+        assertEquals(smallPage, largePage);
+    }
+
+    @Test
+    void getOrdersByCursor_ShouldIssueSameNumberOfStatements_AndWalkAllOrders() {
+        List<String> seen = new ArrayList<>();
+        String cursor = "";
+        do {
+            statistics.clear();
+            CursorPage<OrderDto> page = orderService.getOrdersByCursor(null, null, null, cursor, 25)
+                    .map(OrderDto::fromEntity);
+            page.getContent().forEach(dto -> {
+                assertEquals(PRODUCTS_PER_ORDER, dto.getProducts().size());
+                seen.add(dto.getExternalId());
+            });
+            // página + produtos da página, sem count
+            assertEquals(2, statistics.getPrepareStatementCount());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(ORDERS, seen.size());
+        assertEquals(ORDERS, seen.stream().distinct().count());
+        assertEquals("ORD-QC-0", seen.get(0));
+        assertEquals("ORD-QC-" + (ORDERS - 1), seen.get(ORDERS - 1));
+    }
+
+    @Test
+    void updateOrderStatus_ShouldUpdateAndReturnTheRow_InOneStatement() {
+        Order order = orderRepository.findByExternalId("ORD-QC-0").orElseThrow();
+        OrderDto update = new OrderDto();
+        update.setId(order.getId());
+        update.setStatus(OrderStatus.COMPLETED);
+        update.setVersion(order.getVersion());
+
+        statistics.clear();
+        OrderDto updated = OrderDto.fromEntity(orderService.updateOrderStatus("ORD-QC-0", update));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(OrderStatus.COMPLETED, updated.getStatus());
+        assertEquals(order.getVersion() + 1, updated.getVersion());
+        assertEquals(PRODUCTS_PER_ORDER, updated.getProducts().size());
+        assertEquals(0, new BigDecimal("3.00").compareTo(updated.getTotalAmount().toBigDecimal()));
+    }
+}
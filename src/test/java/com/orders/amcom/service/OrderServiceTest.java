@@ -1,8 +1,13 @@
 package com.orders.amcom.service;
 
+import com.orders.amcom.dto.CursorPage;
+import com.orders.amcom.dto.OrderCursor;
 import com.orders.amcom.dto.OrderDto;
 import com.orders.amcom.enums.OrderStatus;
+import com.orders.amcom.exception.InvalidCursorException;
+import com.orders.amcom.exception.OrderConflictException;
 import com.orders.amcom.exception.OrderException;
+import com.orders.amcom.model.Money;
 import com.orders.amcom.model.Order;
 import com.orders.amcom.model.Product;
 import com.orders.amcom.repository.OrderRepository;
@@ -22,6 +27,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 import static com.orders.amcom.service.OrderService.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -33,6 +39,18 @@ public class OrderServiceTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private OrderCacheService orderCacheService;
+
+    @Mock
+    private ExternalIdGenerator externalIdGenerator;
+
+    @Mock
+    private OrderStatsService orderStatsService;
+
+    @Mock
+    private OrderPublisher orderPublisher;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -40,11 +58,11 @@ public class OrderServiceTest {
     void createOrder_ShouldSaveOrderWithCalculatedTotalAmount() {
 
         Product product1 = new Product();
-        product1.setPrice(BigDecimal.valueOf(50));
+        product1.setPrice(Money.of(BigDecimal.valueOf(50)));
         product1.setQuantity(2);
 
         Product product2 = new Product();
-        product2.setPrice(BigDecimal.valueOf(100));
+        product2.setPrice(Money.of(BigDecimal.valueOf(100)));
         product2.setQuantity(1);
 
         List<Product> products = List.of(product1, product2);
@@ -54,17 +72,18 @@ public class OrderServiceTest {
 
         Order savedOrder = new Order();
         savedOrder.setId(UUID.randomUUID().toString());
-        savedOrder.setTotalAmount(BigDecimal.valueOf(200));
+        savedOrder.setTotalAmount(Money.of(BigDecimal.valueOf(200)));
         savedOrder.setExternalId("ORD-123");
         savedOrder.setProducts(products);
         savedOrder.setStatus(OrderStatus.PENDING);
 
         Mockito.when(orderRepository.save(Mockito.any(Order.class))).thenReturn(savedOrder);
+        Mockito.when(externalIdGenerator.nextId()).thenReturn("ORD-123");
 
         Order result = orderService.createOrder(order);
 
         assertNotNull(result);
-        assertEquals(BigDecimal.valueOf(200), result.getTotalAmount());
+        assertEquals(Money.of(BigDecimal.valueOf(200)), result.getTotalAmount());
         assertEquals(OrderStatus.PENDING, result.getStatus());
         assertEquals("ORD-123", result.getExternalId());
         assertEquals(products, result.getProducts());
@@ -84,6 +103,64 @@ public class OrderServiceTest {
         Mockito.verifyNoInteractions(orderRepository);
     }
 
+    @Test
+    void createOrders_ShouldSaveAllOrdersInOneCall() {
+        Product product1 = new Product();
+        product1.setPrice(Money.of(BigDecimal.valueOf(10)));
+        product1.setQuantity(3);
+
+        Product product2 = new Product();
+        product2.setPrice(Money.of(BigDecimal.valueOf(5)));
+        product2.setQuantity(1);
+
+        Order order1 = new Order();
+        order1.setProducts(List.of(product1));
+
+        Order order2 = new Order();
+        order2.setProducts(List.of(product2));
+
+        List<Order> orders = List.of(order1, order2);
+
+        Mockito.when(orderRepository.saveAll(orders)).thenReturn(orders);
+
+        List<Order> result = orderService.createOrders(orders);
+
+        assertEquals(2, result.size());
+        assertEquals(Money.of(BigDecimal.valueOf(30)), order1.getTotalAmount());
+        assertEquals(Money.of(BigDecimal.valueOf(5)), order2.getTotalAmount());
+        assertEquals(OrderStatus.PENDING, order1.getStatus());
+        Mockito.verify(externalIdGenerator, Mockito.times(2)).nextId();
+        assertSame(order1, product1.getOrder());
+        Mockito.verify(orderRepository, Mockito.times(1)).saveAll(orders);
+        Mockito.verifyNoMoreInteractions(orderRepository);
+    }
+
+    @Test
+    void processOrder_ShouldAssignExternalIdBeforePublishing() {
+        Order order = new Order();
+        Mockito.when(externalIdGenerator.nextId()).thenReturn("ORD-777");
+        Mockito.when(orderPublisher.publish(order)).thenAnswer(invocation -> {
+            assertEquals("ORD-777", invocation.<Order>getArgument(0).getExternalId());
+            return CompletableFuture.completedFuture(null);
+        });
+
+        orderService.processOrder(order).join();
+
+        // Consumido da fila, o pedido mantém a chave com que foi particionado.
+        Mockito.when(orderRepository.save(order)).thenReturn(order);
+        orderService.createOrder(withProduct(order));
+        assertEquals("ORD-777", order.getExternalId());
+        Mockito.verify(externalIdGenerator, Mockito.times(1)).nextId();
+    }
+
+    private static Order withProduct(Order order) {
+        Product product = new Product();
+        product.setPrice(Money.of(BigDecimal.TEN));
+        product.setQuantity(1);
+        order.setProducts(new ArrayList<>(List.of(product)));
+        return order;
+    }
+
     @Test
     void updateOrderStatus_ShouldUpdateStatus_WhenValidData() {
 
@@ -92,22 +169,54 @@ public class OrderServiceTest {
         orderDto.setId(UUID.randomUUID().toString());
         orderDto.setStatus(OrderStatus.COMPLETED);
 
-        Order existingOrder = new Order();
-        existingOrder.setId(orderDto.getId());
-        existingOrder.setExternalId(externalId);
-        existingOrder.setStatus(OrderStatus.PENDING);
+        Order updatedRow = new Order();
+        updatedRow.setId(orderDto.getId());
+        updatedRow.setExternalId(externalId);
+        updatedRow.setStatus(OrderStatus.COMPLETED);
+        updatedRow.setVersion(1L);
 
-        Mockito.when(orderRepository.findOrderByIdAndExternalId(orderDto.getId(), externalId))
-                .thenReturn(Optional.of(existingOrder));
-        Mockito.when(orderRepository.save(Mockito.any(Order.class)))
-                .thenReturn(existingOrder);
+        Mockito.when(orderRepository.updatePendingStatusReturning(Mockito.eq(orderDto.getId()), Mockito.eq(externalId),
+                        Mockito.eq(OrderStatus.COMPLETED), Mockito.isNull(), Mockito.any(LocalDateTime.class)))
+                .thenReturn(Optional.of(updatedRow));
 
         Order updatedOrder = orderService.updateOrderStatus(externalId, orderDto);
 
         assertNotNull(updatedOrder);
         assertEquals(OrderStatus.COMPLETED, updatedOrder.getStatus());
-        Mockito.verify(orderRepository).findOrderByIdAndExternalId(orderDto.getId(), externalId);
-        Mockito.verify(orderRepository).save(existingOrder);
+        assertEquals(1L, updatedOrder.getVersion());
+        Mockito.verify(orderRepository).updatePendingStatusReturning(Mockito.eq(orderDto.getId()), Mockito.eq(externalId),
+                Mockito.eq(OrderStatus.COMPLETED), Mockito.isNull(), Mockito.any(LocalDateTime.class));
+        Mockito.verifyNoMoreInteractions(orderRepository);
+        Mockito.verify(orderCacheService).evict(List.of(externalId));
+    }
+
+    @Test
+    void updateOrderStatus_ShouldOnlyMatchExpectedVersion_WhenVersionIsGiven() {
+
+        String externalId = "ORD-123";
+        OrderDto orderDto = new OrderDto();
+        orderDto.setId(UUID.randomUUID().toString());
+        orderDto.setStatus(OrderStatus.COMPLETED);
+        orderDto.setVersion(3L);
+
+        Order current = new Order();
+        current.setId(orderDto.getId());
+        current.setExternalId(externalId);
+        current.setStatus(OrderStatus.PENDING);
+        current.setVersion(4L);
+
+        Mockito.when(orderRepository.updatePendingStatusReturning(Mockito.eq(orderDto.getId()), Mockito.eq(externalId),
+                        Mockito.eq(OrderStatus.COMPLETED), Mockito.eq(3L), Mockito.any(LocalDateTime.class)))
+                .thenReturn(Optional.empty());
+        Mockito.when(orderRepository.findOrderByIdAndExternalId(orderDto.getId(), externalId))
+                .thenReturn(Optional.of(current));
+
+        Exception exception = assertThrows(OrderConflictException.class, () -> {
+            orderService.updateOrderStatus(externalId, orderDto);
+        });
+
+        assertEquals(String.format(ORDER_MODIFIED_CONCURRENTLY, externalId, 3L), exception.getMessage());
+        Mockito.verifyNoInteractions(orderCacheService);
     }
 
     @Test
@@ -126,6 +235,8 @@ public class OrderServiceTest {
         });
 
         assertEquals(String.format(ORDER_NOT_FOUND, orderDto.getId()) , exception.getMessage());
+        Mockito.verify(orderRepository).updatePendingStatusReturning(Mockito.eq(orderDto.getId()), Mockito.eq(externalId),
+                Mockito.eq(OrderStatus.COMPLETED), Mockito.isNull(), Mockito.any(LocalDateTime.class));
         Mockito.verify(orderRepository).findOrderByIdAndExternalId(orderDto.getId(), externalId);
         Mockito.verifyNoMoreInteractions(orderRepository);
     }
@@ -146,11 +257,13 @@ public class OrderServiceTest {
         Mockito.when(orderRepository.findOrderByIdAndExternalId(orderDto.getId(), externalId))
                 .thenReturn(Optional.of(existingOrder));
 
-        Exception exception = assertThrows(OrderException.class, () -> {
+        Exception exception = assertThrows(OrderConflictException.class, () -> {
             orderService.updateOrderStatus(externalId, orderDto);
         });
 
         assertEquals(ONLY_PENDING_ORDERS_CAN_BE_MARKED_AS_COMPLETED, exception.getMessage());
+        Mockito.verify(orderRepository).updatePendingStatusReturning(Mockito.eq(orderDto.getId()), Mockito.eq(externalId),
+                Mockito.eq(OrderStatus.COMPLETED), Mockito.isNull(), Mockito.any(LocalDateTime.class));
         Mockito.verify(orderRepository).findOrderByIdAndExternalId(orderDto.getId(), externalId);
         Mockito.verifyNoMoreInteractions(orderRepository);
     }
@@ -163,21 +276,12 @@ public class OrderServiceTest {
         orderDto.setId(UUID.randomUUID().toString());
         orderDto.setStatus(OrderStatus.PENDING);
 
-        Order existingOrder = new Order();
-        existingOrder.setId(orderDto.getId());
-        existingOrder.setExternalId(externalId);
-        existingOrder.setStatus(OrderStatus.PENDING);
-
-        Mockito.when(orderRepository.findOrderByIdAndExternalId(orderDto.getId(), externalId))
-                .thenReturn(Optional.of(existingOrder));
-
         Exception exception = assertThrows(OrderException.class, () -> {
             orderService.updateOrderStatus(externalId, orderDto);
         });
 
         assertEquals(IT_IS_NOT_POSSIBLE_TO_CHANGE_TO_PENDING, exception.getMessage());
-        Mockito.verify(orderRepository).findOrderByIdAndExternalId(orderDto.getId(), externalId);
-        Mockito.verifyNoMoreInteractions(orderRepository);
+        Mockito.verifyNoInteractions(orderRepository);
     }
 
     @Test
@@ -195,7 +299,7 @@ public class OrderServiceTest {
         order.setExternalId("ORD-123");
         order.setStatus(OrderStatus.PENDING);
         order.setProducts(new ArrayList<>());
-        order.setTotalAmount(BigDecimal.valueOf(100));
+        order.setTotalAmount(Money.of(BigDecimal.valueOf(100)));
         order.setCreatedAt(LocalDateTime.now());
         orders.add(order);
 
@@ -204,7 +308,7 @@ public class OrderServiceTest {
         order2.setExternalId("ORD-124");
         order2.setStatus(OrderStatus.PENDING);
         order2.setProducts(new ArrayList<>());
-        order2.setTotalAmount(BigDecimal.valueOf(200));
+        order2.setTotalAmount(Money.of(BigDecimal.valueOf(200)));
         order2.setCreatedAt(LocalDateTime.now());
         orders.add(order2);
 
@@ -238,7 +342,7 @@ public class OrderServiceTest {
         order.setExternalId("ORD-123");
         order.setStatus(OrderStatus.PENDING);
         order.setProducts(new ArrayList<>());
-        order.setTotalAmount(BigDecimal.valueOf(100));
+        order.setTotalAmount(Money.of(BigDecimal.valueOf(100)));
         order.setCreatedAt(LocalDateTime.now());
         orders.add(order);
 
@@ -247,7 +351,7 @@ public class OrderServiceTest {
         order2.setExternalId("ORD-124");
         order2.setStatus(OrderStatus.COMPLETED);
         order2.setProducts(new ArrayList<>());
-        order2.setTotalAmount(BigDecimal.valueOf(200));
+        order2.setTotalAmount(Money.of(BigDecimal.valueOf(200)));
         order2.setCreatedAt(LocalDateTime.now());
         orders.add(order2);
 
@@ -284,4 +388,52 @@ public class OrderServiceTest {
         Mockito.verify(orderRepository).findAll(Mockito.any(Specification.class), Mockito.eq(pageable));
     }
 
+    @Test
+    void getOrdersByCursor_ShouldReturnNextCursor_WhenMoreOrdersExist() {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Order order = new Order();
+            order.setId(UUID.randomUUID().toString());
+            order.setExternalId("ORD-" + i);
+            order.setStatus(OrderStatus.PENDING);
+            order.setProducts(new ArrayList<>());
+            order.setCreatedAt(LocalDateTime.of(2024, 1, 1, 10, i));
+            orders.add(order);
+        }
+
+        Mockito.when(orderRepository.findBy(Mockito.any(Specification.class), Mockito.any()))
+                .thenReturn(orders);
+
+        CursorPage<Order> result = orderService.getOrdersByCursor(OrderStatus.PENDING, null, null, null, 2);
+
+        assertEquals(2, result.getContent().size());
+        assertTrue(result.isHasNext());
+        OrderCursor next = OrderCursor.decode(result.getNextCursor());
+        assertEquals(orders.get(1).getCreatedAt(), next.getCreatedAt());
+        assertEquals(orders.get(1).getId(), next.getId());
+    }
+
+    @Test
+    void getOrdersByCursor_ShouldReturnLastPage_WhenNoMoreOrdersExist() {
+        Order order = new Order();
+        order.setId(UUID.randomUUID().toString());
+        order.setCreatedAt(LocalDateTime.now());
+
+        Mockito.when(orderRepository.findBy(Mockito.any(Specification.class), Mockito.any()))
+                .thenReturn(List.of(order));
+
+        String cursor = new OrderCursor(LocalDateTime.of(2024, 1, 1, 0, 0), "abc").encode();
+        CursorPage<Order> result = orderService.getOrdersByCursor(null, null, null, cursor, 2);
+
+        assertEquals(1, result.getContent().size());
+        assertFalse(result.isHasNext());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void getOrdersByCursor_ShouldThrowException_WhenCursorIsInvalid() {
+        assertThrows(InvalidCursorException.class,
+                () -> orderService.getOrdersByCursor(null, null, null, "not-a-cursor", 10));
+        Mockito.verifyNoInteractions(orderRepository);
+    }
 }
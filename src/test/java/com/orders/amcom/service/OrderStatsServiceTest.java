@@ -0,0 +1,227 @@
+package com.orders.amcom.service;
+
+import com.orders.amcom.config.SchedulingConfig;
+import com.orders.amcom.dto.OrderDto;
+import com.orders.amcom.dto.OrderStatsDto;
+import com.orders.amcom.enums.OrderStatus;
+import com.orders.amcom.model.Money;
+import com.orders.amcom.model.Order;
+import com.orders.amcom.model.OrderDailyStats;
+import com.orders.amcom.model.OrderDailyStatsId;
+import com.orders.amcom.model.Product;
+import com.orders.amcom.repository.LeaseRepository;
+import com.orders.amcom.repository.OrderDailyStatsRepository;
+import com.orders.amcom.repository.OrderRepository;
+import com.orders.amcom.repository.OrderStatsWatermarkRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class OrderStatsServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2020, 3, 10);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderStatsService orderStatsService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderDailyStatsRepository statsRepository;
+
+    @Autowired
+    private OrderStatsWatermarkRepository watermarkRepository;
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Autowired
+    private LeaseRepository leaseRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    @Qualifier(SchedulingConfig.MAINTENANCE_SCHEDULER)
+    private TaskScheduler maintenanceScheduler;
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+        orderStatsService.rebuild().join();
+    }
+
+    private Order createOrder(LocalDate day, String price) {
+        Product product = new Product();
+        product.setName("Produto");
+        product.setPrice(Money.of(new BigDecimal(price)));
+        product.setQuantity(1);
+
+        Order order = new Order();
+        order.setCreatedAt(day.atTime(10, 0));
+        order.setProducts(new ArrayList<>(List.of(product)));
+        return orderService.createOrder(order);
+    }
+
+    // Outra réplica sobre o mesmo banco: dono de lease próprio e acumuladores próprios.
+    private OrderStatsService replica(Duration watermarkDelay) {
+        OrderStatsService replica = new OrderStatsService(statsRepository, watermarkRepository, orderArchiveService,
+                new LeaseService(leaseRepository), transactionTemplate, maintenanceScheduler, watermarkDelay, Duration.ofMinutes(30));
+        replica.load();
+        return replica;
+    }
+
+    // Grava o pedido sem passar pelo OrderService: só a réplica do teste registra o delta.
+    private Order saveOrder(LocalDate day, String price) {
+        Order order = new Order();
+        order.setExternalId("ORD-stats-" + System.nanoTime());
+        order.setStatus(OrderStatus.PENDING);
+        order.setCreatedAt(day.atTime(10, 0));
+        order.setTotalAmount(Money.of(new BigDecimal(price)));
+        return orderRepository.save(order);
+    }
+
+    private OrderStatsDto statsOf(LocalDate day, OrderStatus status) {
+        return orderStatsService.getStats(status, day, day);
+    }
+
+    @Test
+    void stats_ShouldFollowCreationsAndStatusTransitions_WithoutQueryingOrders() {
+        Order first = createOrder(DAY, "10.50");
+        createOrder(DAY, "4.50");
+        createOrder(DAY.plusDays(1), "100.00");
+
+        OrderDto completion = new OrderDto();
+        completion.setId(first.getId());
+        completion.setStatus(OrderStatus.COMPLETED);
+        orderService.updateOrderStatus(first.getExternalId(), completion);
+
+        OrderStatsDto pending = statsOf(DAY, OrderStatus.PENDING);
+        assertEquals(1, pending.getOrderCount());
+        assertEquals(new BigDecimal("4.50"), pending.getTotalAmount());
+
+        OrderStatsDto completed = statsOf(DAY, OrderStatus.COMPLETED);
+        assertEquals(1, completed.getOrderCount());
+        assertEquals(new BigDecimal("10.50"), completed.getTotalAmount());
+
+        OrderStatsDto range = orderStatsService.getStats(null, DAY, DAY.plusDays(1));
+        assertEquals(3, range.getOrderCount());
+        assertEquals(3, range.getDays().size());
+        assertEquals(new BigDecimal("115.00"), range.getTotalAmount());
+    }
+
+    @Test
+    void flush_ShouldPersistDeltasIntoSummaryTable() {
+        createOrder(DAY, "7.25");
+        createOrder(DAY, "2.75");
+
+        orderStatsService.flush();
+
+        OrderDailyStats row = statsRepository.findById(new OrderDailyStatsId(DAY, OrderStatus.PENDING)).orElseThrow();
+        assertEquals(2, row.getOrderCount());
+        assertEquals(0, new BigDecimal("10.00").compareTo(row.getTotalAmount()));
+        assertEquals(2, statsOf(DAY, OrderStatus.PENDING).getOrderCount());
+    }
+
+    @Test
+    void rebuild_ShouldReconcileCountersWithOrdersTable() {
+        createOrder(DAY, "5.00");
+        orderStatsService.flush();
+        statsRepository.save(new OrderDailyStats(DAY.minusDays(1), OrderStatus.COMPLETED, 42, new BigDecimal("999.00")));
+        statsRepository.save(new OrderDailyStats(DAY, OrderStatus.PENDING, 9, new BigDecimal("1.00")));
+
+        orderStatsService.rebuild().join();
+
+        assertEquals(0, statsOf(DAY.minusDays(1), OrderStatus.COMPLETED).getOrderCount());
+        OrderStatsDto pending = statsOf(DAY, OrderStatus.PENDING);
+        assertEquals(1, pending.getOrderCount());
+        assertEquals(0, new BigDecimal("5.00").compareTo(pending.getTotalAmount()));
+        assertTrue(statsRepository.findById(new OrderDailyStatsId(DAY.minusDays(1), OrderStatus.COMPLETED)).isEmpty());
+    }
+
+    @Test
+    void rebuild_ShouldNotDoubleCount_DeltasOfOtherReplicas() throws Exception {
+        OrderStatsService leader = replica(Duration.ofMillis(300));
+        OrderStatsService follower = replica(Duration.ofMillis(300));
+        // Commitado antes da marca d'água e ainda não gravado pela réplica que o criou.
+        follower.recordCreated(saveOrder(DAY, "3.00"));
+
+        // A marca é anunciada antes de rebuild() retornar; o snapshot fica agendado para ela.
+        CompletableFuture<Boolean> rebuild = leader.rebuild();
+        follower.flush();
+        assertTrue(rebuild.get(5, TimeUnit.SECONDS));
+
+        // Commitado depois do snapshot: fica retido até a réplica ver a troca e só então é gravado.
+        follower.recordCreated(saveOrder(DAY, "7.00"));
+        assertEquals(2, follower.getStats(OrderStatus.PENDING, DAY, DAY).getOrderCount());
+        follower.flush();
+
+        OrderDailyStats row = statsRepository.findById(new OrderDailyStatsId(DAY, OrderStatus.PENDING)).orElseThrow();
+        assertEquals(2, row.getOrderCount());
+        assertEquals(0, new BigDecimal("10.00").compareTo(row.getTotalAmount()));
+        assertEquals(2, follower.getStats(OrderStatus.PENDING, DAY, DAY).getOrderCount());
+    }
+
+    @Test
+    void rebuild_ShouldSkip_WhenAnotherInstanceHoldsTheLease() {
+        LeaseService otherInstance = new LeaseService(leaseRepository);
+        assertTrue(otherInstance.tryAcquire(OrderStatsService.REBUILD_LEASE, Duration.ofMinutes(1)));
+        statsRepository.save(new OrderDailyStats(DAY, OrderStatus.PENDING, 9, new BigDecimal("1.00")));
+        try {
+            assertFalse(orderStatsService.rebuild().join());
+
+            assertEquals(9, statsRepository.findById(new OrderDailyStatsId(DAY, OrderStatus.PENDING)).orElseThrow().getOrderCount());
+        } finally {
+            otherInstance.release(OrderStatsService.REBUILD_LEASE);
+        }
+    }
+
+    @Test
+    void getStats_WithoutPeriod_ShouldAnswerFromStatusTotals() {
+        createOrder(DAY, "10.00");
+        createOrder(DAY.plusDays(3), "5.00");
+        orderStatsService.flush();
+        createOrder(DAY.plusDays(7), "1.25");
+
+        OrderStatsDto pending = orderStatsService.getStats(OrderStatus.PENDING, null, null);
+        assertEquals(3, pending.getOrderCount());
+        assertEquals(new BigDecimal("16.25"), pending.getTotalAmount());
+        assertTrue(pending.getDays().isEmpty());
+
+        OrderStatsDto fromDay = orderStatsService.getStats(null, DAY.plusDays(3), null);
+        assertEquals(2, fromDay.getOrderCount());
+        assertEquals(2, fromDay.getDays().size());
+    }
+
+    @Test
+    void rebuild_ShouldNotBlockTheCaller_UntilTheWatermark() {
+        OrderStatsService replica = replica(Duration.ofMillis(500));
+
+        long start = System.nanoTime();
+        CompletableFuture<Boolean> rebuild = replica.rebuild();
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofMillis(500)) < 0);
+        assertFalse(rebuild.isDone());
+        assertFalse(replica.rebuild().join());
+
+        assertTrue(rebuild.join());
+    }
+}
@@ -0,0 +1,105 @@
+package com.orders.amcom.service;
+
+import com.orders.amcom.dto.OrderDto;
+import com.orders.amcom.enums.OrderStatus;
+import com.orders.amcom.exception.OrderConflictException;
+import com.orders.amcom.model.Money;
+import com.orders.amcom.model.Order;
+import com.orders.amcom.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class OrderStatusConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        Order pending = new Order();
+        pending.setExternalId("ORD-RACE");
+        pending.setStatus(OrderStatus.PENDING);
+        pending.setTotalAmount(Money.of(BigDecimal.ONE));
+        order = orderRepository.save(pending);
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+    }
+
+    private OrderDto completion(Long expectedVersion) {
+        OrderDto dto = new OrderDto();
+        dto.setId(order.getId());
+        dto.setStatus(OrderStatus.COMPLETED);
+        dto.setVersion(expectedVersion);
+        return dto;
+    }
+
+    @Test
+    void updateOrderStatus_ShouldLetExactlyOneConcurrentUpdaterWin() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger successes = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    orderService.updateOrderStatus(order.getExternalId(), completion(null));
+                    successes.incrementAndGet();
+                } catch (OrderConflictException e) {
+                    conflicts.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(1, successes.get());
+        assertEquals(THREADS - 1, conflicts.get());
+        Order stored = orderRepository.findByExternalId(order.getExternalId()).orElseThrow();
+        assertEquals(OrderStatus.COMPLETED, stored.getStatus());
+        assertEquals(1L, stored.getVersion());
+    }
+
+    @Test
+    void updateOrderStatus_ShouldReturnUpdatedRow_AndRejectStaleVersion() {
+        assertThrows(OrderConflictException.class,
+                () -> orderService.updateOrderStatus(order.getExternalId(), completion(order.getVersion() + 1)));
+
+        Order updated = orderService.updateOrderStatus(order.getExternalId(), completion(order.getVersion()));
+
+        assertEquals(OrderStatus.COMPLETED, updated.getStatus());
+        assertEquals(order.getVersion() + 1, updated.getVersion());
+    }
+}
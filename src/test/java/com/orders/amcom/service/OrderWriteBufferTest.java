@@ -0,0 +1,144 @@
+package com.orders.amcom.service;
+
+import com.orders.amcom.dto.OrderDto;
+import com.orders.amcom.enums.BackpressurePolicy;
+import com.orders.amcom.enums.OrderWriteMode;
+import com.orders.amcom.model.Order;
+import com.orders.amcom.model.Product;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderWriteBufferTest {
+
+    private final OrderService orderService = Mockito.mock(OrderService.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<List<Order>> commits = new CopyOnWriteArrayList<>();
+    private final AtomicInteger externalIds = new AtomicInteger();
+    private OrderWriteBuffer buffer;
+
+    private OrderWriteBuffer buffer(OrderWriteMode mode, int flushSize, Duration maxLinger) {
+        Mockito.doAnswer(invocation -> {
+            invocation.<Order>getArgument(0).setExternalId("ORD-" + externalIds.incrementAndGet());
+            return null;
+        }).when(orderService).prepareOrder(Mockito.any());
+        Mockito.when(orderService.savePreparedOrders(Mockito.anyList())).thenAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            commits.add(List.copyOf(orders));
+            return orders;
+        });
+        buffer = new OrderWriteBuffer(orderService, new OrderBatchService(orderService), meterRegistry, mode, flushSize,
+                maxLinger, 100, BackpressurePolicy.BLOCK);
+        buffer.start();
+        return buffer;
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (buffer != null) {
+            buffer.shutdown();
+        }
+    }
+
+    @Test
+    void groupCommit_ShouldWriteOrdersInOneTransaction_WhenFlushSizeIsReached() throws Exception {
+        buffer(OrderWriteMode.GROUP_COMMIT, 3, Duration.ofSeconds(10));
+
+        List<CompletableFuture<OrderDto>> results = List.of(
+                buffer.submit(order()), buffer.submit(order()), buffer.submit(order()));
+
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(1, TimeUnit.SECONDS);
+        assertEquals(1, commits.size());
+        assertEquals(3, commits.get(0).size());
+        assertEquals("ORD-1", results.get(0).get().getExternalId());
+        assertEquals(1.0, meterRegistry.get("orders.write.flushes").tag("trigger", "size").counter().count());
+    }
+
+    @Test
+    void groupCommit_ShouldFlushPartialBatch_AfterMaxLinger() throws Exception {
+        buffer(OrderWriteMode.GROUP_COMMIT, 100, Duration.ofMillis(50));
+
+        CompletableFuture<OrderDto> first = buffer.submit(order());
+        CompletableFuture<OrderDto> second = buffer.submit(order());
+
+        CompletableFuture.allOf(first, second).get(2, TimeUnit.SECONDS);
+        assertEquals(2, commits.stream().mapToInt(List::size).sum());
+        assertTrue(meterRegistry.get("orders.write.flushes").tag("trigger", "linger").counter().count() >= 1);
+    }
+
+    @Test
+    void groupCommit_ShouldIsolateFailingOrder_WhenBatchTransactionFails() throws Exception {
+        buffer(OrderWriteMode.GROUP_COMMIT, 2, Duration.ofSeconds(10));
+        Mockito.when(orderService.savePreparedOrders(Mockito.anyList())).thenAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            if (orders.stream().anyMatch(order -> "ORD-2".equals(order.getExternalId()))) {
+                throw new DataIntegrityViolationException("duplicate key");
+            }
+            commits.add(List.copyOf(orders));
+            return orders;
+        });
+
+        CompletableFuture<OrderDto> good = buffer.submit(order());
+        CompletableFuture<OrderDto> bad = buffer.submit(order());
+
+        assertEquals("ORD-1", good.get(1, TimeUnit.SECONDS).getExternalId());
+        ExecutionException error = assertThrows(ExecutionException.class, () -> bad.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(DataIntegrityViolationException.class, error.getCause());
+        assertEquals(1.0, meterRegistry.get("orders.write.failures").counter().count());
+    }
+
+    @Test
+    void shutdown_ShouldFailOrdersLeftInBuffer() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            invocation.<Order>getArgument(0).setExternalId("ORD-" + externalIds.incrementAndGet());
+            return null;
+        }).when(orderService).prepareOrder(Mockito.any());
+        // Sem start() o flusher não roda: o pedido fica no buffer até o shutdown.
+        buffer = new OrderWriteBuffer(orderService, new OrderBatchService(orderService), meterRegistry,
+                OrderWriteMode.GROUP_COMMIT, 10, Duration.ofSeconds(10), 100, BackpressurePolicy.BLOCK);
+        CompletableFuture<OrderDto> result = buffer.submit(order());
+        assertFalse(result.isDone());
+
+        buffer.shutdown();
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> result.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, error.getCause());
+        Mockito.verify(orderService, Mockito.never()).savePreparedOrders(Mockito.anyList());
+        assertThrows(RejectedExecutionException.class, () -> buffer.submit(order()));
+    }
+
+    @Test
+    void sync_ShouldCreateOrderInline() throws Exception {
+        buffer(OrderWriteMode.SYNC, 10, Duration.ofSeconds(10));
+        Order order = order();
+        order.setExternalId("ORD-42");
+        Mockito.when(orderService.createOrder(order)).thenReturn(order);
+
+        assertEquals("ORD-42", buffer.submit(order).get().getExternalId());
+        Mockito.verify(orderService, Mockito.never()).savePreparedOrders(Mockito.anyList());
+    }
+
+    private static Order order() {
+        Product product = new Product();
+        product.setName("Produto");
+        product.setQuantity(1);
+        Order order = new Order();
+        order.setProducts(new ArrayList<>(List.of(product)));
+        return order;
+    }
+}
@@ -0,0 +1,82 @@
+package com.orders.amcom.service;
+
+import com.orders.amcom.config.RabbitMQConfig;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.GetResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.rabbit.core.ChannelCallback;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParkedOrderServiceTest {
+
+    private final RabbitTemplate rabbitTemplate = Mockito.mock(RabbitTemplate.class);
+    private final Channel channel = Mockito.mock(Channel.class);
+    private final ParkedOrderService parkedOrderService =
+            new ParkedOrderService(rabbitTemplate, Mockito.mock(AmqpAdmin.class), Duration.ofSeconds(1));
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Mockito.when(rabbitTemplate.execute(Mockito.any())).thenAnswer(invocation -> {
+            ChannelCallback<?> callback = invocation.getArgument(0);
+            return callback.doInRabbit(channel);
+        });
+        Mockito.when(channel.isOpen()).thenReturn(true);
+        Mockito.when(channel.basicGet(RabbitMQConfig.PARKING_QUEUE_NAME, false))
+                .thenReturn(parked(1), parked(2), null);
+    }
+
+    private static GetResponse parked(long deliveryTag) {
+        AMQP.BasicProperties properties = new AMQP.BasicProperties.Builder().contentType("application/json").build();
+        return new GetResponse(new Envelope(deliveryTag, false, "", RabbitMQConfig.PARKING_QUEUE_NAME), properties,
+                "{}".getBytes(StandardCharsets.UTF_8), 0);
+    }
+
+    @Test
+    void replay_ShouldAckParkedMessage_OnlyAfterTheBrokerConfirmsTheCopy() throws Exception {
+        assertEquals(2, parkedOrderService.replay(10));
+
+        InOrder inOrder = Mockito.inOrder(channel);
+        inOrder.verify(channel).confirmSelect();
+        for (long deliveryTag : new long[]{1, 2}) {
+            inOrder.verify(channel).basicPublish(Mockito.eq(""), Mockito.eq(RabbitMQConfig.QUEUE_NAME), Mockito.any(), Mockito.any());
+            inOrder.verify(channel).waitForConfirmsOrDie(1000);
+            inOrder.verify(channel).basicAck(deliveryTag, false);
+        }
+    }
+
+    @Test
+    void replay_ShouldRequeueParkedMessage_WhenTheCopyIsNotConfirmed() throws Exception {
+        Mockito.doNothing().doThrow(new TimeoutException()).when(channel).waitForConfirmsOrDie(1000);
+
+        assertThrows(AmqpException.class, () -> parkedOrderService.replay(10));
+
+        Mockito.verify(channel).basicAck(1, false);
+        Mockito.verify(channel, Mockito.never()).basicAck(2, false);
+        Mockito.verify(channel).basicNack(2, false, true);
+    }
+
+    @Test
+    void replay_ShouldLeaveRequeueToTheBroker_WhenTheChannelWasClosed() throws Exception {
+        Mockito.doThrow(new IOException("nack")).when(channel).waitForConfirmsOrDie(1000);
+        Mockito.when(channel.isOpen()).thenReturn(false);
+
+        assertThrows(AmqpException.class, () -> parkedOrderService.replay(10));
+
+        Mockito.verify(channel, Mockito.never()).basicAck(Mockito.anyLong(), Mockito.anyBoolean());
+        Mockito.verify(channel, Mockito.never()).basicNack(Mockito.anyLong(), Mockito.anyBoolean(), Mockito.anyBoolean());
+    }
+}
@@ -0,0 +1,103 @@
+package com.orders.amcom.service;
+
+import com.orders.amcom.dto.ProductSalesDto;
+import com.orders.amcom.enums.OrderStatus;
+import com.orders.amcom.model.Money;
+import com.orders.amcom.model.Order;
+import com.orders.amcom.model.Product;
+import com.orders.amcom.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class ProductIntegrationServiceTest {
+
+    @Autowired
+    private ProductIntegrationService productIntegrationService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @BeforeEach
+    void setUp() {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Order order = new Order();
+            order.setExternalId("ORD-PI-" + i);
+            order.setStatus(i < 6 ? OrderStatus.COMPLETED : OrderStatus.PENDING);
+            order.setProducts(new ArrayList<>(List.of(
+                    product(order, "Caneta", "2.50", 2),
+                    product(order, "Caderno", "10.00", 1))));
+            orders.add(order);
+        }
+        orderRepository.saveAll(orders);
+    }
+
+    private Product product(Order order, String name, String price, int quantity) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(Money.of(new BigDecimal(price)));
+        product.setQuantity(quantity);
+        product.setOrder(order);
+        return product;
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void fetchProductsFromServiceB_ShouldScrollOnlyProductsOfCompletedOrders() {
+        Set<String> ids = new HashSet<>();
+        Window<Product> window = productIntegrationService.fetchProductsFromServiceB(ScrollPosition.keyset(), 5);
+        int pages = 1;
+        window.forEach(product -> ids.add(product.getId()));
+        while (window.hasNext()) {
+            window = productIntegrationService.fetchProductsFromServiceB(window.positionAt(window.size() - 1), 5);
+            window.forEach(product -> ids.add(product.getId()));
+            pages++;
+        }
+
+        assertEquals(12, ids.size());
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void fetchProductSalesFromServiceB_ShouldAggregateByNameInTheDatabase() {
+        Slice<ProductSalesDto> sales = productIntegrationService.fetchProductSalesFromServiceB(PageRequest.of(0, 10));
+
+        assertFalse(sales.hasNext());
+        assertEquals(2, sales.getNumberOfElements());
+        ProductSalesDto caderno = sales.getContent().get(0);
+        assertEquals("Caderno", caderno.getName());
+        assertEquals(6L, caderno.getQuantity());
+        assertEquals(0, new BigDecimal("60.00").compareTo(caderno.getRevenue()));
+        ProductSalesDto caneta = sales.getContent().get(1);
+        assertEquals(12L, caneta.getQuantity());
+        assertEquals(0, new BigDecimal("30.00").compareTo(caneta.getRevenue()));
+    }
+
+    @Test
+    void streamProductSalesFromServiceB_ShouldEmitEachAggregatedRow() {
+        List<ProductSalesDto> sales = new ArrayList<>();
+        productIntegrationService.streamProductSalesFromServiceB(sales::add);
+
+        assertEquals(List.of("Caderno", "Caneta"), sales.stream().map(ProductSalesDto::getName).toList());
+    }
+}
@@ -0,0 +1,108 @@
+package com.orders.amcom.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnowflakeExternalIdGeneratorTest {
+
+    private static final int THREADS_PER_NODE = 4;
+    private static final int IDS_PER_THREAD = 500_000;
+
+    @Test
+    void nextLong_ShouldNeverRepeat_AcrossThreadsAndNodes() throws Exception {
+        List<SnowflakeExternalIdGenerator> nodes = List.of(
+                new SnowflakeExternalIdGenerator(1), new SnowflakeExternalIdGenerator(2));
+        int threads = nodes.size() * THREADS_PER_NODE;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> results = new ArrayList<>();
+
+        try {
+            for (int t = 0; t < threads; t++) {
+                SnowflakeExternalIdGenerator generator = nodes.get(t % nodes.size());
+                results.add(executor.submit(() -> {
+                    long[] ids = new long[IDS_PER_THREAD];
+                    start.await();
+                    for (int i = 0; i < IDS_PER_THREAD; i++) {
+                        ids[i] = generator.nextLong();
+                    }
+                    return ids;
+                }));
+            }
+            start.countDown();
+
+            long[] all = new long[threads * IDS_PER_THREAD];
+            int offset = 0;
+            for (Future<long[]> result : results) {
+                long[] ids = result.get();
+                for (int i = 1; i < ids.length; i++) {
+                    // cada thread enxerga ids estritamente crescentes
+                    assertTrue(ids[i] > ids[i - 1]);
+                }
+                System.arraycopy(ids, 0, all, offset, ids.length);
+                offset += ids.length;
+            }
+
+            Arrays.sort(all);
+            for (int i = 1; i < all.length; i++) {
+                assertNotEquals(all[i - 1], all[i], "Duplicated id " + all[i]);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void nextLong_ShouldEncodeTimestampAndNode() {
+        long now = System.currentTimeMillis();
+        SnowflakeExternalIdGenerator generator = new SnowflakeExternalIdGenerator(42, () -> now);
+
+        long id = generator.nextLong();
+
+        assertEquals(now, SnowflakeExternalIdGenerator.timestampOf(id));
+        assertEquals(42, SnowflakeExternalIdGenerator.nodeIdOf(id));
+        assertTrue(generator.nextId().startsWith(SnowflakeExternalIdGenerator.PREFIX));
+    }
+
+    @Test
+    void nextLong_ShouldStayUniqueAndOrdered_WhenClockGoesBackwards() {
+        long[] clock = {SnowflakeExternalIdGenerator.EPOCH + 10_000};
+        SnowflakeExternalIdGenerator generator = new SnowflakeExternalIdGenerator(7, () -> clock[0]);
+
+        long first = generator.nextLong();
+        clock[0] -= 5_000;
+        long second = generator.nextLong();
+
+        assertTrue(second > first);
+    }
+
+    @Test
+    void nextLong_ShouldBorrowNextMillisecond_WhenSequenceIsExhausted() {
+        long fixed = SnowflakeExternalIdGenerator.EPOCH + 1_000;
+        SnowflakeExternalIdGenerator generator = new SnowflakeExternalIdGenerator(3, () -> fixed);
+
+        long last = 0;
+        for (int i = 0; i < 5_000; i++) {
+            long id = generator.nextLong();
+            assertTrue(id > last);
+            last = id;
+        }
+
+        assertEquals(fixed + 1, SnowflakeExternalIdGenerator.timestampOf(last));
+    }
+
+    @Test
+    void constructor_ShouldRejectNodeIdOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeExternalIdGenerator(1024));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeExternalIdGenerator(-1));
+    }
+}